@@ -2,14 +2,37 @@ package thesis;
 
 import nl.tue.geometrycore.geometry.Vector;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.util.DoubleUtil;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class Checks {
 
+    public static void runAll(Polygon polygon) {
+        correctOrder(polygon);
+        uniqueVertices(polygon);
+        noUnnecessaryVertices(polygon);
+        no360DegreeTurns(polygon);
+    }
+
+    // Runs all checks on a polygon with holes, given as its outer ring followed by its holes
+    public static void runAll(List<Polygon> rings) {
+        for (int i = 0; i < rings.size(); i++) {
+            var ring = rings.get(i);
+            if (i == 0)
+                correctOrder(ring);
+            else
+                correctHoleOrder(ring);
+            uniqueVertices(ring);
+            noUnnecessaryVertices(ring);
+            no360DegreeTurns(ring);
+        }
+    }
+
     // Algorithms assume vertices are given clockwise, make sure this is the case
-    public static void correctOrder(Data data) {
-        var polygon = data.original;
+    public static void correctOrder(Polygon polygon) {
 
         var area = polygon.areaSigned();
 
@@ -19,8 +42,31 @@ public class Checks {
         }
     }
 
-    public static void uniqueVertices(Data data) {
-        var polygon = data.original;
+    // Holes go the other way around, so the polygon is on the same side of every edge
+    public static void correctHoleOrder(Polygon polygon) {
+
+        var area = polygon.areaSigned();
+
+        if (area > 0) {
+            System.out.println("Hole was clockwise; Reversing...");
+            polygon.reverse();
+        }
+    }
+
+    // Area preserving simplifications of a subdivision keep the area of every face, not only their total
+    public static boolean sameAreas(double[] before, double[] after) {
+        var same = before.length == after.length;
+        for (int i = 0; same && i < before.length; i++) {
+            var tolerance = DoubleUtil.EPS * Math.max(1, Math.abs(before[i]));
+            if (Math.abs(before[i] - after[i]) > tolerance) {
+                System.out.println("Area of face " + i + " changed from " + before[i] + " to " + after[i]);
+                same = false;
+            }
+        }
+        return same;
+    }
+
+    public static void uniqueVertices(Polygon polygon) {
         var vertices = polygon.vertices();
         var toRemove = new ArrayList<Vector>();
 
@@ -40,8 +86,7 @@ public class Checks {
         System.out.println("Removed " + toRemove.size() + " duplicate vertices");
     }
 
-    public static void noUnnecessaryVertices(Data data) {
-        var polygon = data.original;
+    public static void noUnnecessaryVertices(Polygon polygon) {
         var edges = new ArrayList<LineSegment>();
         polygon.edges().forEach(edges::add);
         var toRemove = new ArrayList<Vector>();
@@ -65,8 +110,7 @@ public class Checks {
         System.out.println("Removed " + toRemove.size() + " unnecessary vertices");
     }
 
-    public static void no360DegreeTurns(Data data) {
-        var polygon = data.original;
+    public static void no360DegreeTurns(Polygon polygon) {
         var edges = new ArrayList<LineSegment>();
         polygon.edges().forEach(edges::add);
         var toRemove = new ArrayList<Vector>();
@@ -20,13 +20,13 @@ public class Compass {
     public static void draw(Data data, DrawPanel panel) {
         drawOrientationSet(panel, data.orientations, offset(panel, -25 - SIZE, -25 - SIZE));
 
-        if (data.simplificationData.polygon == null) return;
+        if (data.simplificationData.getPolygon() == null) return;
         if (data.original == null) return;
 
         var counts = calculateCounts(data.original);
         drawCounts(panel, counts, offset(panel, -25 - SIZE, -25 - SIZE * 4), Color.lightGray);
 
-        var counts2 = calculateCounts(data.simplificationData.polygon);
+        var counts2 = calculateCounts(data.simplificationData.getPolygon());
         drawCounts(panel, counts2, offset(panel, -25 - SIZE, -25 - SIZE * 7), Color.darkGray);
     }
 
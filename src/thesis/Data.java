@@ -2,6 +2,7 @@ package thesis;
 
 import thesis.simplification.SimplificationData;
 import thesis.simplification.Simplification;
+import thesis.simplification.SimplificationSession;
 import thesis.ui.DrawPanel;
 import thesis.ui.ProgressDialog;
 import thesis.ui.SidePanel;
@@ -44,11 +45,15 @@ public class Data {
     public int[] counterClockwiseClassifications;
     public int[] significance;
     public int currentIndex;
+    public long schematizationTotalTimeTaken = 0;
+    public long schematizationLastCycleTimeTaken = 0;
+    public boolean schematizationThreaded = true;
 
     public OrientationSet orientations = new OrientationSet();
 
     // Simplification
     public SimplificationData simplificationData = new SimplificationData(new Polygon(), orientations);
+    public SimplificationSession simplificationSession = new SimplificationSession(simplificationData);
 
     // settings
     public SizeMode sizemode = SizeMode.VIEW;
@@ -89,7 +94,7 @@ public class Data {
     }
 
     public void select(Vector loc, double distance) {
-        var polygon = simplificationData.polygon;
+        var polygon = simplificationData.getPolygon();
         if (polygon.distanceTo(loc) < distance) {
             int closest = -1;
             var closestDistance = Double.MAX_VALUE;
@@ -183,7 +188,8 @@ public class Data {
 
         Schematization.resetDebug(this);
 
-        Simplification.reset();
+        simplificationData.statistics.reset();
+        simplificationData.metrics.reset();
         Simplification.resetDebug(this);
 
         repaint();
@@ -225,7 +231,7 @@ public class Data {
             new SwingWorker<Void, Void>() {
                 @Override
                 protected Void doInBackground() {
-                    dialog.setMaxProgress(simplificationData.polygon.vertexCount() - K);
+                    dialog.setMaxProgress(simplificationData.vertexCount() - K);
                     dialog.show();
                     Simplification.runUntilLeft(Data.this, K, dialog);
                     return null;
@@ -249,7 +255,7 @@ public class Data {
             new SwingWorker<Void, Void>() {
                 @Override
                 protected Void doInBackground() {
-                    dialog.setMaxProgress(simplificationData.polygon.vertexCount());
+                    dialog.setMaxProgress(simplificationData.vertexCount());
                     dialog.show();
                     Simplification.finish(Data.this, dialog);
                     return null;
@@ -314,7 +320,7 @@ public class Data {
                 protected Void doInBackground() {
                     dialog.setProgress(0);
                     dialog.show();
-                    Simplification.initState(simplificationData, simplificationData.polygon, dialog);
+                    Simplification.initState(simplificationData, simplificationData.getPolygon(), dialog);
                     return null;
                 }
 
@@ -325,7 +331,7 @@ public class Data {
                 }
             }.execute();
         } else {
-            Simplification.initState(simplificationData, simplificationData.polygon, dialog);
+            Simplification.initState(simplificationData, simplificationData.getPolygon(), dialog);
             repaint();
         }
 
@@ -342,10 +348,7 @@ public class Data {
     }
 
     public void runChecks() {
-        Checks.correctOrder(this);
-        Checks.uniqueVertices(this);
-        Checks.noUnnecessaryVertices(this);
-        Checks.no360DegreeTurns(this);
+        Checks.runAll(original);
     }
 
     public void generateStaircase() {
@@ -23,38 +23,48 @@ public class DataGeneration {
     };
 
     public static void generate(Data data) {
+        data.staircase = staircase(random, data.staircaseSlope, data.stairSteps, data.staircaseSlopeVariation,
+                data.staircaseStepSizeVariation, data.staircaseOrientations);
+    }
+
+    /**
+     * Builds a polygon with a single staircase of the given number of steps, using the first two orientations for
+     * the steps. The slope variation is in degrees, the step size variation in percent of the step size.
+     * <br> Complexity O(n) for n steps
+     */
+    public static Polygon staircase(Random random, double slope, int steps, double slopeVariation, double stepSizeVariation, OrientationSet orientations) {
         var sideLength = 200.0;
         Vector corner = new Vector(100,100);
         Vector start = new Vector(corner.getX(),corner.getY() + sideLength);
 
-        var bottomLength = sideLength / Math.tan(data.staircaseSlope / 360 * (Math.PI * 2));
+        var bottomLength = sideLength / Math.tan(slope / 360 * (Math.PI * 2));
 
         Vector end = new Vector(corner.getX() + bottomLength  ,100);
 
-        Vector assigned = data.staircaseOrientations.get(0).getDirection();
-        Vector associated = data.staircaseOrientations.get(1).getDirection();
+        Vector assigned = orientations.get(0).getDirection();
+        Vector associated = orientations.get(1).getDirection();
 
 
         var points = new ArrayList<Vector>();
 
         var direction = Vector.subtract(end, start);
 
-        var stepSize = direction.length() / (data.stairSteps * 2);
+        var stepSize = direction.length() / (steps * 2);
         var step = direction.clone();
         step.normalize();
 
         points.add(start.clone());
         var now = start.clone();
-        for (int i = 0; i < data.stairSteps; i++) {
-            double assignedAngleAdjustment = (random.nextDouble() * 2 - 1) * (data.staircaseSlopeVariation / 360) * 2 * Math.PI;
-            double associatedAngleAdjustment = (random.nextDouble() * 2 - 1) * (data.staircaseSlopeVariation / 360) * 2 * Math.PI;
+        for (int i = 0; i < steps; i++) {
+            double assignedAngleAdjustment = (random.nextDouble() * 2 - 1) * (slopeVariation / 360) * 2 * Math.PI;
+            double associatedAngleAdjustment = (random.nextDouble() * 2 - 1) * (slopeVariation / 360) * 2 * Math.PI;
 
             var adjustedAssigned = Vector.rotate(assigned, assignedAngleAdjustment);
             var adjustedAssociated = Vector.rotate(associated, associatedAngleAdjustment);
 
             var ratios = Vector.solveVectorAddition(adjustedAssigned, adjustedAssociated, step);
 
-            var stepSizeAdjustment = random.nextDouble() * (data.staircaseStepSizeVariation - 100) / 100 + 1;
+            var stepSizeAdjustment = random.nextDouble() * (stepSizeVariation - 100) / 100 + 1;
             var adjustedStepSize = stepSize * stepSizeAdjustment;
 
             var assignedStep = Vector.multiply(adjustedStepSize * ratios[0], adjustedAssigned);
@@ -69,7 +79,7 @@ public class DataGeneration {
         points.add(new Vector(corner.getX() - 10 * sideLength,now.getY() - 10 * sideLength));
         points.add(new Vector(corner.getX() - 10 * sideLength,corner.getY() + sideLength));
 
-        data.staircase = new Polygon(points);
+        return new Polygon(points);
     }
 
     public static void buildStep(List<Vector> points, Vector now, Vector a, Vector b) {
@@ -12,20 +12,39 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Schematization {
 
-    public static long totalTimeTaken = 0;
-    public static long lastCycleTimeTaken = 0;
-
     public static void run(Data data) {
         timedIteration(data);
     }
 
+    /**
+     * Schematizes all remaining vertices at once. The staircase points of every vertex only depend on the original
+     * polygon and its classifications, so they are built in separate chunks, in parallel when the schematization runs
+     * threaded, and appended to the schematization in vertex order afterwards.
+     * <br> Complexity O(n / p) for n remaining vertices and p cores when threaded
+     */
     public static void finish(Data data) {
-        while (data.currentIndex < data.original.vertexCount()) {
-            timedIteration(data);
+        long start = System.currentTimeMillis();
+
+        var size = data.original.vertexCount();
+        var indices = IntStream.range(Math.min(data.currentIndex, size), size);
+        var chunks = (data.schematizationThreaded ? indices.parallel() : indices)
+                .mapToObj(index -> vertexPoints(data, index))
+                .collect(Collectors.toList());
+
+        // Ordered streams keep the chunks in vertex order, also when they were built in parallel
+        for (var chunk : chunks) {
+            chunk.forEach(data.schematization::addVertex);
         }
+        data.currentIndex = Math.max(data.currentIndex, size);
+
+        long duration = System.currentTimeMillis() - start;
+        data.schematizationTotalTimeTaken += duration;
+        data.schematizationLastCycleTimeTaken = duration;
     }
 
     public static void timedIteration(Data data) {
@@ -33,8 +52,8 @@ public class Schematization {
         iteration(data);
         long end = System.currentTimeMillis();
         long duration = end - start;
-        totalTimeTaken += duration;
-        lastCycleTimeTaken = duration;
+        data.schematizationTotalTimeTaken += duration;
+        data.schematizationLastCycleTimeTaken = duration;
     }
 
     public static void init(Data data) {
@@ -145,15 +164,24 @@ public class Schematization {
         if (data.currentIndex >= data.original.vertexCount())
             return;
 
+        vertexPoints(data, data.currentIndex).forEach(data.schematization::addVertex);
+        data.currentIndex++;
+    }
+
+    /**
+     * Returns the points that replace the edge from the vertex at the given index to the next vertex, ending at the
+     * next vertex. Only reads the data, so the points of different vertices can be built at the same time.
+     * <br> Complexity O(1) for a fixed number of steps
+     */
+    private static List<Vector> vertexPoints(Data data, int index) {
         var polygon = data.original;
-        var line = data.schematization;
+        var line = new ArrayList<Vector>();
 
         // Todo: calculate step-count somehow
         var steps = 5;
 
         var size = data.clockwiseClassifications.length;
-        var prevIndex = (data.currentIndex + size - 1) % size;
-        var index = data.currentIndex;
+        var prevIndex = (index + size - 1) % size;
         var nextIndex = (index + 1) % size;
         var nextNextIndex = (index + 2) % size;
 
@@ -169,7 +197,7 @@ public class Schematization {
         var nextSignificance = getSignificance(data, nextIndex);
 
         if (isAligned(clockwise)) {
-            line.addVertex(next.clone());
+            line.add(next.clone());
         } else {
             // Split edge for double significance, letting us handle it separately on both sides
             if (isSignificant(data, nextIndex)) {
@@ -177,21 +205,21 @@ public class Schematization {
 
                 var points = buildStaircase(data.orientations, current, inbetween, prev, clockwise, currentSignificance, steps);
                 points.remove(points.size() - 1);
-                points.forEach(line::addVertex);
+                line.addAll(points);
 
                 var next_points = buildStaircase(data.orientations, next, inbetween, nextNext, counterClockwise, nextSignificance, steps);
                 Collections.reverse(next_points);
                 //next_points.remove(0);
-                next_points.forEach(line::addVertex);
+                line.addAll(next_points);
 
-                line.addVertex(next.clone());
+                line.add(next.clone());
             } else {
                 var points = buildStaircase(data.orientations, current, next, prev, clockwise, currentSignificance, steps);
-                points.forEach(line::addVertex);
+                line.addAll(points);
             }
         }
 
-        data.currentIndex++;
+        return line;
     }
 
     public static List<Vector> buildStaircase(OrientationSet orientations, Vector start, Vector end, Vector prev, int classification, int significance, int steps) {
@@ -0,0 +1,221 @@
+package thesis;
+
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.TopologyException;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.operation.overlayng.OverlayNG;
+import org.locationtech.jts.operation.overlayng.OverlayNGRobust;
+import org.locationtech.jts.operation.overlayng.RingClipper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Exact inner and outer difference between a polygon and the original it was simplified from, by overlaying both.
+ * <br> The inner difference is the part of the polygon outside the original, the outer difference the part of the
+ * original outside the polygon, the same as {@link Util#calculateSymmetricDifference(Polygon, Polygon)} with the
+ * arguments in either order. Both are computed from the same JTS geometries, which are only built once.
+ * <br> The tiled version splits the bounding box into a grid of tiles. Both polygons are clipped to every row and then
+ * to every tile of that row, so every tile only handles the vertices inside it, and the tiles are overlaid in
+ * parallel. Prepared geometries of both polygons are used to skip tiles that lie completely inside or completely
+ * outside both polygons, which have no difference. Differences that cross tile borders are split at those borders.
+ */
+public class SymmetricDifference {
+
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+    /**
+     * Number of vertices of both polygons together that a tile should hold on average.
+     */
+    private static final int verticesPerTile = 4096;
+
+    public final List<Polygon> inner;
+    public final List<Polygon> outer;
+    public final double innerArea;
+    public final double outerArea;
+
+    /**
+     * Grid of the tiled version, a single tile otherwise. The areas of every tile are stored row by row.
+     */
+    public final int rows;
+    public final int columns;
+    public final double[] tileInnerAreas;
+    public final double[] tileOuterAreas;
+
+    private SymmetricDifference(int rows, int columns, List<Polygon> inner, List<Polygon> outer, double[] tileInnerAreas, double[] tileOuterAreas) {
+        this.rows = rows;
+        this.columns = columns;
+        this.inner = inner;
+        this.outer = outer;
+        this.tileInnerAreas = tileInnerAreas;
+        this.tileOuterAreas = tileOuterAreas;
+        this.innerArea = Arrays.stream(tileInnerAreas).sum();
+        this.outerArea = Arrays.stream(tileOuterAreas).sum();
+    }
+
+    /**
+     * Overlays both polygons as a whole, using the same geometries for both differences.
+     * <br> Complexity O(n log n) for n vertices in both polygons
+     */
+    public static SymmetricDifference calculate(Polygon polygon, Polygon original) {
+        return overlay(Util.polygonToGeometry(polygon), Util.polygonToGeometry(original));
+    }
+
+    private static SymmetricDifference overlay(Geometry geometry, Geometry originalGeometry) {
+        var inner = OverlayNGRobust.overlay(geometry, originalGeometry, OverlayNG.DIFFERENCE);
+        var outer = OverlayNGRobust.overlay(originalGeometry, geometry, OverlayNG.DIFFERENCE);
+        return new SymmetricDifference(1, 1, toPolygons(inner), toPolygons(outer), new double[]{inner.getArea()}, new double[]{outer.getArea()});
+    }
+
+    /**
+     * Overlays both polygons tile by tile, on a grid with about {@link #verticesPerTile} vertices per tile.
+     * <br> Complexity O(n log n / p) for n vertices in both polygons and p cores when threaded
+     */
+    public static SymmetricDifference calculateTiled(Polygon polygon, Polygon original, boolean threaded) {
+        var tiles = (polygon.vertexCount() + original.vertexCount()) / verticesPerTile;
+        var dimension = Math.max(1, (int) Math.ceil(Math.sqrt(tiles)));
+        return calculateTiled(polygon, original, dimension, dimension, threaded);
+    }
+
+    /**
+     * Overlays both polygons tile by tile, on a grid with the given number of rows and columns. Clipped rings run
+     * along the tile borders, which can make the overlay of a tile fail for polygons of which a vertex nearly touches
+     * another edge even when the overlay of the whole polygons succeeds. Both polygons are then overlaid as a whole
+     * instead, as a single tile.
+     * <br> Complexity O(n (r + c) + n log n / p) for n vertices in both polygons, r rows, c columns and p cores when
+     * threaded
+     */
+    public static SymmetricDifference calculateTiled(Polygon polygon, Polygon original, int rows, int columns, boolean threaded) {
+        assert rows > 0 && columns > 0 : "Grid should have at least one tile: " + rows + "x" + columns;
+
+        var geometry = Util.polygonToGeometry(polygon);
+        var originalGeometry = Util.polygonToGeometry(original);
+        try {
+            return overlayTiles(geometry, originalGeometry, rows, columns, threaded);
+        } catch (TopologyException ex) {
+            return overlay(geometry, originalGeometry);
+        }
+    }
+
+    private static SymmetricDifference overlayTiles(Geometry geometry, Geometry originalGeometry, int rows, int columns, boolean threaded) {
+        var prepared = PreparedGeometryFactory.prepare(geometry);
+        var preparedOriginal = PreparedGeometryFactory.prepare(originalGeometry);
+
+        var bounds = new Envelope(geometry.getEnvelopeInternal());
+        bounds.expandToInclude(originalGeometry.getEnvelopeInternal());
+
+        var coordinates = geometry.getCoordinates();
+        var originalCoordinates = originalGeometry.getCoordinates();
+
+        // Clip both rings to every row first, so every tile only clips the part of the rings in its row
+        var rowCoordinates = new Coordinate[rows][];
+        var rowOriginalCoordinates = new Coordinate[rows][];
+        stream(rows, threaded).forEach(row -> {
+            var envelope = new Envelope(bounds.getMinX(), bounds.getMaxX(),
+                    bound(bounds.getMinY(), bounds.getMaxY(), rows, row), bound(bounds.getMinY(), bounds.getMaxY(), rows, row + 1));
+            var clipper = new RingClipper(envelope);
+            rowCoordinates[row] = clipper.clip(coordinates);
+            rowOriginalCoordinates[row] = clipper.clip(originalCoordinates);
+        });
+
+        var tileCount = rows * columns;
+        var tileInner = new ArrayList<List<Polygon>>(Collections.nCopies(tileCount, null));
+        var tileOuter = new ArrayList<List<Polygon>>(Collections.nCopies(tileCount, null));
+        var tileInnerAreas = new double[tileCount];
+        var tileOuterAreas = new double[tileCount];
+        stream(tileCount, threaded).forEach(tile -> {
+            var row = tile / columns;
+            var column = tile % columns;
+            var envelope = new Envelope(
+                    bound(bounds.getMinX(), bounds.getMaxX(), columns, column), bound(bounds.getMinX(), bounds.getMaxX(), columns, column + 1),
+                    bound(bounds.getMinY(), bounds.getMaxY(), rows, row), bound(bounds.getMinY(), bounds.getMaxY(), rows, row + 1));
+
+            if (isUniform(envelope, prepared, preparedOriginal)) {
+                tileInner.set(tile, Collections.emptyList());
+                tileOuter.set(tile, Collections.emptyList());
+                return;
+            }
+
+            var clipper = new RingClipper(envelope);
+            var clipped = clip(clipper, rowCoordinates[row], geometry, envelope);
+            var clippedOriginal = clip(clipper, rowOriginalCoordinates[row], originalGeometry, envelope);
+
+            var inner = OverlayNGRobust.overlay(clipped, clippedOriginal, OverlayNG.DIFFERENCE);
+            var outer = OverlayNGRobust.overlay(clippedOriginal, clipped, OverlayNG.DIFFERENCE);
+            tileInner.set(tile, toPolygons(inner));
+            tileOuter.set(tile, toPolygons(outer));
+            tileInnerAreas[tile] = inner.getArea();
+            tileOuterAreas[tile] = outer.getArea();
+        });
+
+        var inner = new ArrayList<Polygon>();
+        var outer = new ArrayList<Polygon>();
+        for (int tile = 0; tile < tileCount; tile++) {
+            inner.addAll(tileInner.get(tile));
+            outer.addAll(tileOuter.get(tile));
+        }
+        return new SymmetricDifference(rows, columns, inner, outer, tileInnerAreas, tileOuterAreas);
+    }
+
+    /**
+     * Clips the ring to the tile. A vertex within a rounding error of the tile border can make the clipped ring cross
+     * itself, which the overlay does not handle and can even take the wrong side of, so the polygon is then
+     * intersected with the tile instead.
+     * <br> Complexity O(k log k) for k vertices of the ring, O(n log n) for n vertices in the polygon when intersected
+     */
+    private static Geometry clip(RingClipper clipper, Coordinate[] ring, Geometry geometry, Envelope envelope) {
+        var clipped = toGeometry(clipper.clip(ring));
+        if (clipped.isValid())
+            return clipped;
+        return OverlayNGRobust.overlay(geometry, geometryFactory.toGeometry(envelope), OverlayNG.INTERSECTION);
+    }
+
+    /**
+     * Returns whether the tile lies completely inside both polygons or completely outside both, so neither polygon
+     * has any boundary in it.
+     * <br> Complexity O(log n) for n vertices in both polygons
+     */
+    private static boolean isUniform(Envelope envelope, PreparedGeometry prepared, PreparedGeometry preparedOriginal) {
+        var tile = geometryFactory.toGeometry(envelope);
+        if (prepared.covers(tile) && preparedOriginal.covers(tile))
+            return true;
+        return prepared.disjoint(tile) && preparedOriginal.disjoint(tile);
+    }
+
+    /**
+     * Returns the coordinate where the given tile starts along one axis. The end of the last tile is the exact maximum,
+     * so no part of the polygons falls outside the grid through rounding.
+     */
+    private static double bound(double min, double max, int tiles, int tile) {
+        return tile == tiles ? max : min + (max - min) * tile / tiles;
+    }
+
+    private static IntStream stream(int count, boolean threaded) {
+        var stream = IntStream.range(0, count);
+        return threaded ? stream.parallel() : stream;
+    }
+
+    private static Geometry toGeometry(Coordinate[] ring) {
+        if (ring.length < 4)
+            return geometryFactory.createPolygon();
+        return geometryFactory.createPolygon(ring);
+    }
+
+    private static List<Polygon> toPolygons(Geometry geometry) {
+        var polygons = new ArrayList<Polygon>(geometry.getNumGeometries());
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            var part = geometry.getGeometryN(i);
+            if (!part.isEmpty())
+                polygons.add(Util.geometryToPolygon(part));
+        }
+        return polygons;
+    }
+}
@@ -5,9 +5,12 @@ import nl.tue.geometrycore.geometry.linear.Line;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
 import nl.tue.geometrycore.geometry.linear.PolyLine;
 import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.util.DoubleUtil;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -19,6 +22,61 @@ public class Util {
         return (a.getStart().isApproximately(b.getStart()) && a.getEnd().isApproximately(b.getEnd())) || (a.getStart().isApproximately(b.getEnd()) && a.getEnd().isApproximately(b.getStart()));
     }
 
+    /**
+     * Returns the clockwise angle from the direction of segment a to the direction of segment b, in [0, 2 PI].
+     * Gives the same result as {@code a.getDirection().computeClockwiseAngleTo(b.getDirection())} without
+     * allocating any vectors.
+     * <br> Complexity O(1)
+     */
+    public static double clockwiseAngle(LineSegment a, LineSegment b) {
+        var ax = a.getEnd().getX() - a.getStart().getX();
+        var ay = a.getEnd().getY() - a.getStart().getY();
+        var bx = b.getEnd().getX() - b.getStart().getX();
+        var by = b.getEnd().getY() - b.getStart().getY();
+
+        // Directions are normalized once by getDirection and once more by the angle computation
+        for (int i = 0; i < 2; i++) {
+            var aLength = Math.sqrt(ax * ax + ay * ay);
+            ax /= aLength;
+            ay /= aLength;
+            var bLength = Math.sqrt(bx * bx + by * by);
+            bx /= bLength;
+            by /= bLength;
+        }
+
+        var sign = ax * by - ay * bx < 0 ? -1 : 1;
+        var signed = sign * Math.acos(Math.max(Math.min(ax * bx + ay * by, 1), -1));
+        var counterClockwise = signed < 0 ? 2 * Math.PI + signed : signed;
+        return 2 * Math.PI - counterClockwise;
+    }
+
+    /**
+     * Returns whether the bounding box of the segment comes within {@link DoubleUtil#EPS} of the given bounding box.
+     * <br> Complexity O(1)
+     */
+    public static boolean overlapsBoundingBox(LineSegment segment, double minX, double minY, double maxX, double maxY) {
+        var start = segment.getStart();
+        var end = segment.getEnd();
+        return Math.max(start.getX(), end.getX()) >= minX - DoubleUtil.EPS
+                && Math.min(start.getX(), end.getX()) <= maxX + DoubleUtil.EPS
+                && Math.max(start.getY(), end.getY()) >= minY - DoubleUtil.EPS
+                && Math.min(start.getY(), end.getY()) <= maxY + DoubleUtil.EPS;
+    }
+
+    /**
+     * Returns the unsigned area of the triangle with the given corners. Gives the same result as
+     * {@code new Polygon(a, b, c).areaUnsigned()} without allocating a polygon.
+     * <br> Complexity O(1)
+     */
+    public static double triangleArea(Vector a, Vector b, Vector c) {
+        // Same order of summation as the polygon, which starts at the edge from the last vertex to the first
+        var sum = 0.0;
+        sum += c.getX() * a.getY() - c.getY() * a.getX();
+        sum += a.getX() * b.getY() - a.getY() * b.getX();
+        sum += b.getX() * c.getY() - b.getY() * c.getX();
+        return Math.abs(sum / 2.0);
+    }
+
     public static Line extendLine(LineSegment segment) {
         return Line.byThroughpoints(segment.getStart(), segment.getEnd());
     }
@@ -57,7 +115,39 @@ public class Util {
         return geofac.createPolygon(coordinates.toArray(new Coordinate[]{}));
     }
 
+    /**
+     * Creates a JTS polygon with holes from its outer ring followed by its holes.
+     * <br> Complexity O(n)
+     */
+    public static Geometry ringsToGeometry(List<Polygon> rings) {
+        if (rings.size() == 1)
+            return polygonToGeometry(rings.get(0));
+
+        var holes = new LinearRing[rings.size() - 1];
+        for (int i = 1; i < rings.size(); i++) {
+            holes[i - 1] = toLinearRing(rings.get(i));
+        }
+        return geofac.createPolygon(toLinearRing(rings.get(0)), holes);
+    }
+
+    private static LinearRing toLinearRing(Polygon polygon) {
+        var coordinates = new Coordinate[polygon.vertexCount() + 1];
+        for (int i = 0; i < polygon.vertexCount(); i++) {
+            var vertex = polygon.vertex(i);
+            coordinates[i] = new Coordinate(vertex.getX(), vertex.getY());
+        }
+        coordinates[polygon.vertexCount()] = coordinates[0];
+        return geofac.createLinearRing(coordinates);
+    }
+
+    /**
+     * Returns the outer ring of a JTS polygon, or all coordinates of any other geometry as a single ring.
+     * <br> Complexity O(n)
+     */
     public static Polygon geometryToPolygon(Geometry geometry) {
+        if (geometry instanceof org.locationtech.jts.geom.Polygon)
+            return ringToPolygon(((org.locationtech.jts.geom.Polygon) geometry).getExteriorRing());
+
         var polygon = new Polygon();
         var coordinates = geometry.getCoordinates();
         for (var coordinate: coordinates) {
@@ -66,6 +156,29 @@ public class Util {
         return polygon;
     }
 
+    /**
+     * Returns the outer ring of a JTS polygon followed by its holes, without their closing vertices.
+     * <br> Complexity O(n)
+     */
+    public static List<Polygon> geometryToRings(org.locationtech.jts.geom.Polygon geometry) {
+        var rings = new ArrayList<Polygon>(geometry.getNumInteriorRing() + 1);
+        rings.add(ringToPolygon(geometry.getExteriorRing()));
+        for (int i = 0; i < geometry.getNumInteriorRing(); i++) {
+            rings.add(ringToPolygon(geometry.getInteriorRingN(i)));
+        }
+        return rings;
+    }
+
+    private static Polygon ringToPolygon(LineString ring) {
+        var polygon = new Polygon();
+        var coordinates = ring.getCoordinateSequence();
+        // The last coordinate of a ring closes it and equals the first
+        for (int i = 0; i < coordinates.size() - 1; i++) {
+            polygon.addVertex(new Vector(coordinates.getX(i), coordinates.getY(i)));
+        }
+        return polygon;
+    }
+
     public static int countTrue(boolean... booleans) {
         var count = 0;
         for (boolean bool : booleans) {
@@ -0,0 +1,396 @@
+package thesis.batch;
+
+import thesis.Checks;
+import thesis.OrientationSet;
+import thesis.io.PolygonReader;
+import thesis.io.PolygonWriter;
+import thesis.simplification.CheckpointWriter;
+import thesis.simplification.SimplificationCheckpoint;
+import thesis.simplification.SimplificationData;
+import thesis.simplification.SimplificationHistory;
+import thesis.simplification.SimplificationMetrics;
+import thesis.simplification.SimplificationSession;
+import thesis.simplification.Subdivision;
+import thesis.simplification.deciders.IDecider;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Command line entry point that simplifies all polygons in a set of polygon files without a display.
+ * <br> Every file is handled by one worker of the pool and every polygon in it gets its own
+ * {@link SimplificationSession}, so files are processed in parallel. Every polygon of a multipolygon is simplified
+ * together with its holes; the results are written in the format of the input to a file with the same name in the
+ * output directory.
+ * Polygons are streamed through {@link PolygonReader} and {@link PolygonWriter}, so files of any size can be handled.
+ * <br> With a checkpoint directory every polygon periodically saves a {@link SimplificationCheckpoint} there. Running
+ * the same command again continues every polygon from its checkpoint; checkpoints are removed once their polygon is done.
+ * <br> With a history directory the {@link SimplificationHistory} of every polygon is written there as well, from which
+ * the polygon at any vertex count of the run can be rebuilt later.
+ * <br> In subdivision mode all polygons of a file are faces of one {@link Subdivision}, which are simplified together so
+ * the boundaries they share are simplified once and stay identical in the output.
+ * <br> Nothing in here touches the ui package, so no AWT or Swing classes are loaded.
+ */
+public class BatchRunner {
+
+    private static final String usage = String.join("\n",
+            "Usage: BatchRunner [options] <file or directory>...",
+            "  --output <directory>      directory to write results to (default: out)",
+            "  --decider <name|number>   decider to use (default: 4. Minimal Complementary Pair)",
+            "  --orientations <degrees>  comma separated orientations (default: 0,45,90,135)",
+            "  --cycles <n>              stop after n iterations",
+            "  --vertices <n>            stop when at most n vertices are left",
+            "  --area <a>                stop when the moves made affected at least this much area",
+            "  --batch <n>               moves applied per iteration (default: 1)",
+            "  --threads <n>             number of files processed at the same time (default: all cores)",
+            "  --metrics <directory>     write per phase metrics of every file as JSON and CSV to this directory",
+            "  --checkpoint <directory>  save checkpoints to this directory and resume from them",
+            "  --checkpoint-interval <n> iterations between checkpoints (default: 1000)",
+            "  --history <directory>     write the history of every polygon to this directory",
+            "  --subdivision             simplify the polygons of every file as faces with shared boundaries");
+
+    public String decider = "4. Minimal Complementary Pair";
+    public List<Double> orientations = Arrays.asList(0.0, 45.0, 90.0, 135.0);
+    public File output = new File("out");
+    public File metrics = null;
+    public File checkpoints = null;
+    public File histories = null;
+    public boolean subdivision = false;
+    public List<File> inputs = new ArrayList<>();
+
+    public int cycles = Integer.MAX_VALUE;
+    public int vertices = 0;
+    public double area = Double.POSITIVE_INFINITY;
+    public int batchSize = 1;
+    public int threads = Runtime.getRuntime().availableProcessors();
+    public int checkpointInterval = 1000;
+
+    public static void main(String[] args) {
+        BatchRunner runner;
+        try {
+            runner = parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(usage);
+            System.exit(2);
+            return;
+        }
+
+        var failed = runner.run();
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    public static BatchRunner parse(String[] args) {
+        var runner = new BatchRunner();
+        for (int i = 0; i < args.length; i++) {
+            var arg = args[i];
+            if (!arg.startsWith("--")) {
+                runner.inputs.add(new File(arg));
+                continue;
+            }
+            if (arg.equals("--subdivision")) {
+                runner.subdivision = true;
+                continue;
+            }
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("Missing value for " + arg);
+
+            var value = args[++i];
+            try {
+                switch (arg) {
+                    case "--output":
+                        runner.output = new File(value);
+                        break;
+                    case "--decider":
+                        runner.decider = findDecider(value);
+                        break;
+                    case "--orientations":
+                        runner.orientations = Arrays.stream(value.split(",")).map(String::trim).map(Double::parseDouble).collect(Collectors.toList());
+                        break;
+                    case "--cycles":
+                        runner.cycles = Integer.parseInt(value);
+                        break;
+                    case "--vertices":
+                        runner.vertices = Integer.parseInt(value);
+                        break;
+                    case "--area":
+                        runner.area = Double.parseDouble(value);
+                        break;
+                    case "--batch":
+                        runner.batchSize = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        runner.threads = Integer.parseInt(value);
+                        break;
+                    case "--metrics":
+                        runner.metrics = new File(value);
+                        break;
+                    case "--checkpoint":
+                        runner.checkpoints = new File(value);
+                        break;
+                    case "--history":
+                        runner.histories = new File(value);
+                        break;
+                    case "--checkpoint-interval":
+                        runner.checkpointInterval = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid value for " + arg + ": " + value);
+            }
+        }
+
+        if (runner.inputs.isEmpty())
+            throw new IllegalArgumentException("No input files given");
+        if (runner.threads < 1 || runner.batchSize < 1 || runner.checkpointInterval < 1)
+            throw new IllegalArgumentException("Threads, batch size and checkpoint interval should be at least 1");
+        if (runner.checkpoints != null && runner.histories != null)
+            throw new IllegalArgumentException("Histories cannot be resumed from checkpoints, use either --history or --checkpoint");
+        if (runner.subdivision && (runner.checkpoints != null || runner.histories != null))
+            throw new IllegalArgumentException("Subdivisions cannot be checkpointed or recorded, leave out --checkpoint and --history");
+        return runner;
+    }
+
+    private static String findDecider(String value) {
+        if (IDecider.deciders.containsKey(value))
+            return value;
+
+        return IDecider.deciders.keySet().stream()
+                .filter(name -> name.startsWith(value + "."))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown decider: " + value));
+    }
+
+    /**
+     * Simplifies all input files, returns the number of files that failed.
+     */
+    public int run() {
+        for (var directory : new File[]{output, metrics, checkpoints, histories}) {
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                System.err.println("Cannot create directory " + directory);
+                return inputs.size();
+            }
+        }
+
+        var files = collectFiles();
+        var pool = Executors.newFixedThreadPool(threads);
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (var file : files) {
+                results.add(pool.submit(() -> processFile(file)));
+            }
+
+            var failed = 0;
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    System.out.println(results.get(i).get());
+                } catch (ExecutionException ex) {
+                    System.err.println(files.get(i) + ": " + ex.getCause());
+                    failed++;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return files.size() - i;
+                }
+            }
+            return failed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<File> collectFiles() {
+        var files = new ArrayList<File>();
+        for (var input : inputs) {
+            if (input.isDirectory()) {
+                var children = input.listFiles((dir, name) -> PolygonReader.isSupported(name));
+                if (children != null) {
+                    Arrays.sort(children);
+                    files.addAll(Arrays.asList(children));
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    private String processFile(File file) throws IOException {
+        var start = System.currentTimeMillis();
+
+        var verticesBefore = 0;
+        var verticesAfter = 0;
+        var fileMetrics = new SimplificationMetrics();
+        // Only the CSV needs every iteration
+        fileMetrics.keepIterations = metrics != null;
+        try (var reader = PolygonReader.open(file);
+             var writer = PolygonWriter.create(outputFile(file))) {
+            List<Polygon> rings;
+            if (subdivision) {
+                var faces = new ArrayList<List<Polygon>>();
+                while ((rings = reader.readRings()) != null) {
+                    verticesBefore += vertexCount(rings);
+                    faces.add(rings);
+                }
+                for (var face : simplify(Subdivision.create(faces), fileMetrics)) {
+                    verticesAfter += vertexCount(face);
+                    writer.writeRings(face);
+                }
+            } else {
+                for (int number = 0; (rings = reader.readRings()) != null; number++) {
+                    verticesBefore += vertexCount(rings);
+                    var checkpoint = checkpoints == null ? null : new File(checkpoints, file.getName() + "." + number + SimplificationCheckpoint.extension);
+                    var history = histories == null ? null : new File(histories, file.getName() + "." + number + SimplificationHistory.extension);
+                    var result = simplify(rings, fileMetrics, checkpoint, history);
+                    verticesAfter += vertexCount(result);
+                    writer.writeRings(result);
+                }
+            }
+        }
+
+        if (metrics != null) {
+            try (var json = new BufferedWriter(new FileWriter(new File(metrics, file.getName() + ".metrics.json")));
+                 var csv = new BufferedWriter(new FileWriter(new File(metrics, file.getName() + ".metrics.csv")))) {
+                fileMetrics.writeJson(json);
+                fileMetrics.writeCsv(csv);
+            }
+        }
+
+        var duration = System.currentTimeMillis() - start;
+        return file.getName() + ": " + verticesBefore + " -> " + verticesAfter + " vertices in " + duration + "ms";
+    }
+
+    private static int vertexCount(List<Polygon> rings) {
+        var count = 0;
+        for (var ring : rings) {
+            count += ring.vertexCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the file to write the results for the given input to. IPE files cannot be written, their results are
+     * written as WKT instead.
+     */
+    private File outputFile(File file) {
+        var name = file.getName();
+        if (name.toLowerCase().endsWith(".ipe"))
+            name = name.substring(0, name.length() - 4) + ".wkt";
+        return new File(output, name);
+    }
+
+    public Polygon simplify(Polygon polygon) {
+        return simplify(polygon, null);
+    }
+
+    /**
+     * Simplifies the polygon, adding the metrics of its simplification to the given metrics if there are any.
+     */
+    public Polygon simplify(Polygon polygon, SimplificationMetrics metrics) {
+        try {
+            return simplify(polygon, metrics, null, null);
+        } catch (IOException ex) {
+            // Only checkpoints and histories can fail
+            throw new AssertionError(ex);
+        }
+    }
+
+    /**
+     * Simplifies the polygon, continuing from the given checkpoint file if it exists and saving checkpoints to it
+     * while simplifying. The checkpoint file is removed once the polygon is done. When a history file is given, the
+     * history of the simplification is written to it.
+     */
+    public Polygon simplify(Polygon polygon, SimplificationMetrics metrics, File checkpoint, File history) throws IOException {
+        return simplify(Collections.singletonList(polygon), metrics, checkpoint, history).get(0);
+    }
+
+    /**
+     * Simplifies a polygon with holes, given as its outer ring followed by its holes, in the same way as a polygon
+     * without them. Returns the outer ring followed by the holes that are left.
+     */
+    public List<Polygon> simplify(List<Polygon> rings, SimplificationMetrics metrics, File checkpoint, File history) throws IOException {
+        Checks.runAll(rings);
+
+        var data = createData(metrics);
+        var session = new SimplificationSession(data);
+        if (checkpoint != null && checkpoint.exists())
+            session.restore(SimplificationCheckpoint.read(checkpoint), null);
+        else
+            session.init(rings, null);
+        var recorder = history == null ? null : SimplificationHistory.start(data);
+
+        var writer = checkpoint == null ? null : new CheckpointWriter(checkpoint, checkpointInterval);
+        try {
+            // Iterations are counted in the statistics, so a restored simplification stops at the same point
+            var statistics = session.getStatistics();
+            while (statistics.totalIterations < cycles) {
+                if (data.vertexCount() <= vertices || statistics.totalAreaEffected >= area)
+                    break;
+                if (!session.iteration())
+                    break;
+                if (writer != null)
+                    writer.iterationDone(data);
+            }
+        } finally {
+            if (writer != null)
+                writer.close();
+        }
+        if (writer != null)
+            writer.delete();
+        if (recorder != null)
+            recorder.write(history);
+
+        if (metrics != null)
+            metrics.merge(session.getMetrics());
+        return data.getRings();
+    }
+
+    /**
+     * Simplifies all faces of the subdivision together, returning every face as its outer ring followed by its holes
+     * in the order they were given. Faces keep their orientation, the checks for single polygons are not run as they
+     * would remove vertices from one face that the next face still shares.
+     */
+    public List<List<Polygon>> simplify(Subdivision subdivision, SimplificationMetrics metrics) {
+        var data = createData(metrics);
+        var session = new SimplificationSession(data);
+        session.init(subdivision, null);
+
+        var statistics = session.getStatistics();
+        while (statistics.totalIterations < cycles) {
+            if (data.vertexCount() <= vertices || statistics.totalAreaEffected >= area)
+                break;
+            if (!session.iteration())
+                break;
+        }
+
+        if (metrics != null)
+            metrics.merge(session.getMetrics());
+        return data.getFaces();
+    }
+
+    private SimplificationData createData(SimplificationMetrics metrics) {
+        var orientationSet = new OrientationSet();
+        orientations.forEach(orientationSet::addOrientationDegrees);
+
+        var data = new SimplificationData(new Polygon(), orientationSet);
+        data.deciderType = decider;
+        data.batchSize = batchSize;
+        // Files are already processed in parallel
+        data.runThreaded = threads == 1;
+        // Iterations are only merged into metrics that keep them
+        data.metrics.keepIterations = metrics != null && metrics.keepIterations;
+        return data;
+    }
+}
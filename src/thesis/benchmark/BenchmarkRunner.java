@@ -0,0 +1,148 @@
+package thesis.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Measures operations in the same way a JMH run in average time mode with the gc profiler would: a number of warmup
+ * iterations followed by measurement iterations, each running the operation for a fixed amount of time.
+ * <br> Every invocation is prepared by an untimed setup, which returns the operation to time. Time and allocated bytes
+ * are only counted while the operation runs, and only on the current thread, so operations should not use other
+ * threads.
+ */
+public class BenchmarkRunner {
+
+    public int warmupIterations = 3;
+    public int measurementIterations = 5;
+    public long iterationTime = 1000;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Receives results of operations, so they cannot be optimised away
+     */
+    private volatile int sink;
+
+    /**
+     * Runs the warmup and measurement iterations of the operations the setup returns.
+     * <br> Operations print progress, which should neither be timed nor clutter the report. System.out is shared by
+     * every thread, so while measuring it is replaced by a stream that drops only what the current thread prints and
+     * passes the output of other threads on. The original stream is put back afterwards, also when an operation fails.
+     */
+    public Result measure(Supplier<Supplier<?>> setup) {
+        var out = System.out;
+        System.setOut(quiet(out, Thread.currentThread()));
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                iteration(setup);
+            }
+
+            var result = new Result();
+            for (int i = 0; i < measurementIterations; i++) {
+                var iteration = iteration(setup);
+                result.add(iteration[0], iteration[1], iteration[2]);
+            }
+            return result;
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static PrintStream quiet(PrintStream out, Thread thread) {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (Thread.currentThread() != thread)
+                    out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (Thread.currentThread() != thread)
+                    out.write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                out.flush();
+            }
+        }, true);
+    }
+
+    /**
+     * Runs the operation until the iteration time passed, returns the number of operations, the time they took in
+     * nanoseconds and the bytes they allocated.
+     */
+    private long[] iteration(Supplier<Supplier<?>> setup) {
+        var thread = Thread.currentThread().getId();
+        var end = System.nanoTime() + iterationTime * 1_000_000;
+
+        long operations = 0;
+        long time = 0;
+        long allocated = 0;
+        while (System.nanoTime() < end) {
+            var operation = setup.get();
+
+            var bytesBefore = threads.getThreadAllocatedBytes(thread);
+            var start = System.nanoTime();
+            var value = operation.get();
+            time += System.nanoTime() - start;
+            allocated += threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+            sink += System.identityHashCode(value);
+            operations++;
+        }
+        return new long[]{operations, time, allocated};
+    }
+
+    /**
+     * Average time and allocation per operation over all measurement iterations.
+     */
+    public static class Result {
+        public long operations = 0;
+        public long time = 0;
+        public long allocated = 0;
+
+        private double sum = 0;
+        private double squareSum = 0;
+        private int iterations = 0;
+
+        private void add(long operations, long time, long allocated) {
+            this.operations += operations;
+            this.time += time;
+            this.allocated += allocated;
+
+            var average = (double) time / operations;
+            sum += average;
+            squareSum += average * average;
+            iterations++;
+        }
+
+        /**
+         * Returns the average time per operation in microseconds.
+         */
+        public double microsecondsPerOperation() {
+            return (double) time / operations / 1000;
+        }
+
+        /**
+         * Returns the standard deviation of the average time per operation between iterations, in microseconds.
+         */
+        public double error() {
+            if (iterations < 2)
+                return 0;
+            var mean = sum / iterations;
+            return Math.sqrt(Math.max(0, (squareSum - iterations * mean * mean) / (iterations - 1))) / 1000;
+        }
+
+        public double operationsPerSecond() {
+            return operations * 1e9 / time;
+        }
+
+        public double bytesPerOperation() {
+            return (double) allocated / operations;
+        }
+    }
+}
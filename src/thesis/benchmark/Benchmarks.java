@@ -0,0 +1,230 @@
+package thesis.benchmark;
+
+import thesis.OrientationSet;
+import thesis.SymmetricDifference;
+import thesis.io.PolygonReader;
+import thesis.simplification.SimplificationSession;
+import thesis.simplification.deciders.IDecider;
+import thesis.simplification.moves.moving.NegativeNormalMove;
+import thesis.simplification.moves.moving.PositiveNormalMove;
+import thesis.simplification.moves.rotation.CompensatingRotationMove;
+import thesis.simplification.moves.rotation.EndRotationMove;
+import thesis.simplification.moves.rotation.MiddleRotationMove;
+import thesis.simplification.moves.rotation.StartRotationMove;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Command line entry point that benchmarks the hot paths of the simplification on generated staircases and on real
+ * footprints, reporting the average time, throughput and allocation rate of every operation.
+ */
+public class Benchmarks {
+
+    private static final String usage = String.join("\n",
+            "Usage: Benchmarks [options]",
+            "  --sizes <steps>           comma separated staircase step counts (default: 10,100,1000)",
+            "  --shapes <shapes>         comma separated generated shapes: staircase, jittered (default: both)",
+            "  --footprints <file>       also run on every polygon in this file",
+            "  --filter <regex>          only run benchmarks whose name matches",
+            "  --warmup <n>              warmup iterations (default: 3)",
+            "  --iterations <n>          measurement iterations (default: 5)",
+            "  --time <ms>               duration of every iteration (default: 1000)",
+            "  --seed <n>                seed for the generated shapes (default: 0)");
+
+    /**
+     * Benchmarks by name. Each creates, for a fixture, the setup of a single invocation, or returns null if the
+     * fixture has nothing to run it on.
+     */
+    private static final Map<String, Function<Fixture, Supplier<Supplier<?>>>> benchmarks = new LinkedHashMap<>();
+
+    static {
+        benchmarks.put("SimplificationData.init", fixture -> () -> {
+            var data = fixture.createData();
+            var polygon = fixture.polygon.clone();
+            return () -> {
+                data.init(polygon, null);
+                return data;
+            };
+        });
+
+        benchmarks.put("PositiveNormalMove.new", fixture -> perHandle(fixture, handle ->
+                () -> new PositiveNormalMove(fixture.data().configurations.getAt(handle), fixture.data().edgeIndex)));
+        benchmarks.put("NegativeNormalMove.new", fixture -> perHandle(fixture, handle ->
+                () -> new NegativeNormalMove(fixture.data().configurations.getAt(handle), fixture.data().edgeIndex)));
+        benchmarks.put("NormalMove.updateBlockingVectors", fixture -> perHandle(fixture, handle -> {
+            var data = fixture.data();
+            var move = data.positiveMoves.getAt(handle);
+            var changed = data.ring.around(handle, 2);
+            return () -> {
+                move.updateBlockingVectors(changed);
+                return move;
+            };
+        }));
+
+        // The area of a pair is calculated when it is created, for every pair of neighbouring configurations
+        benchmarks.put("PairNormalMove.new", fixture -> {
+            var data = fixture.data();
+            var handles = Arrays.stream(fixture.handles())
+                    .filter(handle -> data.positivePairMoves.getAt(handle).pairedConfiguration != null
+                            || data.negativePairMoves.getAt(handle).pairedConfiguration != null)
+                    .toArray();
+            return perHandle(handles, handle -> () -> data.getSpecialPairs(handle));
+        });
+
+        benchmarks.put("StartRotationMove.new", fixture -> perHandle(fixture, handle ->
+                () -> new StartRotationMove(fixture.data(), fixture.data().configurations.getAt(handle), fixture.orientations)));
+        benchmarks.put("EndRotationMove.new", fixture -> perHandle(fixture, handle ->
+                () -> new EndRotationMove(fixture.data(), fixture.data().configurations.getAt(handle), fixture.orientations)));
+        benchmarks.put("MiddleRotationMove.new", fixture -> perHandle(fixture, handle ->
+                () -> new MiddleRotationMove(fixture.data(), fixture.data().configurations.getAt(handle), fixture.orientations)));
+        benchmarks.put("CompensatingRotationMove.new", fixture -> perHandle(fixture, handle ->
+                () -> new CompensatingRotationMove(fixture.data(), fixture.data().configurations.getAt(handle), fixture.orientations)));
+
+        IDecider.deciders.keySet().stream().sorted().forEach(type ->
+                benchmarks.put("IDecider.findMoves [" + type + "]", fixture -> {
+                    var data = fixture.data();
+                    var decider = IDecider.create(type);
+                    Supplier<?> operation = () -> decider.findMoves(data);
+                    return () -> operation;
+                }));
+
+        // Simplification.finish without the symmetric difference, which only the ui needs
+        benchmarks.put("Simplification.finish", fixture -> () -> {
+            var session = new SimplificationSession(fixture.createData());
+            session.init(fixture.polygon, null);
+            return () -> session.runUntilLeft(0);
+        });
+
+        // Tiles are overlaid on the benchmark thread only, so allocations are measured completely
+        benchmarks.put("SymmetricDifference.calculate", fixture -> () ->
+                () -> SymmetricDifference.calculate(fixture.simplified(), fixture.polygon));
+        benchmarks.put("SymmetricDifference.calculateTiled", fixture -> () ->
+                () -> SymmetricDifference.calculateTiled(fixture.simplified(), fixture.polygon, false));
+    }
+
+    public static void main(String[] args) {
+        var sizes = List.of(10, 100, 1000);
+        var shapes = List.of("staircase", "jittered");
+        File footprints = null;
+        Pattern filter = null;
+        long seed = 0;
+        var runner = new BenchmarkRunner();
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+
+                var value = args[i + 1];
+                switch (args[i]) {
+                    case "--sizes":
+                        sizes = Arrays.stream(value.split(",")).map(String::trim).map(Integer::parseInt).collect(Collectors.toList());
+                        break;
+                    case "--shapes":
+                        shapes = Arrays.stream(value.split(",")).map(String::trim).collect(Collectors.toList());
+                        break;
+                    case "--footprints":
+                        footprints = new File(value);
+                        break;
+                    case "--filter":
+                        filter = Pattern.compile(value);
+                        break;
+                    case "--warmup":
+                        runner.warmupIterations = Integer.parseInt(value);
+                        break;
+                    case "--iterations":
+                        runner.measurementIterations = Integer.parseInt(value);
+                        break;
+                    case "--time":
+                        runner.iterationTime = Long.parseLong(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(usage);
+            System.exit(2);
+            return;
+        }
+
+        var orientations = new OrientationSet();
+        Arrays.asList(0.0, 45.0, 90.0, 135.0).forEach(orientations::addOrientationDegrees);
+
+        var fixtures = new ArrayList<Fixture>();
+        for (var shape : shapes) {
+            for (var size : sizes) {
+                fixtures.add(Fixture.generate(shape, size, seed, orientations));
+            }
+        }
+        if (footprints != null) {
+            try (var reader = PolygonReader.open(footprints)) {
+                var polygon = reader.read();
+                while (polygon != null) {
+                    fixtures.add(new Fixture("footprint", polygon, orientations));
+                    polygon = reader.read();
+                }
+            } catch (IOException ex) {
+                System.err.println(footprints + ": " + ex.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+
+        System.out.printf("%-50s %-10s %9s %14s %10s %14s %14s%n", "Benchmark", "Shape", "Vertices", "us/op", "error", "ops/s", "B/op");
+        for (var entry : benchmarks.entrySet()) {
+            if (filter != null && !filter.matcher(entry.getKey()).find())
+                continue;
+
+            for (var fixture : fixtures) {
+                var setup = entry.getValue().apply(fixture);
+                if (setup == null)
+                    continue;
+
+                var result = runner.measure(setup);
+                System.out.printf("%-50s %-10s %9d %14.3f %10.3f %14.1f %14.1f%n", entry.getKey(), fixture.shape,
+                        fixture.vertexCount(), result.microsecondsPerOperation(), result.error(),
+                        result.operationsPerSecond(), result.bytesPerOperation());
+            }
+        }
+    }
+
+    private static Supplier<Supplier<?>> perHandle(Fixture fixture, IntFunction<Supplier<?>> operation) {
+        return perHandle(fixture.handles(), operation);
+    }
+
+    /**
+     * Runs the operation created for every handle in turn, creating all operations before measuring.
+     */
+    private static Supplier<Supplier<?>> perHandle(int[] handles, IntFunction<Supplier<?>> operation) {
+        if (handles.length == 0)
+            return null;
+
+        var operations = new ArrayList<Supplier<?>>(handles.length);
+        for (var handle : handles) {
+            operations.add(operation.apply(handle));
+        }
+
+        var next = new int[1];
+        return () -> {
+            var current = operations.get(next[0]);
+            next[0] = (next[0] + 1) % operations.size();
+            return current;
+        };
+    }
+}
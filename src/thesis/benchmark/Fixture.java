@@ -0,0 +1,107 @@
+package thesis.benchmark;
+
+import thesis.Checks;
+import thesis.DataGeneration;
+import thesis.OrientationSet;
+import thesis.simplification.SimplificationData;
+import thesis.simplification.SimplificationSession;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.util.Random;
+
+/**
+ * Input polygon of a benchmark, together with a simplification of it that benchmarks of single operations can share.
+ * <br> All simplifications run on the benchmark thread only, so allocations are measured completely.
+ */
+public class Fixture {
+
+    public final String shape;
+    public final Polygon polygon;
+    public final OrientationSet orientations;
+
+    private SimplificationData data;
+    private int[] handles;
+    private Polygon simplified;
+
+    public Fixture(String shape, Polygon polygon, OrientationSet orientations) {
+        this.shape = shape;
+        this.polygon = polygon;
+        this.orientations = orientations;
+
+        Checks.runAll(polygon);
+    }
+
+    /**
+     * Creates a fixture of a generated shape: "staircase" is a regular staircase at 45 degrees, "jittered" a staircase
+     * at 30 degrees with varying slopes and step sizes.
+     */
+    public static Fixture generate(String shape, int steps, long seed, OrientationSet orientations) {
+        var stepOrientations = new OrientationSet();
+        stepOrientations.addOrientationDegrees(0);
+        stepOrientations.addOrientationDegrees(90);
+
+        var random = new Random(seed);
+        Polygon polygon;
+        switch (shape) {
+            case "staircase":
+                polygon = DataGeneration.staircase(random, 45, steps, 0, 100, stepOrientations);
+                break;
+            case "jittered":
+                polygon = DataGeneration.staircase(random, 30, steps, 10, 200, stepOrientations);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        return new Fixture(shape, polygon, orientations);
+    }
+
+    public int vertexCount() {
+        return polygon.vertexCount();
+    }
+
+    /**
+     * Returns a new simplification of the polygon that was not initialised yet.
+     */
+    public SimplificationData createData() {
+        var data = new SimplificationData(new Polygon(), orientations);
+        data.runThreaded = false;
+        return data;
+    }
+
+    /**
+     * Returns the shared simplification of the polygon, which benchmarks should not change.
+     */
+    public SimplificationData data() {
+        if (data == null) {
+            data = createData();
+            data.init(polygon.clone(), null);
+
+            handles = new int[data.vertexCount()];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = data.ring.handleAt(i);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns the polygon simplified to half its vertices, to compare with the input polygon.
+     */
+    public Polygon simplified() {
+        if (simplified == null) {
+            var session = new SimplificationSession(createData());
+            session.init(polygon, null);
+            session.runUntilLeft(polygon.vertexCount() / 2);
+            simplified = session.data.getPolygon().clone();
+        }
+        return simplified;
+    }
+
+    /**
+     * Returns the handles of the shared simplification, in ring order.
+     */
+    public int[] handles() {
+        data();
+        return handles;
+    }
+}
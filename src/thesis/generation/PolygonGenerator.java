@@ -0,0 +1,367 @@
+package thesis.generation;
+
+import thesis.io.BinaryPolygonWriter;
+import thesis.io.PolygonWriter;
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Seeded generator of large clockwise polygons made of staircases, for scaling studies.
+ * <br> Every shape is a convex outline whose sides are turned into staircases of horizontal and vertical steps, except
+ * for sides that are (nearly) horizontal or vertical themselves. The first part of every step moves outwards, so the
+ * steps of a side never reach another side and the polygons are always simple. Vertices are produced one at a time,
+ * so polygons of millions of vertices can be written to disk without being kept in memory.
+ * <br> Shapes:
+ * <br> - chain: a regular polygon with the given number of sides, so its staircases have many different slopes
+ * <br> - orthogonal: four staircases at random slopes between the extreme points
+ * <br> - footprint: a rectangle of which every corner is cut off by a staircase at a random slope
+ */
+public class PolygonGenerator {
+
+    public static final List<String> shapes = List.of("chain", "orthogonal", "footprint");
+
+    /**
+     * Receives the vertices of a generated polygon in clockwise order.
+     */
+    public interface VertexSink {
+        void addVertex(double x, double y) throws IOException;
+    }
+
+    private static final String usage = String.join("\n",
+            "Usage: PolygonGenerator [options] <output file>",
+            "  --shape <shape>           chain, orthogonal or footprint (default: chain)",
+            "  --vertices <n>            comma separated vertex counts, one polygon each (default: 1000)",
+            "  --count <n>               number of polygons per vertex count (default: 1)",
+            "  --seed <n>                seed, the same seed always gives the same polygons (default: 0)",
+            "  --sides <n>               number of sides of chains (default: 32)",
+            "  --slope-variation <deg>   maximum rotation of every step (default: 0)",
+            "  --step-variation <pct>    maximum step size in percent of the minimum (default: 100)",
+            "  --jitter <fraction>       maximum displacement of vertices relative to the step size (default: 0)");
+
+    /**
+     * Average length of the steps, polygons are scaled to get the requested number of vertices
+     */
+    private static final double stepLength = 10;
+    /**
+     * Sides closer to horizontal or vertical than this are kept straight
+     */
+    private static final double minimumSlope = Math.toRadians(5);
+
+    private static final double[][] axes = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+
+    public double slopeVariation = 0;
+    public double stepSizeVariation = 100;
+    public double jitter = 0;
+    public int sides = 32;
+
+    private final Random random;
+
+    public PolygonGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        var shape = "chain";
+        List<Integer> sizes = List.of(1000);
+        var count = 1;
+        long seed = 0;
+        var template = new PolygonGenerator(0);
+        File output = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                var arg = args[i];
+                if (!arg.startsWith("--")) {
+                    output = new File(arg);
+                    continue;
+                }
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException("Missing value for " + arg);
+
+                var value = args[++i];
+                switch (arg) {
+                    case "--shape":
+                        shape = value;
+                        break;
+                    case "--vertices":
+                        sizes = Arrays.stream(value.split(",")).map(String::trim).map(Integer::parseInt).collect(Collectors.toList());
+                        break;
+                    case "--count":
+                        count = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--sides":
+                        template.sides = Integer.parseInt(value);
+                        break;
+                    case "--slope-variation":
+                        template.slopeVariation = Double.parseDouble(value);
+                        break;
+                    case "--step-variation":
+                        template.stepSizeVariation = Double.parseDouble(value);
+                        break;
+                    case "--jitter":
+                        template.jitter = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (output == null)
+                throw new IllegalArgumentException("No output file given");
+            if (!shapes.contains(shape))
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(usage);
+            System.exit(2);
+            return;
+        }
+
+        try (var writer = PolygonWriter.create(output)) {
+            for (int size = 0; size < sizes.size(); size++) {
+                for (int copy = 0; copy < count; copy++) {
+                    // Every polygon gets its own seed, so it does not depend on the polygons generated before it
+                    var generator = new PolygonGenerator(seed * 1_000_003 + size * 1_009 + copy);
+                    generator.slopeVariation = template.slopeVariation;
+                    generator.stepSizeVariation = template.stepSizeVariation;
+                    generator.jitter = template.jitter;
+                    generator.sides = template.sides;
+
+                    var start = System.currentTimeMillis();
+                    if (writer instanceof BinaryPolygonWriter) {
+                        var binaryWriter = (BinaryPolygonWriter) writer;
+                        binaryWriter.beginPolygon();
+                        generator.generate(shape, sizes.get(size), binaryWriter::addVertex);
+                        binaryWriter.endPolygon();
+                    } else {
+                        writer.write(generator.generate(shape, sizes.get(size)));
+                    }
+                    System.out.println("Generated " + shape + " of " + sizes.get(size) + " vertices in " + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println(output + ": " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Generates a polygon of the given shape with about the given number of vertices.
+     * <br> Complexity O(n) for n vertices
+     */
+    public Polygon generate(String shape, int vertices) {
+        var points = new ArrayList<Vector>(vertices);
+        try {
+            generate(shape, vertices, (x, y) -> points.add(new Vector(x, y)));
+        } catch (IOException ex) {
+            // Adding to a list does not throw
+            throw new UncheckedIOException(ex);
+        }
+        return new Polygon(points);
+    }
+
+    /**
+     * Generates a polygon of the given shape with about the given number of vertices, passing its vertices to the sink.
+     * <br> Complexity O(n) for n vertices
+     */
+    public void generate(String shape, int vertices, VertexSink sink) throws IOException {
+        switch (shape) {
+            case "chain":
+                outline(chainCorners(Math.max(3, Math.min(sides, vertices / 2))), vertices, sink);
+                break;
+            case "orthogonal":
+                outline(orthogonalCorners(), vertices, sink);
+                break;
+            case "footprint":
+                outline(footprintCorners(), vertices, sink);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    private double[][] chainCorners(int count) {
+        var offset = random.nextDouble() * 2 * Math.PI;
+        var corners = new double[count][];
+        for (int i = 0; i < count; i++) {
+            var angle = offset + 2 * Math.PI * i / count;
+            corners[i] = new double[]{Math.cos(angle), Math.sin(angle)};
+        }
+        return corners;
+    }
+
+    private double[][] orthogonalCorners() {
+        return new double[][]{
+                {0, between(0.5, 1.5)},
+                {-between(0.5, 1.5), 0},
+                {0, -between(0.5, 1.5)},
+                {between(0.5, 1.5), 0},
+        };
+    }
+
+    private double[][] footprintCorners() {
+        var width = between(1, 2);
+        var height = between(1, 2);
+        var cut = 0.45 * Math.min(width, height);
+
+        var cutX = new double[4];
+        var cutY = new double[4];
+        for (int i = 0; i < 4; i++) {
+            cutX[i] = between(0.1 * cut, cut);
+            cutY[i] = between(0.1 * cut, cut);
+        }
+
+        var right = width / 2;
+        var top = height / 2;
+        return new double[][]{
+                {-right, top - cutY[0]}, {-right, -top + cutY[3]},
+                {-right + cutX[3], -top}, {right - cutX[2], -top},
+                {right, -top + cutY[2]}, {right, top - cutY[1]},
+                {right - cutX[1], top}, {-right + cutX[0], top},
+        };
+    }
+
+    /**
+     * Turns the clockwise convex outline with the given corners into a polygon with about the given number of
+     * vertices, by replacing its sides with staircases.
+     */
+    private void outline(double[][] corners, int vertices, VertexSink sink) throws IOException {
+        var count = corners.length;
+        var lengths = new double[count];
+        var stairs = new boolean[count];
+        var stairLength = 0.0;
+        var stairCount = 0;
+        for (int i = 0; i < count; i++) {
+            var from = corners[i];
+            var to = corners[(i + 1) % count];
+            lengths[i] = Math.hypot(to[0] - from[0], to[1] - from[1]);
+
+            var angle = Math.atan2(Math.abs(to[1] - from[1]), Math.abs(to[0] - from[0]));
+            stairs[i] = angle > minimumSlope && angle < Math.PI / 2 - minimumSlope;
+            if (stairs[i]) {
+                stairLength += lengths[i];
+                stairCount++;
+            }
+        }
+
+        // A staircase of m steps adds 2m - 1 vertices to the corner it starts at
+        var steps = Math.max(0, (vertices - count + stairCount) / 2);
+        var stepCounts = new int[count];
+        var assigned = 0;
+        for (int i = 0; i < count; i++) {
+            if (stairs[i]) {
+                stepCounts[i] = (int) (steps * lengths[i] / stairLength);
+                assigned += stepCounts[i];
+            }
+        }
+        for (int i = 0; assigned < steps; i = (i + 1) % count) {
+            if (stairs[i]) {
+                stepCounts[i]++;
+                assigned++;
+            }
+        }
+
+        var scale = stairCount > 0 ? steps * stepLength / stairLength : stepLength * vertices;
+        for (int i = 0; i < count; i++) {
+            var from = corners[i];
+            var to = corners[(i + 1) % count];
+            sink.addVertex(from[0] * scale, from[1] * scale);
+            if (stepCounts[i] > 0)
+                staircase(from[0] * scale, from[1] * scale, to[0] * scale, to[1] * scale, stepCounts[i], sink);
+        }
+    }
+
+    /**
+     * Adds the vertices of a staircase of the given number of steps from one corner to the next, without the corners
+     * themselves. Every step first moves outwards along the axis to the right of the side, then back along the
+     * other axis. Clockwise polygons have their interior to the left of every side.
+     */
+    private void staircase(double fromX, double fromY, double toX, double toY, int steps, VertexSink sink) throws IOException {
+        var length = Math.hypot(toX - fromX, toY - fromY);
+        var dx = (toX - fromX) / length;
+        var dy = (toY - fromY) / length;
+
+        double[] outward = null;
+        double[] forward = null;
+        for (var axis : axes) {
+            if (dx * axis[0] + dy * axis[1] <= 0)
+                continue;
+            if (cross(dx, dy, axis[0], axis[1]) < 0)
+                outward = axis;
+            else
+                forward = axis;
+        }
+        assert outward != null && forward != null : "Staircases need a side that is not horizontal or vertical";
+
+        // Step sizes vary as in DataGeneration, but are scaled to end exactly at the next corner
+        var sizes = new double[steps];
+        var total = 0.0;
+        for (int i = 0; i < steps; i++) {
+            sizes[i] = random.nextDouble() * (stepSizeVariation - 100) / 100 + 1;
+            total += sizes[i];
+        }
+
+        var outwardRatio = cross(dx, dy, forward[0], forward[1]) / cross(outward[0], outward[1], forward[0], forward[1]);
+        var forwardRatio = cross(outward[0], outward[1], dx, dy) / cross(outward[0], outward[1], forward[0], forward[1]);
+        var outwardProgress = outwardRatio * (outward[0] * dx + outward[1] * dy);
+        var forwardProgress = forwardRatio * (forward[0] * dx + forward[1] * dy);
+        // Both parts of every step keep at least half their unrotated size and progress along the side, vertices only
+        // move a fraction of that
+        var displacement = jitter * 0.1 * Math.min(outwardProgress, forwardProgress) * length / total;
+
+        var travelled = 0.0;
+        for (int i = 0; i < steps; i++) {
+            var size = sizes[i] * length / total;
+
+            // Rotate the step directions, unless that would make the step move inwards, backwards or shrink too much
+            var outwardAngle = (random.nextDouble() * 2 - 1) * Math.toRadians(slopeVariation);
+            var forwardAngle = (random.nextDouble() * 2 - 1) * Math.toRadians(slopeVariation);
+            var outwardX = outward[0] * Math.cos(outwardAngle) - outward[1] * Math.sin(outwardAngle);
+            var outwardY = outward[0] * Math.sin(outwardAngle) + outward[1] * Math.cos(outwardAngle);
+            var forwardX = forward[0] * Math.cos(forwardAngle) - forward[1] * Math.sin(forwardAngle);
+            var forwardY = forward[0] * Math.sin(forwardAngle) + forward[1] * Math.cos(forwardAngle);
+
+            var determinant = cross(outwardX, outwardY, forwardX, forwardY);
+            var ratio = cross(dx, dy, forwardX, forwardY) / determinant;
+            var otherRatio = cross(outwardX, outwardY, dx, dy) / determinant;
+            if (cross(dx, dy, outwardX, outwardY) >= 0 || ratio < outwardRatio / 2 || otherRatio < forwardRatio / 2
+                    || ratio * (outwardX * dx + outwardY * dy) < outwardProgress / 2
+                    || otherRatio * (forwardX * dx + forwardY * dy) < forwardProgress / 2) {
+                outwardX = outward[0];
+                outwardY = outward[1];
+                ratio = outwardRatio;
+            }
+
+            var x = fromX + travelled * dx;
+            var y = fromY + travelled * dy;
+            sink.addVertex(x + size * ratio * outwardX + jitter(displacement), y + size * ratio * outwardY + jitter(displacement));
+
+            travelled += size;
+            if (i < steps - 1)
+                sink.addVertex(fromX + travelled * dx + jitter(displacement), fromY + travelled * dy + jitter(displacement));
+        }
+    }
+
+    private double jitter(double displacement) {
+        return displacement == 0 ? 0 : (random.nextDouble() * 2 - 1) * displacement;
+    }
+
+    private double between(double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+
+    private static double cross(double ax, double ay, double bx, double by) {
+        return ax * by - ay * bx;
+    }
+}
@@ -0,0 +1,26 @@
+package thesis.io;
+
+/**
+ * Layout of the binary polygon format, meant for data sets that are loaded many times.
+ * <br> All values are little-endian. The file starts with a header of {@link #headerSize} bytes: the {@link #magic}
+ * number, the {@link #version}, the number of polygons and the offset of the index. After the header follow the
+ * coordinate blocks, one per polygon, holding the x and y of every vertex as consecutive doubles. The index is
+ * written last and holds the offset and vertex count of every block, both as longs, so a polygon can be read
+ * directly by its number.
+ */
+public final class BinaryPolygonFile {
+
+    public static final String extension = ".tpol";
+
+    /**
+     * "TPOL" in ASCII, when read as a little-endian int
+     */
+    public static final int magic = 0x4C4F5054;
+    public static final int version = 1;
+
+    public static final int headerSize = 24;
+    public static final int indexEntrySize = 16;
+
+    private BinaryPolygonFile() {
+    }
+}
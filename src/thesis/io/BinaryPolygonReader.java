@@ -0,0 +1,139 @@
+package thesis.io;
+
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Reads polygons in the binary format described by {@link BinaryPolygonFile}, either in order or directly by their
+ * number.
+ * <br> The file is memory-mapped in windows of at most {@link #windowSize} bytes, so coordinates are copied straight
+ * from the page cache without any parsing. A reader should only be used by one thread at a time; workers that need
+ * different polygons of the same file should each open their own reader.
+ */
+public class BinaryPolygonReader extends PolygonReader {
+
+    private static final long windowSize = 1L << 30;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int count;
+    private final LongBuffer index;
+
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long windowEnd = 0;
+
+    private int next = 0;
+
+    public BinaryPolygonReader(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.fileSize = channel.size();
+            if (fileSize < BinaryPolygonFile.headerSize)
+                throw new IOException("File too small for a polygon file: " + file);
+
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryPolygonFile.headerSize).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != BinaryPolygonFile.magic)
+                throw new IOException("Not a polygon file: " + file);
+            var version = header.getInt();
+            if (version != BinaryPolygonFile.version)
+                throw new IOException("Unsupported polygon file version " + version + ": " + file);
+
+            var polygons = header.getLong();
+            var indexOffset = header.getLong();
+            var indexSize = polygons * BinaryPolygonFile.indexEntrySize;
+            if (polygons > Integer.MAX_VALUE || indexSize > Integer.MAX_VALUE || indexOffset + indexSize > fileSize)
+                throw new IOException("Invalid polygon file index: " + file);
+
+            this.count = (int) polygons;
+            this.index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexSize).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the number of polygons in the file.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of vertices of the polygon with the given number.
+     * <br> Complexity O(1)
+     */
+    public int vertexCount(int polygon) {
+        return Math.toIntExact(index.get(polygon * 2 + 1));
+    }
+
+    @Override
+    public Polygon read() throws IOException {
+        if (next >= count)
+            return null;
+        return read(next++);
+    }
+
+    /**
+     * Reads the polygon with the given number.
+     * <br> Complexity O(n) for n vertices
+     */
+    public Polygon read(int polygon) throws IOException {
+        var coordinates = readCoordinates(polygon);
+        var vertices = new ArrayList<Vector>(coordinates.length / 2);
+        for (int i = 0; i < coordinates.length; i += 2) {
+            vertices.add(new Vector(coordinates[i], coordinates[i + 1]));
+        }
+        return new Polygon(vertices);
+    }
+
+    /**
+     * Reads the x and y coordinates of the vertices of the polygon with the given number, as consecutive doubles.
+     * <br> Complexity O(n) for n vertices
+     */
+    public double[] readCoordinates(int polygon) throws IOException {
+        if (polygon < 0 || polygon >= count)
+            throw new IndexOutOfBoundsException("Polygon " + polygon + " out of " + count);
+
+        var offset = index.get(polygon * 2);
+        var coordinates = new double[vertexCount(polygon) * 2];
+        var length = (long) coordinates.length * Double.BYTES;
+        if (offset < BinaryPolygonFile.headerSize || offset + length > fileSize)
+            throw new IOException("Polygon " + polygon + " lies outside the file");
+
+        map(offset, length);
+        window.position((int) (offset - windowStart));
+        window.asDoubleBuffer().get(coordinates);
+        return coordinates;
+    }
+
+    /**
+     * Makes sure the current window covers the given range of the file.
+     */
+    private void map(long offset, long length) throws IOException {
+        if (window != null && offset >= windowStart && offset + length <= windowEnd)
+            return;
+
+        var size = Math.min(Math.max(length, windowSize), fileSize - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = offset;
+        windowEnd = offset + size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,125 @@
+package thesis.io;
+
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes polygons in the binary format described by {@link BinaryPolygonFile}.
+ * <br> Coordinates are written through a fixed size buffer, vertex by vertex if needed; only the index is kept in memory
+ * until the writer is closed.
+ */
+public class BinaryPolygonWriter extends PolygonWriter {
+
+    private static final int bufferSize = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long position = BinaryPolygonFile.headerSize;
+    private long[] offsets = new long[16];
+    private long[] vertexCounts = new long[16];
+    private int count = 0;
+    private boolean writing = false;
+
+    public BinaryPolygonWriter(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(BinaryPolygonFile.headerSize);
+    }
+
+    @Override
+    public void write(Polygon polygon) throws IOException {
+        beginPolygon();
+        for (var vertex : polygon.vertices()) {
+            addVertex(vertex.getX(), vertex.getY());
+        }
+        endPolygon();
+    }
+
+    /**
+     * Writes a polygon given as consecutive x and y coordinates of its vertices.
+     * <br> Complexity O(n) for n vertices
+     */
+    public void write(double[] coordinates) throws IOException {
+        assert coordinates.length % 2 == 0 : "Coordinates should come in pairs";
+
+        beginPolygon();
+        for (int i = 0; i < coordinates.length; i += 2) {
+            addVertex(coordinates[i], coordinates[i + 1]);
+        }
+        endPolygon();
+    }
+
+    /**
+     * Starts a new polygon, whose vertices are added one at a time through {@link #addVertex(double, double)} so it
+     * never has to be kept in memory as a whole.
+     */
+    public void beginPolygon() {
+        assert !writing : "Previous polygon was not ended";
+
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            vertexCounts = Arrays.copyOf(vertexCounts, count * 2);
+        }
+        offsets[count] = position;
+        vertexCounts[count] = 0;
+        writing = true;
+    }
+
+    public void addVertex(double x, double y) throws IOException {
+        assert writing : "No polygon was started";
+
+        if (buffer.remaining() < 2 * Double.BYTES)
+            flush();
+        buffer.putDouble(x);
+        buffer.putDouble(y);
+        position += 2 * Double.BYTES;
+        vertexCounts[count]++;
+    }
+
+    public void endPolygon() {
+        assert writing : "No polygon was started";
+
+        count++;
+        writing = false;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        assert !writing : "Last polygon was not ended";
+        try {
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < BinaryPolygonFile.indexEntrySize)
+                    flush();
+                buffer.putLong(offsets[i]);
+                buffer.putLong(vertexCounts[i]);
+            }
+            flush();
+
+            buffer.putInt(BinaryPolygonFile.magic);
+            buffer.putInt(BinaryPolygonFile.version);
+            buffer.putLong(count);
+            buffer.putLong(position);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package thesis.io;
+
+import thesis.Util;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import org.locationtech.jts.geom.Geometry;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Base for readers of JTS geometries. Multipolygons and geometry collections are split into their polygons, other
+ * geometries are skipped.
+ */
+public abstract class GeometryPolygonReader extends PolygonReader {
+
+    // Outer ring and holes of every polygon that was read but not returned yet
+    private final Queue<List<Polygon>> pending = new ArrayDeque<>();
+
+    @Override
+    public Polygon read() throws IOException {
+        var rings = readRings();
+        return rings == null ? null : rings.get(0);
+    }
+
+    @Override
+    public List<Polygon> readRings() throws IOException {
+        while (pending.isEmpty()) {
+            var geometry = readGeometry();
+            if (geometry == null)
+                return null;
+            addPolygons(geometry);
+        }
+        return pending.poll();
+    }
+
+    /**
+     * Returns the next geometry in the file, or null when the end of the file is reached.
+     */
+    protected abstract Geometry readGeometry() throws IOException;
+
+    private void addPolygons(Geometry geometry) {
+        if (geometry instanceof org.locationtech.jts.geom.Polygon) {
+            pending.add(Util.geometryToRings((org.locationtech.jts.geom.Polygon) geometry));
+            return;
+        }
+
+        // Polygons can only be nested in multipolygons and collections, single geometries return themselves
+        if (geometry.getNumGeometries() > 1 || geometry.getGeometryN(0) != geometry) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                addPolygons(geometry.getGeometryN(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package thesis.io;
+
+import thesis.Util;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import org.locationtech.jts.geom.Geometry;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Base for writers of JTS geometries.
+ */
+public abstract class GeometryPolygonWriter extends PolygonWriter {
+
+    @Override
+    public void write(Polygon polygon) throws IOException {
+        write(Util.polygonToGeometry(polygon));
+    }
+
+    @Override
+    public void writeRings(List<Polygon> rings) throws IOException {
+        write(Util.ringsToGeometry(rings));
+    }
+
+    protected abstract void write(Geometry geometry) throws IOException;
+}
@@ -0,0 +1,43 @@
+package thesis.io;
+
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.io.ReadItem;
+import nl.tue.geometrycore.io.ipe.IPEReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the polygons of an IPE file, in the same way they are pasted into the application.
+ * <br> IPE files are read as a whole when opened, as they are meant for drawings rather than large data sets.
+ */
+public class IPEPolygonReader extends PolygonReader {
+
+    private final List<Polygon> polygons = new ArrayList<>();
+    private int next = 0;
+
+    public IPEPolygonReader(File file) throws IOException {
+        try (IPEReader reader = IPEReader.fileReader(file)) {
+            List<ReadItem> items = new ArrayList<>();
+            reader.read(items);
+            for (ReadItem item : items) {
+                if (item.toGeometry() instanceof Polygon)
+                    polygons.add((Polygon) item.toGeometry());
+            }
+        }
+    }
+
+    @Override
+    public Polygon read() {
+        if (next >= polygons.size())
+            return null;
+        return polygons.get(next++);
+    }
+
+    @Override
+    public void close() {
+        polygons.clear();
+    }
+}
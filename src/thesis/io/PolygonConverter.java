@@ -0,0 +1,45 @@
+package thesis.io;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Command line tool that converts polygon files between the formats supported by {@link PolygonReader} and
+ * {@link PolygonWriter}, for example IPE or WKT to the binary format. Formats are chosen by file extension.
+ */
+public class PolygonConverter {
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: PolygonConverter <input> <output>");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            var count = convert(new File(args[0]), new File(args[1]));
+            System.out.println("Converted " + count + " polygons");
+        } catch (IOException ex) {
+            System.err.println(args[0] + ": " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Copies all polygons from the input file to the output file, including their holes, returns the number of
+     * polygons copied. Fails when a polygon has holes and the output format cannot store them.
+     */
+    public static int convert(File input, File output) throws IOException {
+        var count = 0;
+        try (var reader = PolygonReader.open(input);
+             var writer = PolygonWriter.create(output)) {
+            var rings = reader.readRings();
+            while (rings != null) {
+                writer.writeRings(rings);
+                count++;
+                rings = reader.readRings();
+            }
+        }
+        return count;
+    }
+}
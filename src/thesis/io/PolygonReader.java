@@ -0,0 +1,54 @@
+package thesis.io;
+
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads polygons one at a time from a file, so only the geometry that is currently being read is kept in memory.
+ * <br> Only the outer ring of every polygon is read by {@link #read()}, {@link #readRings()} includes its holes. Rings are
+ * read without their closing vertex.
+ */
+public abstract class PolygonReader implements Closeable {
+
+    /**
+     * Opens a reader for the given file, based on its extension: the binary format for .tpol files, WKB for .wkb
+     * files, IPE for .ipe files and one WKT geometry per line otherwise.
+     */
+    public static PolygonReader open(File file) throws IOException {
+        var name = file.getName().toLowerCase();
+        if (name.endsWith(BinaryPolygonFile.extension))
+            return new BinaryPolygonReader(file);
+        if (name.endsWith(".wkb"))
+            return new WKBPolygonReader(file);
+        if (name.endsWith(".ipe"))
+            return new IPEPolygonReader(file);
+        return new WKTPolygonReader(file);
+    }
+
+    /**
+     * Returns whether {@link #open(File)} can read files with the given name.
+     */
+    public static boolean isSupported(String name) {
+        name = name.toLowerCase();
+        return name.endsWith(".wkt") || name.endsWith(".wkb") || name.endsWith(".ipe") || name.endsWith(BinaryPolygonFile.extension);
+    }
+
+    /**
+     * Returns the next polygon in the file, or null when the end of the file is reached.
+     */
+    public abstract Polygon read() throws IOException;
+
+    /**
+     * Returns the next polygon in the file as its outer ring followed by its holes, or null when the end of the file is
+     * reached. Formats without holes only return the outer ring.
+     */
+    public List<Polygon> readRings() throws IOException {
+        var polygon = read();
+        return polygon == null ? null : Collections.singletonList(polygon);
+    }
+}
@@ -0,0 +1,39 @@
+package thesis.io;
+
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes polygons one at a time to a file, in the same formats {@link PolygonReader} reads.
+ */
+public abstract class PolygonWriter implements Closeable {
+
+    /**
+     * Creates a writer for the given file, based on its extension: the binary format for .tpol files, WKB for .wkb
+     * files and one WKT polygon per line otherwise.
+     */
+    public static PolygonWriter create(File file) throws IOException {
+        var name = file.getName().toLowerCase();
+        if (name.endsWith(BinaryPolygonFile.extension))
+            return new BinaryPolygonWriter(file);
+        if (name.endsWith(".wkb"))
+            return new WKBPolygonWriter(file);
+        return new WKTPolygonWriter(file);
+    }
+
+    public abstract void write(Polygon polygon) throws IOException;
+
+    /**
+     * Writes a polygon given as its outer ring followed by its holes. Formats without holes can only write polygons
+     * without them.
+     */
+    public void writeRings(List<Polygon> rings) throws IOException {
+        if (rings.size() > 1)
+            throw new IOException(getClass().getSimpleName() + " cannot write polygons with holes, use a WKT or WKB file instead");
+        write(rings.get(0));
+    }
+}
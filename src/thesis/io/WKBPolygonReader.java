@@ -0,0 +1,53 @@
+package thesis.io;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.InputStreamInStream;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads geometries stored as consecutive binary WKB records.
+ */
+public class WKBPolygonReader extends GeometryPolygonReader {
+
+    private final BufferedInputStream stream;
+    private final InputStreamInStream inStream;
+    private final WKBReader wkbReader = new WKBReader();
+    private int geometryNumber = 0;
+
+    public WKBPolygonReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public WKBPolygonReader(InputStream stream) {
+        this.stream = new BufferedInputStream(stream);
+        this.inStream = new InputStreamInStream(this.stream);
+    }
+
+    @Override
+    protected Geometry readGeometry() throws IOException {
+        // Look ahead a single byte to find the end of the file between two records
+        stream.mark(1);
+        if (stream.read() < 0)
+            return null;
+        stream.reset();
+
+        geometryNumber++;
+        try {
+            return wkbReader.read(inStream);
+        } catch (ParseException ex) {
+            throw new IOException("Invalid WKB in geometry " + geometryNumber + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
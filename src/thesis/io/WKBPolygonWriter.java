@@ -0,0 +1,40 @@
+package thesis.io;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.OutputStreamOutStream;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes polygons as consecutive binary WKB records.
+ */
+public class WKBPolygonWriter extends GeometryPolygonWriter {
+
+    private final OutputStream stream;
+    private final OutputStreamOutStream outStream;
+    private final WKBWriter wkbWriter = new WKBWriter();
+
+    public WKBPolygonWriter(File file) throws IOException {
+        this(new FileOutputStream(file));
+    }
+
+    public WKBPolygonWriter(OutputStream stream) {
+        this.stream = new BufferedOutputStream(stream);
+        this.outStream = new OutputStreamOutStream(this.stream);
+    }
+
+    @Override
+    protected void write(Geometry geometry) throws IOException {
+        wkbWriter.write(geometry, outStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
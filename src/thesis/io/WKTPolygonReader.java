@@ -0,0 +1,50 @@
+package thesis.io;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Reads geometries stored as WKT, one geometry per line. Empty lines are skipped.
+ */
+public class WKTPolygonReader extends GeometryPolygonReader {
+
+    private final BufferedReader reader;
+    private final WKTReader wktReader = new WKTReader();
+    private int lineNumber = 0;
+
+    public WKTPolygonReader(File file) throws IOException {
+        this(new BufferedReader(new FileReader(file)));
+    }
+
+    public WKTPolygonReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    protected Geometry readGeometry() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null)
+                return null;
+        } while (line.isBlank());
+
+        try {
+            return wktReader.read(line);
+        } catch (ParseException ex) {
+            throw new IOException("Invalid WKT on line " + lineNumber + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,37 @@
+package thesis.io;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Writes polygons as WKT, one polygon per line.
+ */
+public class WKTPolygonWriter extends GeometryPolygonWriter {
+
+    private final BufferedWriter writer;
+    private final WKTWriter wktWriter = new WKTWriter();
+
+    public WKTPolygonWriter(File file) throws IOException {
+        this(new BufferedWriter(new FileWriter(file)));
+    }
+
+    public WKTPolygonWriter(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    protected void write(Geometry geometry) throws IOException {
+        wktWriter.write(geometry, writer);
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,106 @@
+package thesis.simplification;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Periodically writes a {@link SimplificationCheckpoint} of a session to a file.
+ * <br> The snapshot is taken on the simplification thread, the file is written by a background thread so the
+ * simplification only waits for the copy of the remaining vertices. When the previous checkpoint is still being
+ * written the next one is skipped instead of queued.
+ */
+public class CheckpointWriter implements Closeable {
+
+    public final File file;
+    public final int interval;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending = null;
+
+    /**
+     * Creates a writer that writes a checkpoint to the given file every interval iterations.
+     */
+    public CheckpointWriter(File file, int interval) {
+        assert interval > 0 : "Interval should be positive: " + interval;
+        this.file = file;
+        this.interval = interval;
+    }
+
+    /**
+     * Called after every iteration, writes a checkpoint if the interval has passed since the last one.
+     * <br> Complexity O(m) for m remaining vertices when a checkpoint is written, O(1) otherwise
+     */
+    public void iterationDone(SimplificationData data) throws IOException {
+        if (data.statistics.totalIterations % interval != 0)
+            return;
+        if (pending != null && !pending.isDone())
+            return;
+
+        checkpoint(data);
+    }
+
+    /**
+     * Writes a checkpoint of the current state in the background, after the previous one was written.
+     * <br> Complexity O(m) for m remaining vertices
+     */
+    public void checkpoint(SimplificationData data) throws IOException {
+        await();
+
+        var checkpoint = SimplificationCheckpoint.capture(data);
+        pending = executor.submit(() -> {
+            checkpoint.write(file);
+            return null;
+        });
+    }
+
+    /**
+     * Waits until the pending checkpoint is written, rethrowing the exception if writing it failed.
+     */
+    public void await() throws IOException {
+        if (pending == null)
+            return;
+
+        try {
+            pending.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException)
+                throw (IOException) ex.getCause();
+            throw new IOException("Cannot write checkpoint " + file, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing checkpoint " + file, ex);
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Waits for the pending checkpoint and stops the background thread. The checkpoint file is left in place.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            await();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the pending checkpoint and removes the checkpoint file, once the simplification has finished.
+     */
+    public void delete() throws IOException {
+        close();
+        if (file.exists() && !file.delete())
+            throw new IOException("Cannot delete checkpoint " + file);
+    }
+}
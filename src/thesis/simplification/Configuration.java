@@ -4,54 +4,109 @@ import thesis.Util;
 import nl.tue.geometrycore.geometry.Vector;
 import nl.tue.geometrycore.geometry.linear.Line;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
-import nl.tue.geometrycore.geometry.linear.Polygon;
 import nl.tue.geometrycore.util.DoubleUtil;
 
-import java.util.ArrayList;
-
-import static thesis.Util.undirectedEquals;
-
 public class Configuration {
 
-    private final Polygon polygon;
-    public int index;
+    private final EdgeRing ring;
+    public final int handle;
     public LineSegment previous;
     public LineSegment inner;
     public LineSegment next;
 
+    // Edges are identified by the handle of their start vertex, the inner edge by handle itself
+    public int previousEdge;
+    public int nextEdge;
+
     private boolean invalidated = false;
 
-    public Configuration(Polygon polygon, int index) {
-        this.polygon = polygon;
-        this.index = index;
+    public Configuration(EdgeRing ring, int handle) {
+        this.ring = ring;
+        this.handle = handle;
 
         init();
     }
 
+    private Configuration(EdgeRing ring, int handle, LineSegment previous, LineSegment inner, LineSegment next) {
+        this.ring = ring;
+        this.handle = handle;
+        this.previous = previous;
+        this.inner = inner;
+        this.next = next;
+        this.previousEdge = ring.previous(handle);
+        this.nextEdge = ring.next(handle);
+    }
+
+    /**
+     * Creates the configurations for every edge of the rings in a single pass. Neighbouring configurations share
+     * the segments of their common edges.
+     * <br> Complexity O(n)
+     */
+    public static RingList<Configuration> createAll(EdgeRing ring) {
+        var count = ring.size();
+        var handles = new int[count];
+        // Edges by handle, so the neighbours within every ring are found through the ring
+        var edges = new LineSegment[ring.capacity()];
+        for (int index = 0, handle = ring.first(); index < count; index++, handle = ring.following(handle)) {
+            handles[index] = handle;
+            edges[handle] = ring.edge(handle);
+        }
+
+        var configurations = new RingList<Configuration>(ring);
+        for (var handle : handles) {
+            var previous = edges[ring.previous(handle)];
+            var next = edges[ring.next(handle)];
+            configurations.setAt(handle, new Configuration(ring, handle, previous, edges[handle], next));
+        }
+        return configurations;
+    }
+
+    /**
+     * Collects the previous, inner and next edge directly from the ring.
+     * <br> Complexity O(1)
+     */
     public void init() {
-        var edges = new ArrayList<LineSegment>();
-        polygon.edges().forEach(edges::add);
+        this.previousEdge = ring.previous(handle);
+        this.nextEdge = ring.next(handle);
+
+        this.previous = ring.edge(previousEdge);
+        this.inner = ring.edge(handle);
+        this.next = ring.edge(nextEdge);
+    }
 
-        this.previous = edges.get((index + edges.size() - 1) % edges.size());
-        this.inner = edges.get(index % edges.size());
-        this.next = edges.get((index + 1) % edges.size());
+    /**
+     * Returns whether the inner edge cannot be moved, because one of its vertices is pinned.
+     * <br> Complexity O(1)
+     */
+    public boolean isFixed() {
+        return ring.isPinned(handle) || ring.isPinned(nextEdge);
+    }
+
+    /**
+     * Returns the current index of the inner edge in the polygon.
+     * <br> Complexity O(log n)
+     */
+    public int getIndex() {
+        return ring.indexOf(handle);
     }
 
     public boolean wasInvalidated() {
-        return index == -1
-                || invalidated
-                || DoubleUtil.close(inner.length(), 0)
-                || (
-                !DoubleUtil.close(previous.length(), 0)
-                        && (
-                        DoubleUtil.close(getStartAngle(), 0)
-                                || DoubleUtil.close(getStartAngle(), Math.PI)
-                                || DoubleUtil.close(getStartAngle(), 2 * Math.PI))
-        );
+        if (ring.isPinned(handle))
+            return false;
+        if (!ring.contains(handle) || invalidated || DoubleUtil.close(inner.length(), 0))
+            return true;
+        // A vertex that ran into a pinned vertex is removed in its place
+        if (DoubleUtil.close(previous.length(), 0))
+            return ring.isPinned(previousEdge);
+
+        var startAngle = getStartAngle();
+        return DoubleUtil.close(startAngle, 0)
+                || DoubleUtil.close(startAngle, Math.PI)
+                || DoubleUtil.close(startAngle, 2 * Math.PI);
     }
 
     public String invalidationReason() {
-        if (index == -1) return "Invalid index";
+        if (!ring.contains(handle)) return "Removed from polygon";
         if (invalidated) return "Invalidated during cleanup";
         if (DoubleUtil.close(inner.length(), 0)) return "inner was reduced to length 0";
         if (DoubleUtil.close(getStartAngle(), 0) || DoubleUtil.close(getStartAngle(), Math.PI) || DoubleUtil.close(getStartAngle(), 2 * Math.PI))
@@ -117,7 +172,7 @@ public class Configuration {
      * <br> Complexity O(1)
      */
     public double getStartAngle() {
-        return previous.getDirection().computeClockwiseAngleTo(inner.getDirection());
+        return Util.clockwiseAngle(previous, inner);
     }
 
     /**
@@ -125,7 +180,7 @@ public class Configuration {
      * <br> Complexity O(1)
      */
     public double getEndAngle() {
-        return inner.getDirection().computeClockwiseAngleTo(next.getDirection());
+        return Util.clockwiseAngle(inner, next);
     }
 
     /**
@@ -180,16 +235,16 @@ public class Configuration {
     //endregion Convexity/Reflexity
 
     public boolean isSpecialPairNeighbouring(Configuration other) {
-        return (undirectedEquals(other.next, this.previous) && ((other.isEndReflex() && this.isStartConvex()) || (other.isEndConvex() && this.isStartReflex())))
-                || (undirectedEquals(this.next, other.previous) && ((this.isEndReflex() && other.isStartConvex()) || (this.isEndConvex() && other.isStartReflex())));
+        return (other.nextEdge == this.previousEdge && ((other.isEndReflex() && this.isStartConvex()) || (other.isEndConvex() && this.isStartReflex())))
+                || (this.nextEdge == other.previousEdge && ((this.isEndReflex() && other.isStartConvex()) || (this.isEndConvex() && other.isStartReflex())));
     }
 
     public boolean isColliding(Configuration other) {
         return this == other
-                || undirectedEquals(this.previous, other.next)
-                || undirectedEquals(this.next, other.previous)
-                || undirectedEquals(this.inner, other.next)
-                || undirectedEquals(this.inner, other.previous)
-                || undirectedEquals(this.inner, other.inner);
+                || this.previousEdge == other.nextEdge
+                || this.nextEdge == other.previousEdge
+                || this.handle == other.nextEdge
+                || this.handle == other.previousEdge
+                || this.handle == other.handle;
     }
 }
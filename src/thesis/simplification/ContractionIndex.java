@@ -0,0 +1,161 @@
+package thesis.simplification;
+
+import nl.tue.geometrycore.geometry.linear.Rectangle;
+import nl.tue.geometrycore.util.DoubleUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid over the contraction areas of the moves of every edge, used to find the moves whose blocking edges can
+ * change after a move without visiting every move.
+ * <br> An edge can only block a move if it intersects the contraction area of that move, so the moves an edge blocks
+ * or could block are exactly the moves whose area overlaps the edge. Every handle is stored with the bounding box of
+ * the contraction areas of all its normal and pair moves, which has to be updated through {@link #update(int, Rectangle)}
+ * whenever those moves are replaced.
+ */
+public class ContractionIndex {
+
+    private final Entry[] entries;
+
+    private final double left;
+    private final double bottom;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<List<Entry>> cells;
+
+    private int queryStamp = 0;
+
+    public ContractionIndex(EdgeRing ring) {
+        this.entries = new Entry[ring.capacity()];
+
+        var count = ring.size();
+        if (count == 0) {
+            left = bottom = 0;
+            cellSize = 1;
+            columns = rows = 1;
+        } else {
+            var box = ring.boundingBox();
+            var size = Math.max(Math.max(box.width(), box.height()), DoubleUtil.EPS);
+            var dimension = Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+
+            left = box.getLeft();
+            bottom = box.getBottom();
+            cellSize = size / dimension;
+            columns = Math.max(1, (int) Math.ceil(box.width() / cellSize));
+            rows = Math.max(1, (int) Math.ceil(box.height() / cellSize));
+        }
+
+        cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * (Re)inserts the handle with the given bounding box of its contraction areas, removing it if there is none.
+     * <br> Complexity O(k) for k cells covered by the box, O(1) if the box did not change
+     */
+    public void update(int handle, Rectangle bounds) {
+        // Most moves near a changed edge keep their contraction areas
+        var entry = entries[handle];
+        if (entry != null && bounds != null && !bounds.isEmpty() && sameBounds(entry.bounds, bounds))
+            return;
+
+        remove(handle);
+        if (bounds == null || bounds.isEmpty())
+            return;
+
+        entry = new Entry(handle, bounds);
+        entries[handle] = entry;
+
+        entry.minColumn = column(bounds.getLeft());
+        entry.maxColumn = column(bounds.getRight());
+        entry.minRow = row(bounds.getBottom());
+        entry.maxRow = row(bounds.getTop());
+
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+                cells.get(row * columns + column).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes the handle from the index.
+     * <br> Complexity O(k) for k cells covered by its box
+     */
+    public void remove(int handle) {
+        var entry = entries[handle];
+        if (entry == null) return;
+
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+                cells.get(row * columns + column).remove(entry);
+            }
+        }
+        entries[handle] = null;
+    }
+
+    /**
+     * Adds every handle whose contraction areas may overlap any of the given areas to the result, each handle once.
+     * <br> Complexity O(k + m) for k cells covered by the areas and m handles found in those cells
+     */
+    public void query(List<Rectangle> areas, List<Integer> result) {
+        queryStamp++;
+        for (var area : areas) {
+            if (area.isEmpty())
+                continue;
+
+            var minColumn = column(area.getLeft() - DoubleUtil.EPS);
+            var maxColumn = column(area.getRight() + DoubleUtil.EPS);
+            var minRow = row(area.getBottom() - DoubleUtil.EPS);
+            var maxRow = row(area.getTop() + DoubleUtil.EPS);
+
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    for (var entry : cells.get(row * columns + column)) {
+                        if (entry.stamp == queryStamp)
+                            continue;
+
+                        if (entry.bounds.overlaps(area, DoubleUtil.EPS)) {
+                            entry.stamp = queryStamp;
+                            result.add(entry.handle);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean sameBounds(Rectangle a, Rectangle b) {
+        return a.getLeft() == b.getLeft() && a.getRight() == b.getRight()
+                && a.getBottom() == b.getBottom() && a.getTop() == b.getTop();
+    }
+
+    private int column(double x) {
+        return clamp((int) Math.floor((x - left) / cellSize), columns);
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor((y - bottom) / cellSize), rows);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    private static class Entry {
+        private final int handle;
+        private final Rectangle bounds;
+
+        private int minColumn, maxColumn, minRow, maxRow;
+        private int stamp = 0;
+
+        private Entry(int handle, Rectangle bounds) {
+            this.handle = handle;
+            this.bounds = bounds;
+        }
+    }
+}
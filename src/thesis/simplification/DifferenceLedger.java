@@ -0,0 +1,339 @@
+package thesis.simplification;
+
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.util.DoubleUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running inner and outer difference between the polygon a simplification started with and its current polygon,
+ * updated from the area swept by every moved edge instead of overlaying both polygons.
+ * <br> The endpoints of a moved edge stay on the lines of its neighbouring edges, so the area a move adds or removes is
+ * the winding number of the loop through the old and the new edge. That loop is stored as two signed triangles: their
+ * indicator functions, weighted by their signs, add up to the winding number, also when the old and new edge cross as
+ * they do for rotations. Summed over all moves this gives f, which is 1 on the inner difference, -1 on the outer
+ * difference and 0 elsewhere. The integral of f is the net change in area and the integral of f squared is the
+ * symmetric difference; adding a move changes the latter by twice its overlap with f plus its own square, which only
+ * takes the intersections with the triangles of earlier moves near it.
+ * <br> Triangles are kept in a uniform grid like the {@link ContractionIndex}; triangles covering many cells, such as
+ * those of the last moves of a simplification, are kept in a separate list that every query checks.
+ */
+public class DifferenceLedger {
+
+    private static final int maxCellsPerTriangle = 64;
+
+    private final double left;
+    private final double bottom;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<List<Triangle>> cells;
+    private final List<Triangle> small = new ArrayList<>();
+    private final List<Triangle> large = new ArrayList<>();
+
+    private int queryStamp = 0;
+
+    private double netDifference = 0;
+    private double symmetricDifference = 0;
+
+    public DifferenceLedger(EdgeRing ring) {
+        var count = ring.size();
+        if (count == 0) {
+            left = bottom = 0;
+            cellSize = 1;
+            columns = rows = 1;
+        } else {
+            var box = ring.boundingBox();
+            var size = Math.max(Math.max(box.width(), box.height()), DoubleUtil.EPS);
+            var dimension = Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+
+            left = box.getLeft();
+            bottom = box.getBottom();
+            cellSize = size / dimension;
+            columns = Math.max(1, (int) Math.ceil(box.width() / cellSize));
+            rows = Math.max(1, (int) Math.ceil(box.height() / cellSize));
+        }
+
+        // Cells are only created once a triangle is stored in them
+        cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(null);
+        }
+    }
+
+    /**
+     * Returns the area that lies inside the current polygon but not inside the original polygon.
+     */
+    public double getInnerDifference() {
+        return Math.max(0, (symmetricDifference + netDifference) / 2);
+    }
+
+    /**
+     * Returns the area that lies inside the original polygon but not inside the current polygon.
+     */
+    public double getOuterDifference() {
+        return Math.max(0, (symmetricDifference - netDifference) / 2);
+    }
+
+    public double getSymmetricDifference() {
+        return Math.max(0, symmetricDifference);
+    }
+
+    /**
+     * Returns the net change in area, the area added to the original polygon minus the area removed from it.
+     */
+    public double getNetDifference() {
+        return netDifference;
+    }
+
+    /**
+     * Returns the triangles of every recorded move, with seven values per triangle: its sign followed by the x and y
+     * of its corners in counter-clockwise order.
+     * <br> Complexity O(t) for t triangles
+     */
+    public double[] triangles() {
+        var values = new double[(small.size() + large.size()) * 7];
+        var index = 0;
+        for (var list : List.of(small, large)) {
+            for (var triangle : list) {
+                values[index++] = triangle.sign;
+                for (int i = 0; i < 3; i++) {
+                    values[index++] = triangle.xs[i];
+                    values[index++] = triangle.ys[i];
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Continues from the differences and triangles of another ledger, as given by {@link #getNetDifference()},
+     * {@link #getSymmetricDifference()} and {@link #triangles()}, replacing everything recorded so far.
+     * <br> Complexity O(t) for t triangles
+     */
+    public void restore(double netDifference, double symmetricDifference, double[] triangles) {
+        assert triangles.length % 7 == 0 : "Triangles should have seven values each: " + triangles.length;
+
+        small.clear();
+        large.clear();
+        for (int i = 0; i < cells.size(); i++) {
+            cells.set(i, null);
+        }
+        this.netDifference = netDifference;
+        this.symmetricDifference = symmetricDifference;
+
+        for (int index = 0; index < triangles.length; index += 7) {
+            var sign = (int) triangles[index];
+            var xs = new double[]{triangles[index + 1], triangles[index + 3], triangles[index + 5]};
+            var ys = new double[]{triangles[index + 2], triangles[index + 4], triangles[index + 6]};
+            var area = ((xs[1] - xs[0]) * (ys[2] - ys[0]) - (xs[2] - xs[0]) * (ys[1] - ys[0])) / 2;
+            add(new Triangle(xs, ys, sign, area));
+        }
+    }
+
+    /**
+     * Records that an edge of the clockwise polygon, with positive {@link nl.tue.geometrycore.geometry.linear.Polygon#areaSigned()},
+     * was moved from start-end to newStart-newEnd.
+     * <br> Complexity O(k) for k triangles of earlier moves near the moved edge
+     */
+    public void record(Vector start, Vector end, Vector newStart, Vector newEnd) {
+        var first = Triangle.create(start, end, newEnd);
+        var second = Triangle.create(start, newEnd, newStart);
+
+        var swept = new ArrayList<Triangle>(2);
+        if (first != null)
+            swept.add(first);
+        if (second != null)
+            swept.add(second);
+        if (swept.isEmpty())
+            return;
+
+        var overlap = 0.0;
+        var square = 0.0;
+        for (var triangle : swept) {
+            // The loop runs along the old edge and back along the new one, so its signed area is the area the move
+            // removed from the polygon, whose signed area is positive
+            netDifference -= triangle.sign * triangle.area;
+            square += triangle.area;
+            for (var other : near(triangle)) {
+                overlap += triangle.sign * other.sign * triangle.intersectionArea(other);
+            }
+        }
+        if (swept.size() == 2)
+            square += 2 * first.sign * second.sign * first.intersectionArea(second);
+        symmetricDifference += 2 * overlap + square;
+
+        for (var triangle : swept) {
+            add(triangle);
+        }
+    }
+
+    private List<Triangle> near(Triangle triangle) {
+        queryStamp++;
+        var result = new ArrayList<Triangle>();
+        for (var other : large) {
+            if (other.overlaps(triangle)) {
+                other.stamp = queryStamp;
+                result.add(other);
+            }
+        }
+
+        var minColumn = column(triangle.minX);
+        var maxColumn = column(triangle.maxX);
+        var minRow = row(triangle.minY);
+        var maxRow = row(triangle.maxY);
+        // Checking every triangle is cheaper than visiting more cells than there are triangles
+        if ((long) (maxColumn - minColumn + 1) * (maxRow - minRow + 1) > small.size()) {
+            collect(small, triangle, result);
+            return result;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                collect(cells.get(row * columns + column), triangle, result);
+            }
+        }
+        return result;
+    }
+
+    private void collect(List<Triangle> cell, Triangle triangle, List<Triangle> result) {
+        if (cell == null)
+            return;
+
+        for (var other : cell) {
+            if (other.stamp != queryStamp && other.overlaps(triangle)) {
+                other.stamp = queryStamp;
+                result.add(other);
+            }
+        }
+    }
+
+    private void add(Triangle triangle) {
+        var minColumn = column(triangle.minX);
+        var maxColumn = column(triangle.maxX);
+        var minRow = row(triangle.minY);
+        var maxRow = row(triangle.maxY);
+        if ((maxColumn - minColumn + 1) * (maxRow - minRow + 1) > maxCellsPerTriangle) {
+            large.add(triangle);
+            return;
+        }
+
+        small.add(triangle);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                var index = row * columns + column;
+                if (cells.get(index) == null)
+                    cells.set(index, new ArrayList<>());
+                cells.get(index).add(triangle);
+            }
+        }
+    }
+
+    private int column(double x) {
+        return clamp((int) Math.floor((x - left) / cellSize), columns);
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor((y - bottom) / cellSize), rows);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    /**
+     * Triangle stored counter-clockwise, with the sign of the orientation it was created with.
+     */
+    private static class Triangle {
+        private final double[] xs;
+        private final double[] ys;
+        private final int sign;
+        private final double area;
+        private final double minX, minY, maxX, maxY;
+
+        private int stamp = 0;
+
+        private Triangle(double[] xs, double[] ys, int sign, double area) {
+            this.xs = xs;
+            this.ys = ys;
+            this.sign = sign;
+            this.area = area;
+            this.minX = Math.min(xs[0], Math.min(xs[1], xs[2]));
+            this.maxX = Math.max(xs[0], Math.max(xs[1], xs[2]));
+            this.minY = Math.min(ys[0], Math.min(ys[1], ys[2]));
+            this.maxY = Math.max(ys[0], Math.max(ys[1], ys[2]));
+        }
+
+        /**
+         * Returns the triangle through the given vertices, or null if it has no area.
+         */
+        private static Triangle create(Vector a, Vector b, Vector c) {
+            var signedArea = Vector.crossProduct(Vector.subtract(b, a), Vector.subtract(c, a)) / 2;
+            if (DoubleUtil.close(signedArea, 0))
+                return null;
+
+            if (signedArea > 0)
+                return new Triangle(new double[]{a.getX(), b.getX(), c.getX()}, new double[]{a.getY(), b.getY(), c.getY()}, 1, signedArea);
+            return new Triangle(new double[]{a.getX(), c.getX(), b.getX()}, new double[]{a.getY(), c.getY(), b.getY()}, -1, -signedArea);
+        }
+
+        private boolean overlaps(Triangle other) {
+            return minX < other.maxX && other.minX < maxX && minY < other.maxY && other.minY < maxY;
+        }
+
+        /**
+         * Returns the area of the intersection of both triangles, by clipping this triangle to the other.
+         * <br> Complexity O(1)
+         */
+        private double intersectionArea(Triangle other) {
+            // A triangle clipped by three half-planes has at most six vertices
+            var polygonXs = new double[9];
+            var polygonYs = new double[9];
+            var count = 3;
+            System.arraycopy(xs, 0, polygonXs, 0, 3);
+            System.arraycopy(ys, 0, polygonYs, 0, 3);
+
+            var clippedXs = new double[9];
+            var clippedYs = new double[9];
+            for (int edge = 0; edge < 3 && count > 0; edge++) {
+                var ax = other.xs[edge];
+                var ay = other.ys[edge];
+                var dx = other.xs[(edge + 1) % 3] - ax;
+                var dy = other.ys[(edge + 1) % 3] - ay;
+
+                var clipped = 0;
+                for (int i = 0; i < count; i++) {
+                    var j = (i + 1) % count;
+                    // Positive on the inner side of a counter-clockwise edge
+                    var sideI = dx * (polygonYs[i] - ay) - dy * (polygonXs[i] - ax);
+                    var sideJ = dx * (polygonYs[j] - ay) - dy * (polygonXs[j] - ax);
+                    if (sideI >= 0) {
+                        clippedXs[clipped] = polygonXs[i];
+                        clippedYs[clipped++] = polygonYs[i];
+                    }
+                    if ((sideI >= 0) != (sideJ >= 0)) {
+                        var t = sideI / (sideI - sideJ);
+                        clippedXs[clipped] = polygonXs[i] + t * (polygonXs[j] - polygonXs[i]);
+                        clippedYs[clipped++] = polygonYs[i] + t * (polygonYs[j] - polygonYs[i]);
+                    }
+                }
+
+                var swapXs = polygonXs;
+                var swapYs = polygonYs;
+                polygonXs = clippedXs;
+                polygonYs = clippedYs;
+                clippedXs = swapXs;
+                clippedYs = swapYs;
+                count = clipped;
+            }
+
+            var area = 0.0;
+            for (int i = 0; i < count; i++) {
+                var j = (i + 1) % count;
+                area += polygonXs[i] * polygonYs[j] - polygonXs[j] * polygonYs[i];
+            }
+            return Math.max(0, area / 2);
+        }
+    }
+}
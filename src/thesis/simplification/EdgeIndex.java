@@ -0,0 +1,201 @@
+package thesis.simplification;
+
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.LineSegment;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
+import nl.tue.geometrycore.util.DoubleUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid over the edges of a polygon, used to find the edges that could block a move without scanning the
+ * whole polygon.
+ * <br> Edges are identified by the handle of their start vertex in the {@link EdgeRing}, so the index stays valid
+ * while vertices are moved or removed as long as {@link #update(int)} and {@link #remove(int)} are called for the
+ * edges that changed.
+ */
+public class EdgeIndex {
+
+    private final EdgeRing ring;
+    private final Entry[] entries;
+    private int size = 0;
+
+    private final double left;
+    private final double bottom;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<List<Entry>> cells;
+
+
+    public EdgeIndex(EdgeRing ring) {
+        this.ring = ring;
+        this.entries = new Entry[ring.capacity()];
+
+        var count = ring.size();
+        if (count == 0) {
+            left = bottom = 0;
+            cellSize = 1;
+            columns = rows = 1;
+        } else {
+            var box = ring.boundingBox();
+            var size = Math.max(Math.max(box.width(), box.height()), DoubleUtil.EPS);
+            var dimension = Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+
+            left = box.getLeft();
+            bottom = box.getBottom();
+            cellSize = size / dimension;
+            columns = Math.max(1, (int) Math.ceil(box.width() / cellSize));
+            rows = Math.max(1, (int) Math.ceil(box.height() / cellSize));
+        }
+
+        cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+
+        for (int i = 0, handle = ring.first(); i < count; i++, handle = ring.following(handle)) {
+            update(handle);
+        }
+    }
+
+    /**
+     * (Re)inserts the edge starting at the vertex of the given handle, using its current endpoints.
+     * <br> Complexity O(k) for k cells covered by the edge
+     */
+    public void update(int handle) {
+        if (!ring.hasEdge(handle))
+            return;
+
+        var entry = entries[handle];
+        if (entry == null) {
+            entry = new Entry(handle, ring.vertex(handle));
+            entries[handle] = entry;
+            size++;
+        } else {
+            unregister(entry);
+        }
+
+        entry.end = ring.vertex(ring.next(handle));
+        register(entry);
+    }
+
+    /**
+     * Removes the edge starting at the vertex of the given handle.
+     * <br> Complexity O(k) for k cells covered by the edge
+     */
+    public void remove(int handle) {
+        var entry = entries[handle];
+        if (entry == null) return;
+
+        unregister(entry);
+        entries[handle] = null;
+        size--;
+    }
+
+    /**
+     * Returns the handles of all edges whose bounding box overlaps the bounding box of the given area.
+     * The result is a superset of the edges intersecting the area. Queries do not modify the index, so they can run
+     * concurrently as long as no edges are updated.
+     * <br> Complexity O(k + m) for k cells covered by the area and m edges found in those cells
+     */
+    public List<Integer> query(Polygon area) {
+        var box = new Rectangle();
+        for (int i = 0; i < area.vertexCount(); i++) {
+            box.include(area.vertex(i).getX(), area.vertex(i).getY());
+        }
+        var minColumn = column(box.getLeft() - DoubleUtil.EPS);
+        var maxColumn = column(box.getRight() + DoubleUtil.EPS);
+        var minRow = row(box.getBottom() - DoubleUtil.EPS);
+        var maxRow = row(box.getTop() + DoubleUtil.EPS);
+
+        var result = new ArrayList<Integer>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (var entry : cells.get(row * columns + column)) {
+                    // An edge covering several cells is only reported in the first of those cells that is visited
+                    if (row != Math.max(minRow, entry.minRow) || column != Math.max(minColumn, entry.minColumn))
+                        continue;
+
+                    if (entry.overlaps(box))
+                        result.add(entry.handle);
+                }
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the edge of the given handle is still part of the polygon.
+     */
+    public boolean contains(int handle) {
+        return ring.contains(handle);
+    }
+
+    /**
+     * Returns the current edge starting at the vertex of the given handle.
+     * <br> Complexity O(1)
+     */
+    public LineSegment edge(int handle) {
+        return ring.edge(handle);
+    }
+
+    private void register(Entry entry) {
+        entry.minColumn = column(Math.min(entry.start.getX(), entry.end.getX()));
+        entry.maxColumn = column(Math.max(entry.start.getX(), entry.end.getX()));
+        entry.minRow = row(Math.min(entry.start.getY(), entry.end.getY()));
+        entry.maxRow = row(Math.max(entry.start.getY(), entry.end.getY()));
+
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+                cells.get(row * columns + column).add(entry);
+            }
+        }
+    }
+
+    private void unregister(Entry entry) {
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+                cells.get(row * columns + column).remove(entry);
+            }
+        }
+    }
+
+    private int column(double x) {
+        return clamp((int) Math.floor((x - left) / cellSize), columns);
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor((y - bottom) / cellSize), rows);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    private static class Entry {
+        private final int handle;
+        private final Vector start;
+        private Vector end;
+
+        private int minColumn, maxColumn, minRow, maxRow;
+
+        private Entry(int handle, Vector start) {
+            this.handle = handle;
+            this.start = start;
+        }
+
+        private boolean overlaps(Rectangle box) {
+            return Math.max(start.getX(), end.getX()) >= box.getLeft() - DoubleUtil.EPS
+                    && Math.min(start.getX(), end.getX()) <= box.getRight() + DoubleUtil.EPS
+                    && Math.max(start.getY(), end.getY()) >= box.getBottom() - DoubleUtil.EPS
+                    && Math.min(start.getY(), end.getY()) <= box.getTop() + DoubleUtil.EPS;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package thesis.simplification;
+
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.LineSegment;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Circular doubly-linked lists over the vertices of the polygon that is being simplified, one for the outer ring and
+ * one for every hole.
+ * <br> Every vertex, and the edge starting at it, is identified by a stable handle: its index in the input rings, with
+ * the vertices of every ring numbered after those of the rings before it. Handles stay valid while other vertices are
+ * removed, so neighbours can be found and vertices can be removed in O(1). Because vertices are only ever removed,
+ * walking every ring from its first vertex visits its handles in ascending order, so the rings one after the other
+ * visit all handles in ascending order. This polygon order lets a Fenwick tree over the remaining handles translate
+ * between handles and indices in O(log n); {@link #following(int)} walks it across the rings.
+ * <br> For subdivisions a ring can also be an open chain, of which the last vertex has no edge to the first, and
+ * vertices can be pinned so the simplification never moves or removes them.
+ */
+public class EdgeRing {
+
+    private final Vector[] vertices;
+    private final int[] next;
+    private final int[] previous;
+    private final boolean[] alive;
+    private final boolean[] pinned;
+    // Set for the last vertex of an open chain, there is no edge starting at it
+    private final boolean[] edgeless;
+
+    // Handles of ring r are ringStarts[r] up to ringStarts[r + 1]
+    private final int[] ringStarts;
+    private final int[] ringFirsts;
+    private final int[] ringSizes;
+
+    private int first;
+    private int size;
+    private int modifications = 0;
+
+    // Fenwick tree counting the remaining handles, one-based
+    private final int[] counts;
+
+    public EdgeRing(Polygon polygon) {
+        this(Collections.singletonList(polygon));
+    }
+
+    /**
+     * Creates the rings of a polygon with holes: the outer ring first, followed by the holes.
+     */
+    public EdgeRing(List<Polygon> rings) {
+        this.ringStarts = new int[rings.size() + 1];
+        for (int ring = 0; ring < rings.size(); ring++) {
+            ringStarts[ring + 1] = ringStarts[ring] + rings.get(ring).vertexCount();
+        }
+
+        var count = ringStarts[rings.size()];
+        this.vertices = new Vector[count];
+        this.next = new int[count];
+        this.previous = new int[count];
+        this.alive = new boolean[count];
+        this.pinned = new boolean[count];
+        this.edgeless = new boolean[count];
+        this.ringFirsts = new int[rings.size()];
+        this.ringSizes = new int[rings.size()];
+
+        for (int ring = 0; ring < rings.size(); ring++) {
+            var polygon = rings.get(ring);
+            var start = ringStarts[ring];
+            var ringSize = polygon.vertexCount();
+            for (int vertex = 0; vertex < ringSize; vertex++) {
+                var handle = start + vertex;
+                vertices[handle] = polygon.vertex(vertex);
+                next[handle] = start + (vertex + 1) % ringSize;
+                previous[handle] = start + (vertex + ringSize - 1) % ringSize;
+                alive[handle] = true;
+            }
+            ringFirsts[ring] = ringSize > 0 ? start : -1;
+            ringSizes[ring] = ringSize;
+        }
+
+        this.counts = new int[count + 1];
+        for (int position = 1; position <= count; position++) {
+            counts[position]++;
+            var parent = position + (position & -position);
+            if (parent <= count)
+                counts[parent] += counts[position];
+        }
+
+        this.first = count > 0 ? 0 : -1;
+        this.size = count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of handles this ring was created with, all handles are smaller than this number.
+     */
+    public int capacity() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the handle of the vertex at index 0, or -1 if the ring is empty.
+     */
+    public int first() {
+        return first;
+    }
+
+    /**
+     * Returns the number of rings, the outer ring and the holes, including rings of which all vertices were removed.
+     */
+    public int ringCount() {
+        return ringSizes.length;
+    }
+
+    /**
+     * Returns the ring the given handle belongs to, 0 for the outer ring.
+     * <br> Complexity O(log r) for r rings
+     */
+    public int ringOf(int handle) {
+        // Find the last ring starting at or before the handle
+        var low = 0;
+        var high = ringSizes.length - 1;
+        while (low < high) {
+            var mid = (low + high + 1) >>> 1;
+            if (ringStarts[mid] <= handle)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the smallest handle of the given ring, the handle of its first vertex when the ring was created.
+     */
+    public int ringStart(int ring) {
+        return ringStarts[ring];
+    }
+
+    public int ringSize(int ring) {
+        return ringSizes[ring];
+    }
+
+    /**
+     * Returns the handle of the first remaining vertex of the given ring, or -1 if all of its vertices were removed.
+     */
+    public int ringFirst(int ring) {
+        return ringFirsts[ring];
+    }
+
+    /**
+     * Returns the handle of the vertex at the next index: the next vertex of its ring, or the first vertex of the next
+     * ring after the last vertex of a ring. Walking {@link #size()} steps from {@link #first()} visits all vertices.
+     * <br> Complexity O(1), or O(r) for r rings after the last vertex of a ring
+     */
+    public int following(int handle) {
+        if (next[handle] > handle)
+            return next[handle];
+
+        for (int ring = ringOf(handle) + 1; ring < ringFirsts.length; ring++) {
+            if (ringFirsts[ring] >= 0)
+                return ringFirsts[ring];
+        }
+        return first;
+    }
+
+    public int next(int handle) {
+        return next[handle];
+    }
+
+    public int previous(int handle) {
+        return previous[handle];
+    }
+
+    /**
+     * Walks the given number of steps along the ring, backwards for negative steps.
+     * <br> Complexity O(|steps|)
+     */
+    public int step(int handle, int steps) {
+        for (; steps > 0; steps--) {
+            handle = next[handle];
+        }
+        for (; steps < 0; steps++) {
+            handle = previous[handle];
+        }
+        return handle;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < alive.length && alive[handle];
+    }
+
+    /**
+     * Pins the vertex of the given handle, so it is never moved or removed. Should be done before any of the
+     * simplification state is created.
+     */
+    public void pin(int handle) {
+        pinned[handle] = true;
+    }
+
+    public boolean isPinned(int handle) {
+        return pinned[handle];
+    }
+
+    /**
+     * Turns the given ring into an open chain: its first and last vertex are pinned and the edge from the last vertex
+     * back to the first is left out. Should be done before any of the simplification state is created.
+     */
+    public void open(int ring) {
+        assert ringSizes[ring] >= 2 : "Open chain needs at least two vertices: " + ringSizes[ring];
+
+        var first = ringFirsts[ring];
+        var last = previous[first];
+        pinned[first] = true;
+        pinned[last] = true;
+        edgeless[last] = true;
+    }
+
+    /**
+     * Returns whether an edge starts at the vertex of the given handle, which is the case for every vertex except the
+     * last vertex of an open chain.
+     */
+    public boolean hasEdge(int handle) {
+        return !edgeless[handle];
+    }
+
+    /**
+     * Returns the given handle if its vertex is still part of the ring, otherwise the handle of the first remaining
+     * vertex that followed it.
+     * <br> Complexity O(k) for k vertices removed after the given one
+     */
+    public int successor(int handle) {
+        // Removed vertices keep pointing to the vertex that followed them at the time of their removal
+        while (!alive[handle] && ringSizes[ringOf(handle)] > 0) {
+            handle = next[handle];
+        }
+        return handle;
+    }
+
+    public Vector vertex(int handle) {
+        return vertices[handle];
+    }
+
+    /**
+     * Returns the edge starting at the vertex of the given handle, sharing its vertices with the ring.
+     * <br> Complexity O(1)
+     */
+    public LineSegment edge(int handle) {
+        return new LineSegment(vertices[handle], vertices[next[handle]]);
+    }
+
+    /**
+     * Returns the distinct handles of the ring of the given handle at most range steps away from it, in ring order.
+     * <br> Complexity O(range + log r) for r rings
+     */
+    public List<Integer> around(int handle, int range) {
+        var ring = ringOf(handle);
+        var count = Math.min(2 * range + 1, ringSizes[ring]);
+        var start = count == ringSizes[ring] ? ringFirsts[ring] : step(handle, -range);
+
+        var handles = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            handles.add(start);
+            start = next[start];
+        }
+        return handles;
+    }
+
+    /**
+     * Removes the vertex of the given handle, linking its neighbours together.
+     * <br> Complexity O(log n), or O(r) for r rings when the last vertex of a ring is removed
+     */
+    public void remove(int handle) {
+        assert alive[handle] : "Handle " + handle + " was already removed";
+
+        // The index of the vertex is needed before it is removed
+        var following = first == handle ? following(handle) : -1;
+
+        alive[handle] = false;
+        size--;
+        modifications++;
+        for (int position = handle + 1; position < counts.length; position += position & -position) {
+            counts[position]--;
+        }
+
+        var ring = ringOf(handle);
+        ringSizes[ring]--;
+        if (ringSizes[ring] == 0) {
+            ringFirsts[ring] = -1;
+        } else {
+            next[previous[handle]] = next[handle];
+            previous[next[handle]] = previous[handle];
+            if (ringFirsts[ring] == handle)
+                ringFirsts[ring] = next[handle];
+        }
+
+        if (size == 0)
+            first = -1;
+        else if (first == handle)
+            first = following;
+    }
+
+    /**
+     * Returns a number that changes whenever a vertex is removed.
+     */
+    public int getModifications() {
+        return modifications;
+    }
+
+    /**
+     * Returns the handle of the vertex at the given index.
+     * <br> Complexity O(log n)
+     */
+    public int handleAt(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+
+        // Find the largest position with at most index remaining handles before it
+        var position = 0;
+        var remaining = index;
+        for (int step = Integer.highestOneBit(counts.length - 1); step > 0; step >>= 1) {
+            var candidate = position + step;
+            if (candidate < counts.length && counts[candidate] <= remaining) {
+                position = candidate;
+                remaining -= counts[candidate];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns the current index of the vertex of the given handle, or -1 if it was removed.
+     * <br> Complexity O(log n)
+     */
+    public int indexOf(int handle) {
+        if (!contains(handle))
+            return -1;
+
+        var index = 0;
+        for (int position = handle; position > 0; position -= position & -position) {
+            index += counts[position];
+        }
+        return index;
+    }
+
+    /**
+     * Returns the bounding box of the current vertices of every ring.
+     * <br> Complexity O(n)
+     */
+    public Rectangle boundingBox() {
+        var box = new Rectangle();
+        for (int i = 0, handle = first; i < size; i++, handle = following(handle)) {
+            box.include(vertices[handle]);
+        }
+        return box;
+    }
+
+    /**
+     * Creates a polygon of the current vertices of the outer ring, sharing the vertex instances with this ring.
+     * <br> Complexity O(n)
+     */
+    public Polygon toPolygon() {
+        return toPolygon(0);
+    }
+
+    /**
+     * Creates a polygon of the current vertices of the given ring, sharing the vertex instances with this ring.
+     * <br> Complexity O(n) for n vertices in the ring
+     */
+    public Polygon toPolygon(int ring) {
+        var list = new ArrayList<Vector>(ringSizes[ring]);
+        for (int i = 0, handle = ringFirsts[ring]; i < ringSizes[ring]; i++, handle = next[handle]) {
+            list.add(vertices[handle]);
+        }
+        return new Polygon(list);
+    }
+
+    /**
+     * Creates polygons of the outer ring and of the holes that have vertices left, sharing the vertex instances with
+     * this ring.
+     * <br> Complexity O(n)
+     */
+    public List<Polygon> toPolygons() {
+        var polygons = new ArrayList<Polygon>(ringSizes.length);
+        for (int ring = 0; ring < ringSizes.length; ring++) {
+            if (ring == 0 || ringSizes[ring] > 0)
+                polygons.add(toPolygon(ring));
+        }
+        return polygons;
+    }
+}
@@ -0,0 +1,77 @@
+package thesis.simplification;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Values stored per handle of an {@link EdgeRing}.
+ * <br> The simplification engine reads and writes values by handle in O(1). The {@link java.util.List} view presents
+ * the values in polygon order for drawing and export; indexed access there looks up the handle in O(log n),
+ * iteration walks the rings directly.
+ */
+public class RingList<T> extends AbstractList<T> {
+
+    private final EdgeRing ring;
+    private final Object[] values;
+
+    public RingList(EdgeRing ring) {
+        this.ring = ring;
+        this.values = new Object[ring.capacity()];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getAt(int handle) {
+        return (T) values[handle];
+    }
+
+    public void setAt(int handle, T value) {
+        values[handle] = value;
+    }
+
+    public void clearAt(int handle) {
+        values[handle] = null;
+    }
+
+    @Override
+    public T get(int index) {
+        return getAt(ring.handleAt(index));
+    }
+
+    @Override
+    public T set(int index, T value) {
+        var handle = ring.handleAt(index);
+        var previous = getAt(handle);
+        setAt(handle, value);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return ring.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int handle = ring.first();
+            private int remaining = ring.size();
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public T next() {
+                if (remaining <= 0)
+                    throw new NoSuchElementException();
+
+                var value = getAt(handle);
+                handle = ring.following(handle);
+                remaining--;
+                return value;
+            }
+        };
+    }
+}
@@ -2,9 +2,13 @@ package thesis.simplification;
 
 import thesis.Data;
 import thesis.GeometryList;
-import thesis.Util;
+import thesis.SymmetricDifference;
+import thesis.simplification.SimplificationMetrics.Phase;
 import thesis.simplification.deciders.Decision;
 import thesis.simplification.deciders.IDecider;
+import thesis.simplification.events.ApplyMoveEvent;
+import thesis.simplification.events.BlockingUpdateEvent;
+import thesis.simplification.events.ValidityCheckEvent;
 import thesis.simplification.moves.moving.NormalMove;
 import thesis.simplification.moves.moving.PairNormalMove;
 import thesis.simplification.moves.rotation.RotationMove;
@@ -13,59 +17,40 @@ import thesis.ui.ProgressDialog;
 import nl.tue.geometrycore.geometry.curved.CircularArc;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
 import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
 import nl.tue.geometrycore.geometryrendering.glyphs.ArrowStyle;
 import nl.tue.geometrycore.geometryrendering.styling.Dashing;
 import nl.tue.geometrycore.geometryrendering.styling.TextAnchor;
+import nl.tue.geometrycore.util.DoubleUtil;
 
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class Simplification {
 
     private static final int affectedRange = 4;
 
-
-    public static int totalVerticesRemoved = 0;
-    public static int lastCycleVerticesRemoved = 0;
-
-    public static double totalAreaEffected = 0;
-    public static double lastCycleAreaEffected = 0;
-
-    public static int totalMovesMade = 0;
-    public static int lastCycleMovesMade = 0;
-
-    public static long totalTimeTaken = 0;
-    public static long lastCycleTimeTaken = 0;
-
-    public static void reset() {
-        totalVerticesRemoved = lastCycleVerticesRemoved = 0;
-        totalAreaEffected = lastCycleAreaEffected = 0;
-        totalMovesMade = lastCycleMovesMade = 0;
-        totalTimeTaken = lastCycleTimeTaken = 0;
-    }
-
     public static void initState(SimplificationData data, Polygon polygon, ProgressDialog dialog) {
         data.init(polygon.clone(), dialog);
     }
 
     public static void run(Data data) {
-        timedIteration(data.simplificationData);
+        data.simplificationSession.timedIteration();
 
-        calculateSymmetricDifference(data, data.simplificationData.polygon);
+        reportDifferences(data);
     }
 
     public static void run(Data data, int cycles, ProgressDialog dialog) {
-        var polygon = data.simplificationData.polygon;
-        var before = polygon.vertexCount();
+        var simplificationData = data.simplificationData;
+        var before = simplificationData.vertexCount();
         dialog.canceled = false;
         for (int cycle = 0; cycle < cycles; cycle++) {
             if (dialog.canceled) break;
-            var done = !iteration(data.simplificationData);
+            var done = !data.simplificationSession.iteration();
 
-            var after = polygon.vertexCount();
+            var after = simplificationData.vertexCount();
             if (before != after)
                 System.out.println("Removed " + (before - after) + " vertices out of " + after);
             else
@@ -78,20 +63,20 @@ public class Simplification {
             if (done) break;
         }
 
-        calculateSymmetricDifference(data, polygon);
+        reportDifferences(data);
     }
 
     public static void runUntilLeft(Data data, int left, ProgressDialog dialog) {
-        var polygon = data.simplificationData.polygon;
-        var beforeTotal = polygon.vertexCount();
-        var before = polygon.vertexCount();
+        var simplificationData = data.simplificationData;
+        var beforeTotal = simplificationData.vertexCount();
+        var before = simplificationData.vertexCount();
         dialog.canceled = false;
         while (before > left) {
             if (dialog.canceled) break;
 
-            var done = !iteration(data.simplificationData);
+            var done = !data.simplificationSession.iteration();
 
-            var after = polygon.vertexCount();
+            var after = simplificationData.vertexCount();
             if (before != after)
                 System.out.println("Removed " + (before - after) + " vertices out of " + after);
             else
@@ -103,163 +88,305 @@ public class Simplification {
             if (done) break;
         }
 
-        calculateSymmetricDifference(data, polygon);
+        reportDifferences(data);
     }
 
     public static void finish(Data data, ProgressDialog dialog) {
         runUntilLeft(data, 0, dialog);
     }
 
-    public static boolean timedIteration(SimplificationData data) {
-        long start = System.currentTimeMillis();
-        var madeChanges = iteration(data);
-        long end = System.currentTimeMillis();
-        long duration = end - start;
-        totalTimeTaken += duration;
-        lastCycleTimeTaken = duration;
-        return madeChanges;
-    }
+    /**
+     * Collects the decisions of up to batchSize moves that do not interact, in the order the decider prefers them.
+     * Every group of decisions returned by the decider is only taken when the region it can change is disjoint from the
+     * regions of the groups taken before. That region contains all vertices its cleanup can touch and the contraction
+     * area of its move, so no move of the batch can block, move or remove anything another move depends on.
+     * <br> Complexity O(b * (d + b)) for b tried groups and d the time the decider takes
+     */
+    static List<Decision> findBatch(SimplificationData data, IDecider decider) {
+        var batch = new ArrayList<Decision>();
+        var regions = new ArrayList<Rectangle>();
+        var suspended = new ArrayList<Integer>();
+
+        // Conflicting groups are skipped, give up after a few of them rather than asking for every move
+        var groups = 0;
+        for (int attempt = 0; groups < data.batchSize && attempt < 4 * data.batchSize; attempt++) {
+            var group = decider.findMoves(data);
+            if (group.isEmpty())
+                break;
+
+            var groupRegions = new ArrayList<Rectangle>();
+            for (var decision : group) {
+                groupRegions.add(regionOf(data, decision));
+            }
 
-    public static boolean iteration(SimplificationData data) {
-        // TODO: Better debug lines
+            var conflicting = false;
+            for (var region : groupRegions) {
+                // Moves near a move applied without cleanup can be outdated, only the first group may use them
+                conflicting |= overlapsAny(region, regions) || (groups > 0 && overlapsAny(region, data.staleAreas));
+            }
+            if (!conflicting) {
+                batch.addAll(group);
+                regions.addAll(groupRegions);
+                groups++;
+            }
 
-        // Find moves
-        var moves = new ArrayList<>(IDecider.deciders.get(data.deciderType).findMoves(data));
-        var madeChanges = moves.size() > 0;
+            // Keep the decider from returning the same moves again
+            for (var decision : group) {
+                var handle = decision.configuration.handle;
+                if (!suspended.contains(handle)) {
+                    data.suspend(handle);
+                    suspended.add(handle);
+                }
+            }
+        }
 
-        // Reset Debug values
-        totalMovesMade += moves.size();
-        lastCycleMovesMade = moves.size();
-        lastCycleAreaEffected = 0;
-        lastCycleVerticesRemoved = 0;
+        suspended.forEach(data::resume);
+        return batch;
+    }
 
-        // Apply found moves
-        while (moves.size() > 0) {
-            var move = moves.remove(0);
-            applyMove(data, move);
+    private static boolean overlapsAny(Rectangle region, List<Rectangle> others) {
+        for (var other : others) {
+            if (region.overlaps(other, DoubleUtil.EPS))
+                return true;
         }
+        return false;
+    }
 
-        return madeChanges;
+    /**
+     * Returns the bounding box of everything applying the given decision can change.
+     * <br> Complexity O(1)
+     */
+    private static Rectangle regionOf(SimplificationData data, Decision decision) {
+        var region = boundsAround(data, decision.configuration.handle);
+
+        Rectangle contraction = null;
+        if (decision.move instanceof NormalMove)
+            contraction = ((NormalMove) decision.move).getContractionBounds();
+        else if (decision.move instanceof PairNormalMove)
+            contraction = ((PairNormalMove) decision.move).getContractionBounds();
+
+        if (contraction != null)
+            region.includeGeometry(contraction);
+        return region;
     }
 
     public static void applyMove(SimplificationData data, Decision decision) {
+        var event = new ApplyMoveEvent();
+        event.begin();
+        applyAndCleanup(data, decision);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.moveType = decision.move.getType().name();
+            event.area = decision.removeArea;
+            event.handle = decision.configuration.handle;
+            event.requiresCleanup = decision.requiresCleanup;
+            event.commit();
+        }
+    }
+
+    private static void applyAndCleanup(SimplificationData data, Decision decision) {
         var decisionConfiguration = decision.configuration;
-        var decisionIndex = decisionConfiguration.index;
+        // An earlier decision of this iteration can have removed the vertex, continue with the vertex that replaced it
+        var decisionHandle = data.ring.successor(decisionConfiguration.handle);
 
-        totalAreaEffected += decision.removeArea;
-        lastCycleAreaEffected += decision.removeArea;
+        data.statistics.totalAreaEffected += decision.removeArea;
+        data.statistics.lastCycleAreaEffected += decision.removeArea;
 
         // TODO: Better debug lines
 
+        var before = boundsAround(data, decisionHandle);
+        var applyStart = data.metrics.start();
+        var inner = decisionConfiguration.inner;
+        var innerStart = inner.getStart().clone();
+        var innerEnd = inner.getEnd().clone();
         decision.move.applyForArea(decision.removeArea);
-        if (!decision.requiresCleanup) return;
+        // Pair moves apply both their moves through applyMove, which records them
+        if (!(decision.move instanceof PairNormalMove) && data.differences != null)
+            data.differences.record(innerStart, innerEnd, inner.getStart(), inner.getEnd());
+        // Pair moves apply and clean up both their moves themselves, which can remove this vertex as well
+        decisionHandle = data.ring.successor(decisionHandle);
+        data.updateEdgesAround(decisionHandle);
+        data.metrics.stop(Phase.APPLY, applyStart);
+
+        if (!decision.requiresCleanup) {
+            // Moves around here keep their blocking edges until the next cleanup, which has to revisit them
+            data.staleAreas.add(before);
+            data.staleAreas.add(boundsAround(data, decisionHandle));
+            return;
+        }
 
 
         // Collect affected configurations around moved edge
-        var affectedIndexes = new ArrayList<Integer>(affectedRange * 2 + 1);
-        for (var i = decisionIndex - affectedRange; i <= decisionIndex + affectedRange; i++) {
-            var index = (i + data.configurations.size()) % data.configurations.size();
-            affectedIndexes.add(index);
-        }
+        var affectedHandles = data.ring.around(decisionHandle, affectedRange);
 
-        // Sort indexes backwards so indexed removals work correctly
-        affectedIndexes.sort(Collections.reverseOrder());
+        // Handles follow the polygon order, check them backwards like the polygon indices before them
+        affectedHandles.sort(Collections.reverseOrder());
 
         // TODO: Keep track of removed vertices
         // TODO: COMMENT THIS
+        var validityStart = data.metrics.start();
         var removed = new ArrayList<LineSegment>();
-        var left = validityCheck(data, affectedIndexes, removed);
-        for (var index : left) {
-            var configuration = new Configuration(data.polygon, index);
-            data.configurations.set(index, configuration);
+        var left = validityCheck(data, affectedHandles, removed);
+        for (var handle : left) {
+            var configuration = new Configuration(data.ring, handle);
+            data.configurations.setAt(handle, configuration);
         }
 
-        // collect changed edges
-        var changed = left.stream().map(index -> data.polygon.edge(index)).collect(Collectors.toList());
+        // collect changed edges, the edge of each handle starts at its vertex
+        var changed = new ArrayList<>(left);
 
         // Second cleanup for straight-lines that popup after 0-lengths are removed
         left = validityCheck(data, left, removed);
+        data.metrics.stop(Phase.VALIDITY, validityStart);
 
-        resetIndices(data, left);
+        var resetStart = data.metrics.start();
+        resetHandles(data, left);
+        data.metrics.stop(Phase.RESET, resetStart);
 
         //TODO: Blocking numbers
-        updateBlockingNumbers(data, removed, changed);
-        data.recalculateStaircases();
+        var blockingStart = data.metrics.start();
+        updateBlockingNumbers(data, removed, changed, before);
+        data.metrics.stop(Phase.BLOCKING, blockingStart);
     }
 
     private static List<Integer> validityCheck(SimplificationData data, List<Integer> affected, List<LineSegment> removed) {
-        var leftIndexes = new ArrayList<Integer>(affectedRange * 2 + 1);
-        for (var index : affected) {
-            var configuration = data.configurations.get(index);
+        var event = new ValidityCheckEvent();
+        event.begin();
+
+        var removedBefore = removed.size();
+        var leftHandles = new ArrayList<Integer>(affectedRange * 2 + 1);
+        for (var handle : affected) {
+            var configuration = data.configurations.getAt(handle);
 
             if (configuration.wasInvalidated()) {
-                var edge = data.removeAtIndex(index);
+                // Handles of the other vertices stay the same, so nothing has to be renumbered
+                var edge = data.remove(handle);
                 removed.add(edge);
-                // Update indexes in configurations
-                data.configurations.forEach(c -> {
-                    if (index < c.index) {
-                        c.index--;
-                    }
-                });
-                // Update indexes in leftIndexes appropriately
-                for (int i = 0; i < leftIndexes.size(); i++) {
-                    if (index <= leftIndexes.get(i)) {
-                        leftIndexes.set(i, leftIndexes.get(i) - 1);
-                    }
-                }
+
+                data.statistics.totalVerticesRemoved++;
+                data.statistics.lastCycleVerticesRemoved++;
+                data.metrics.countRemovedVertex();
             } else {
-                leftIndexes.add(configuration.index);
+                leftHandles.add(handle);
             }
         }
 
-        // region asserts
-        // Check if clean up left all indices correct
-//        for (int i = 0; i < data.configurations.size(); i++) {
-//            var configuration = data.configurations.get(i);
-//
-//            assert configuration.index == i : configuration.index + " != " + i + " for config: " + configuration;
-//            assert !configuration.wasInvalidated();
-//        }
-
-        assert data.polygon.vertices().size() == data.configurations.size() : data.polygon.vertices().size() + " != " + data.configurations.size();
-        assert data.polygon.vertices().size() == data.positiveMoves.size() : data.polygon.vertices().size() + " != " + data.positiveMoves.size();
-        assert data.polygon.vertices().size() == data.negativeMoves.size() : data.polygon.vertices().size() + " != " + data.negativeMoves.size();
-        assert data.polygon.vertices().size() == data.positivePairMoves.size() : data.polygon.vertices().size() + " != " + data.positivePairMoves.size();
-        assert data.polygon.vertices().size() == data.negativePairMoves.size() : data.polygon.vertices().size() + " != " + data.negativePairMoves.size();
-        //endregion asserts
-
-        return leftIndexes;
+        event.end();
+        if (event.shouldCommit()) {
+            event.checked = affected.size();
+            event.removed = removed.size() - removedBefore;
+            event.commit();
+        }
+        return leftHandles;
     }
 
-    private static void resetIndices(SimplificationData data, List<Integer> indices) {
+    private static void resetHandles(SimplificationData data, List<Integer> handles) {
         // completely reset and reinitialize all configurations that did not get deleted
-        for (var index : indices) {
-            data.resetAtIndex(index);
+        for (var handle : handles) {
+            data.resetAt(handle);
+        }
+
+
+        for (var handle : handles) {
+            data.resetSpecialPairs(handle);
+            data.resetSpecialPairs(data.ring.step(handle, -2));
+        }
+    }
+
+    /**
+     * Returns the bounding box of the vertices that can be moved or removed by a move on the given handle, together with
+     * the edges starting at them.
+     * <br> Complexity O(1)
+     */
+    private static Rectangle boundsAround(SimplificationData data, int handle) {
+        var bounds = new Rectangle();
+        for (var h : data.ring.around(handle, affectedRange + 1)) {
+            bounds.include(data.ring.vertex(h));
+        }
+        return bounds;
+    }
+
+    /**
+     * Updates the blocking edges of the moves that could be affected by the removed and changed edges. Blocking edges
+     * always intersect the contraction area of the move they block, so only moves with a contraction area near the
+     * moved edges, before and after the move, have to be visited.
+     * <br> Complexity O(k log n) for k moves near the changed edges
+     */
+    private static void updateBlockingNumbers(SimplificationData data, List<LineSegment> removed, List<Integer> changed, Rectangle before) {
+        var event = new BlockingUpdateEvent();
+        event.begin();
+
+        var after = new Rectangle();
+        after.includeGeometry(removed);
+        for (var edge : changed) {
+            if (data.ring.contains(edge))
+                after.includeGeometry(data.ring.edge(edge));
         }
 
+        var areas = new ArrayList<>(data.staleAreas);
+        areas.add(before);
+        areas.add(after);
+        data.staleAreas.clear();
+
+        var handles = new ArrayList<Integer>();
+        data.contractionIndex.query(areas, handles);
+        for (var handle : handles) {
+            data.positiveMoves.getAt(handle).updateBlockingVectors(changed);
+            data.negativeMoves.getAt(handle).updateBlockingVectors(changed);
+            data.positivePairMoves.getAt(handle).updateBlockingVectors(changed);
+            data.negativePairMoves.getAt(handle).updateBlockingVectors(changed);
+            data.updateQueues(handle);
+            data.updateContractionBounds(handle);
+        }
 
-        for (var index : indices) {
-            data.resetSpecialPairs(index);
-            var offsetIndex = (index - 2 + data.configurations.size()) % data.configurations.size();
-            data.resetSpecialPairs(offsetIndex);
+        event.end();
+        if (event.shouldCommit()) {
+            event.changedEdges = changed.size();
+            event.removedEdges = removed.size();
+            event.handlesVisited = handles.size();
+            event.commit();
         }
     }
 
-    private static void updateBlockingNumbers(SimplificationData data, List<LineSegment> removed, List<LineSegment> changed) {
-        data.positiveMoves.forEach(move -> move.updateBlockingVectors(removed, changed));
-        data.negativeMoves.forEach(move -> move.updateBlockingVectors(removed, changed));
-        data.positivePairMoves.forEach(move -> move.updateBlockingVectors(removed, changed));
-        data.negativePairMoves.forEach(move -> move.updateBlockingVectors(removed, changed));
+    /**
+     * Prints the differences kept by the {@link DifferenceLedger}. The polygons are only overlaid when the differences
+     * are drawn, as that takes longer than the simplification itself for large polygons.
+     */
+    private static void reportDifferences(Data data) {
+        var simplificationData = data.simplificationData;
+        if (simplificationData.drawInnerDifference || simplificationData.drawOuterDifference) {
+            calculateSymmetricDifference(data, simplificationData.getPolygon());
+            return;
+        }
+
+        data.innerDifference = null;
+        data.outerDifference = null;
+        System.out.println("innerDifference = " + ledgerDifference(simplificationData, true));
+        System.out.println("outerDifference = " + ledgerDifference(simplificationData, false));
     }
 
+    /**
+     * Overlays the polygon with the original polygon tile by tile to find the differences between them exactly,
+     * printing them next to the differences of the {@link DifferenceLedger} to verify those.
+     * <br> Complexity O(n log n) for n vertices in both polygons
+     */
     public static void calculateSymmetricDifference(Data data, Polygon polygon) {
-        data.innerDifference = Util.calculateSymmetricDifference(polygon, data.original);
-        data.outerDifference = Util.calculateSymmetricDifference(data.original, polygon);
+        var difference = SymmetricDifference.calculateTiled(polygon, data.original, data.simplificationData.runThreaded);
+        data.innerDifference = difference.inner;
+        data.outerDifference = difference.outer;
+
+        var inner = difference.innerArea;
+        var outer = difference.outerArea;
+        System.out.println("innerDifference = " + inner + " (ledger " + ledgerDifference(data.simplificationData, true) + ")");
+        System.out.println("outerDifference = " + outer + " (ledger " + ledgerDifference(data.simplificationData, false) + ")");
+    }
 
-        var inner = data.innerDifference.stream().filter(p -> p.vertexCount() > 0).mapToDouble(Polygon::areaUnsigned).sum();
-        var outer = data.outerDifference.stream().filter(p -> p.vertexCount() > 0).mapToDouble(Polygon::areaUnsigned).sum();
-        System.out.println("innerDifference = " + inner);
-        System.out.println("outerDifference = " + outer);
+    // Subdivisions keep no ledger, as their chains do not bound a single polygon
+    private static String ledgerDifference(SimplificationData data, boolean inner) {
+        if (data.differences == null)
+            return "unavailable for subdivisions";
+        return String.valueOf(inner ? data.differences.getInnerDifference() : data.differences.getOuterDifference());
     }
 
     //region debug drawing
@@ -271,7 +398,7 @@ public class Simplification {
     }
 
     public static void drawDebug(SimplificationData data, DrawPanel panel) {
-        if (data.polygon == null) return;
+        if (data.ring == null) return;
 
         var configurationList = data.configurations;
         if (configurationList == null)
@@ -307,11 +434,11 @@ public class Simplification {
         }
 
 
-        if (data.selectedEdge > 0) {
+        if (data.selectedEdge > 0 && data.selectedEdge < data.vertexCount()) {
             var index = data.selectedEdge;
 
             panel.setStroke(Color.cyan, 1, Dashing.dashed(1));
-            panel.draw(data.polygon.edge(index));
+            panel.draw(data.getPolygon().edge(index));
 
             if (data.drawConvexityArcs)
                 drawDebugConvexityArcs(panel, Collections.singletonList(data.configurations.get(index)), Color.red, Color.green);
@@ -459,7 +586,7 @@ public class Simplification {
 
     private static void drawDebugRotations(DrawPanel panel, List<RotationMove> rotations) {
         for (var rotation : rotations) {
-            if (!rotation.isValid()) continue;
+            if (rotation == null || !rotation.isValid()) continue;
             var newInner = rotation.getRotation();
 
             panel.setStroke(Color.pink, 3, Dashing.SOLID);
@@ -507,13 +634,13 @@ public class Simplification {
 
     private static void drawDebugStaircases(DrawPanel panel, SimplificationData data) {
         panel.setStroke(Color.red.darker(), 3, Dashing.SOLID);
-        for (var staircase : data.staircases) {
+        for (var staircase : data.getStaircases()) {
             if (staircase.loops) {
-                for (int i = 0; i <= staircase.end; i++) {
+                for (int i = staircase.offset; i <= staircase.end; i++) {
                     var edge = data.configurations.get(i);
                     panel.draw(edge.inner);
                 }
-                for (int i = staircase.start; i < data.configurations.size(); i++) {
+                for (int i = staircase.start; i < staircase.offset + staircase.listLength; i++) {
                     var edge = data.configurations.get(i);
                     panel.draw(edge.inner);
                 }
@@ -0,0 +1,285 @@
+package thesis.simplification;
+
+import thesis.OrientationSet;
+import thesis.ui.ProgressDialog;
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+/**
+ * Snapshot of a running simplification, from which it can be continued after the process was stopped.
+ * <br> All other state of {@link SimplificationData} follows from the current polygon and the settings, so only those,
+ * the statistics and the {@link DifferenceLedger} are stored. Restoring rebuilds that state for the remaining vertices,
+ * which is much cheaper than repeating the iterations that removed the others, and continues with exactly the same
+ * moves. The ledger keeps the triangles of every move, so it continues to give the differences with the polygon the
+ * simplification started with.
+ * <br> The file is a big-endian binary file: the {@link #magic} number, the {@link #version}, the settings, the
+ * statistics, the differences of the ledger with the number of triangles and their values, the number of rings with
+ * the vertex count of every ring and finally the x and y of every vertex. Files of other versions are rejected.
+ */
+public class SimplificationCheckpoint {
+
+    public static final String extension = ".ckpt";
+
+    /**
+     * "TCKP" in ASCII
+     */
+    public static final int magic = 0x54434B50;
+    public static final int version = 3;
+
+    private static final int bufferSize = 1 << 16;
+
+    public String deciderType;
+    public double[] orientations;
+    public int batchSize;
+    public int rotationDistance;
+    public int minStaircaseSize;
+    public boolean calculateStartRotationMoves;
+    public boolean calculateEndRotationMoves;
+    public boolean calculateMiddleRotationMoves;
+    public boolean compensateSingleMoves;
+
+    public int totalIterations;
+    public int totalVerticesRemoved;
+    public double totalAreaEffected;
+    public int totalMovesMade;
+    public long totalTimeTaken;
+
+    public double netDifference;
+    public double symmetricDifference;
+
+    /**
+     * Triangles of the {@link DifferenceLedger}, as given by {@link DifferenceLedger#triangles()}.
+     */
+    public double[] differenceTriangles;
+
+    /**
+     * Number of remaining vertices of the outer ring and of every hole.
+     */
+    public int[] ringSizes;
+
+    /**
+     * Consecutive x and y coordinates of the remaining vertices, ring by ring in ring order.
+     */
+    public double[] coordinates;
+
+    /**
+     * Copies everything needed to continue the simplification, so the checkpoint can be written while the
+     * simplification goes on.
+     * <br> Complexity O(m + t) for m remaining vertices and t triangles in the ledger
+     */
+    public static SimplificationCheckpoint capture(SimplificationData data) {
+        assert data.subdivision == null : "Checkpoints only store polygons, not subdivisions";
+
+        var checkpoint = new SimplificationCheckpoint();
+        checkpoint.deciderType = data.deciderType;
+
+        var orientations = new ArrayList<Double>();
+        for (var orientation : data.orientations) {
+            // Opposite orientations are added together, so only the first half is needed
+            if (orientation.getOrientation() < Math.PI)
+                orientations.add(orientation.getOrientation());
+        }
+        checkpoint.orientations = orientations.stream().mapToDouble(Double::doubleValue).toArray();
+
+        checkpoint.batchSize = data.batchSize;
+        checkpoint.rotationDistance = data.rotationDistance;
+        checkpoint.minStaircaseSize = data.minStaircaseSize;
+        checkpoint.calculateStartRotationMoves = data.calculateStartRotationMoves;
+        checkpoint.calculateEndRotationMoves = data.calculateEndRotationMoves;
+        checkpoint.calculateMiddleRotationMoves = data.calculateMiddleRotationMoves;
+        checkpoint.compensateSingleMoves = data.compensateSingleMoves;
+
+        var statistics = data.statistics;
+        checkpoint.totalIterations = statistics.totalIterations;
+        checkpoint.totalVerticesRemoved = statistics.totalVerticesRemoved;
+        checkpoint.totalAreaEffected = statistics.totalAreaEffected;
+        checkpoint.totalMovesMade = statistics.totalMovesMade;
+        checkpoint.totalTimeTaken = statistics.totalTimeTaken;
+
+        var differences = data.differences;
+        checkpoint.netDifference = differences.getNetDifference();
+        checkpoint.symmetricDifference = differences.getSymmetricDifference();
+        checkpoint.differenceTriangles = differences.triangles();
+
+        var ring = data.ring;
+        checkpoint.ringSizes = new int[ring.ringCount()];
+        for (int r = 0; r < ring.ringCount(); r++) {
+            checkpoint.ringSizes[r] = ring.ringSize(r);
+        }
+
+        var coordinates = new double[ring.size() * 2];
+        for (int index = 0, handle = ring.first(); index < ring.size(); index++, handle = ring.following(handle)) {
+            var vertex = ring.vertex(handle);
+            coordinates[index * 2] = vertex.getX();
+            coordinates[index * 2 + 1] = vertex.getY();
+        }
+        checkpoint.coordinates = coordinates;
+        return checkpoint;
+    }
+
+    public int vertexCount() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * Continues the simplification of this checkpoint in the given data, replacing its settings, statistics and
+     * polygon.
+     * <br> Complexity O(m log m + t) for m remaining vertices and t triangles in the ledger
+     */
+    public void restore(SimplificationData data, ProgressDialog dialog) {
+        var orientationSet = new OrientationSet();
+        for (var orientation : orientations) {
+            orientationSet.addOrientation(orientation);
+        }
+        data.orientations = orientationSet;
+
+        data.deciderType = deciderType;
+        data.batchSize = batchSize;
+        data.rotationDistance = rotationDistance;
+        data.minStaircaseSize = minStaircaseSize;
+        data.calculateStartRotationMoves = calculateStartRotationMoves;
+        data.calculateEndRotationMoves = calculateEndRotationMoves;
+        data.calculateMiddleRotationMoves = calculateMiddleRotationMoves;
+        data.compensateSingleMoves = compensateSingleMoves;
+
+        var rings = new ArrayList<Polygon>(ringSizes.length);
+        var coordinate = 0;
+        for (int r = 0; r < ringSizes.length; r++) {
+            var vertices = new ArrayList<Vector>(ringSizes[r]);
+            for (int i = 0; i < ringSizes[r]; i++, coordinate += 2) {
+                vertices.add(new Vector(coordinates[coordinate], coordinates[coordinate + 1]));
+            }
+            // Holes without vertices are left out, the outer ring stays first
+            if (r == 0 || !vertices.isEmpty())
+                rings.add(new Polygon(vertices));
+        }
+        data.init(rings, dialog);
+
+        // Init resets the statistics
+        var statistics = data.statistics;
+        statistics.totalIterations = totalIterations;
+        statistics.totalVerticesRemoved = totalVerticesRemoved;
+        statistics.totalAreaEffected = totalAreaEffected;
+        statistics.totalMovesMade = totalMovesMade;
+        statistics.totalTimeTaken = totalTimeTaken;
+
+        // Init also starts a new ledger from the remaining polygon
+        data.differences.restore(netDifference, symmetricDifference, differenceTriangles);
+    }
+
+    /**
+     * Writes this checkpoint to the given file. It is written to a temporary file first and then moved in place, so
+     * an interrupted write leaves the previous checkpoint intact.
+     * <br> Complexity O(m + t) for m remaining vertices and t triangles in the ledger
+     */
+    public void write(File file) throws IOException {
+        var temporary = new File(file.getPath() + ".tmp");
+        try (var output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), bufferSize))) {
+            output.writeInt(magic);
+            output.writeInt(version);
+
+            output.writeUTF(deciderType);
+            output.writeInt(orientations.length);
+            for (var orientation : orientations) {
+                output.writeDouble(orientation);
+            }
+            output.writeInt(batchSize);
+            output.writeInt(rotationDistance);
+            output.writeInt(minStaircaseSize);
+            output.writeBoolean(calculateStartRotationMoves);
+            output.writeBoolean(calculateEndRotationMoves);
+            output.writeBoolean(calculateMiddleRotationMoves);
+            output.writeBoolean(compensateSingleMoves);
+
+            output.writeInt(totalIterations);
+            output.writeInt(totalVerticesRemoved);
+            output.writeDouble(totalAreaEffected);
+            output.writeInt(totalMovesMade);
+            output.writeLong(totalTimeTaken);
+
+            output.writeDouble(netDifference);
+            output.writeDouble(symmetricDifference);
+            output.writeInt(differenceTriangles.length / 7);
+            for (var value : differenceTriangles) {
+                output.writeDouble(value);
+            }
+
+            output.writeInt(ringSizes.length);
+            for (var ringSize : ringSizes) {
+                output.writeInt(ringSize);
+            }
+            for (var coordinate : coordinates) {
+                output.writeDouble(coordinate);
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #write(File)}.
+     * <br> Complexity O(m + t) for m remaining vertices and t triangles in the ledger
+     */
+    public static SimplificationCheckpoint read(File file) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), bufferSize))) {
+            if (input.readInt() != magic)
+                throw new IOException("Not a checkpoint file: " + file);
+            var fileVersion = input.readInt();
+            if (fileVersion != version)
+                throw new IOException("Unsupported checkpoint version " + fileVersion + ": " + file);
+
+            var checkpoint = new SimplificationCheckpoint();
+            checkpoint.deciderType = input.readUTF();
+            checkpoint.orientations = new double[input.readInt()];
+            for (int i = 0; i < checkpoint.orientations.length; i++) {
+                checkpoint.orientations[i] = input.readDouble();
+            }
+            checkpoint.batchSize = input.readInt();
+            checkpoint.rotationDistance = input.readInt();
+            checkpoint.minStaircaseSize = input.readInt();
+            checkpoint.calculateStartRotationMoves = input.readBoolean();
+            checkpoint.calculateEndRotationMoves = input.readBoolean();
+            checkpoint.calculateMiddleRotationMoves = input.readBoolean();
+            checkpoint.compensateSingleMoves = input.readBoolean();
+
+            checkpoint.totalIterations = input.readInt();
+            checkpoint.totalVerticesRemoved = input.readInt();
+            checkpoint.totalAreaEffected = input.readDouble();
+            checkpoint.totalMovesMade = input.readInt();
+            checkpoint.totalTimeTaken = input.readLong();
+
+            checkpoint.netDifference = input.readDouble();
+            checkpoint.symmetricDifference = input.readDouble();
+            var triangleCount = input.readInt();
+            if (triangleCount < 0)
+                throw new IOException("Invalid triangle count " + triangleCount + ": " + file);
+            checkpoint.differenceTriangles = new double[triangleCount * 7];
+            for (int i = 0; i < checkpoint.differenceTriangles.length; i++) {
+                checkpoint.differenceTriangles[i] = input.readDouble();
+            }
+
+            var ringCount = input.readInt();
+            if (ringCount < 1)
+                throw new IOException("Invalid ring count " + ringCount + ": " + file);
+            checkpoint.ringSizes = new int[ringCount];
+            var vertexCount = 0;
+            for (int r = 0; r < checkpoint.ringSizes.length; r++) {
+                checkpoint.ringSizes[r] = input.readInt();
+                if (checkpoint.ringSizes[r] < 0)
+                    throw new IOException("Invalid vertex count " + checkpoint.ringSizes[r] + ": " + file);
+                vertexCount += checkpoint.ringSizes[r];
+            }
+            checkpoint.coordinates = new double[vertexCount * 2];
+            for (int i = 0; i < checkpoint.coordinates.length; i++) {
+                checkpoint.coordinates[i] = input.readDouble();
+            }
+            return checkpoint;
+        } catch (EOFException ex) {
+            throw new IOException("Truncated checkpoint file: " + file, ex);
+        }
+    }
+}
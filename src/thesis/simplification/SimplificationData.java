@@ -2,6 +2,8 @@ package thesis.simplification;
 
 import thesis.OrientationSet;
 import thesis.Util;
+import thesis.simplification.events.InitPhaseEvent;
+import thesis.simplification.moves.MoveQueue;
 import thesis.simplification.moves.moving.NegativeNormalMove;
 import thesis.simplification.moves.moving.PairNormalMove;
 import thesis.simplification.moves.moving.PositiveNormalMove;
@@ -9,36 +11,73 @@ import thesis.simplification.moves.rotation.*;
 import thesis.ui.ProgressDialog;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
 import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class SimplificationData {
 
-    public Polygon polygon;
+    public EdgeRing ring;
     public OrientationSet orientations;
+    public EdgeIndex edgeIndex;
+    public ContractionIndex contractionIndex;
+    // Not kept for subdivisions, whose chains do not bound a single polygon
+    public DifferenceLedger differences;
+    // Only set when simplifying a subdivision, whose chains are the rings
+    public Subdivision subdivision = null;
 
-    public ArrayList<Configuration> configurations;
+    // Polygon views of the rings, only rebuilt when they are asked for after vertices were removed
+    private Polygon polygon;
+    private List<Polygon> rings;
+    private int polygonModifications;
 
-    public ArrayList<PositiveNormalMove> positiveMoves;
-    public ArrayList<NegativeNormalMove> negativeMoves;
+    public RingList<Configuration> configurations;
 
-    public ArrayList<PairNormalMove> positivePairMoves;
-    public ArrayList<PairNormalMove> negativePairMoves;
+    public RingList<PositiveNormalMove> positiveMoves;
+    public RingList<NegativeNormalMove> negativeMoves;
 
-    public ArrayList<RotationMove> startRotationMoves;
-    public ArrayList<RotationMove> endRotationMoves;
-    public ArrayList<RotationMove> middleRotationMoves;
-    public ArrayList<RotationMove> compensatingRotationMoves;
+    public RingList<PairNormalMove> positivePairMoves;
+    public RingList<PairNormalMove> negativePairMoves;
 
-    public List<Staircase> staircases;
+    public RingList<RotationMove> startRotationMoves;
+    public RingList<RotationMove> endRotationMoves;
+    public RingList<RotationMove> middleRotationMoves;
+    public RingList<RotationMove> compensatingRotationMoves;
+
+    // Valid moves of each list ordered on affected area, stored under the handle of their vertex
+    public MoveQueue<PositiveNormalMove> positiveQueue;
+    public MoveQueue<NegativeNormalMove> negativeQueue;
+    public MoveQueue<PairNormalMove> positivePairQueue;
+    public MoveQueue<PairNormalMove> negativePairQueue;
+    public MoveQueue<RotationMove> startRotationQueue;
+    public MoveQueue<RotationMove> endRotationQueue;
+    public MoveQueue<RotationMove> middleRotationQueue;
+    public MoveQueue<RotationMove> compensatingRotationQueue;
+
+    private int queuedRotationDistance;
+
+    // Areas of moves applied without cleanup since the last cleanup, the moves there may have outdated blocking edges
+    public final List<Rectangle> staleAreas = new ArrayList<>();
+
+    public StaircaseIndex staircaseIndex;
+
+    public final SimplificationStatistics statistics = new SimplificationStatistics();
+    public final SimplificationMetrics metrics = new SimplificationMetrics();
+    // Only recorded after SimplificationHistory.start
+    public SimplificationHistory history = null;
 
     public String deciderType = "4. Minimal Complementary Pair";
 
     private ProgressDialog dialog;
     public boolean runThreaded = true;
 
+    // Number of handles initialized by one task when initializing on multiple cores
+    private static final int initBlockSize = 256;
+
     //region Calculate Settings
     public boolean calculateStartRotationMoves = true;
     public boolean calculateEndRotationMoves = true;
@@ -48,6 +87,9 @@ public class SimplificationData {
 
     public int minStaircaseSize = 5;
     public int rotationDistance = 0;
+
+    // Maximum number of non-interacting decisions applied per iteration
+    public int batchSize = 1;
     //endregion Calculate Settings
 
     // region Debug Drawing Settings
@@ -77,153 +119,393 @@ public class SimplificationData {
     }
 
     public void reset() {
-        configurations = new ArrayList<>();
-        positiveMoves = new ArrayList<>();
-        negativeMoves = new ArrayList<>();
-        positivePairMoves = new ArrayList<>();
-        negativePairMoves = new ArrayList<>();
-        startRotationMoves = new ArrayList<>();
-        endRotationMoves = new ArrayList<>();
-        middleRotationMoves = new ArrayList<>();
-        compensatingRotationMoves = new ArrayList<>();
+        init(new Polygon(), null);
     }
 
     public void init(Polygon polygon, ProgressDialog dialog) {
-        this.polygon = polygon;
+        init(Collections.singletonList(polygon), dialog);
+    }
+
+    /**
+     * Starts simplifying a polygon with holes, given as its clockwise outer ring followed by its counter-clockwise
+     * holes. All rings are simplified together: blocking edges are found on every ring and the area is preserved over
+     * the polygon as a whole.
+     * <br> Complexity O(n log n) for n vertices in all rings
+     */
+    public void init(List<Polygon> rings, ProgressDialog dialog) {
+        this.subdivision = null;
+        init(new EdgeRing(rings), rings.size() == 1 ? rings : null, dialog);
+    }
+
+    /**
+     * Starts simplifying all faces of a subdivision together, every chain between junctions as a ring of its own.
+     * <br> Complexity O(n log n) for n vertices in all chains
+     */
+    public void init(Subdivision subdivision, ProgressDialog dialog) {
+        this.subdivision = subdivision;
+        var ring = new EdgeRing(subdivision.getChains());
+        subdivision.prepare(ring);
+        init(ring, null, dialog);
+    }
+
+    private void init(EdgeRing ring, List<Polygon> rings, ProgressDialog dialog) {
+        // A history belongs to the ring it was started on
+        this.history = null;
+        this.ring = ring;
+        this.rings = rings != null ? rings : ring.toPolygons();
+        this.polygon = this.rings.get(0);
+        this.polygonModifications = ring.getModifications();
+        this.differences = subdivision == null ? new DifferenceLedger(ring) : null;
 
         this.dialog = dialog;
         if (dialog != null) {
             var count = 6 + Util.countTrue(calculateStartRotationMoves, calculateEndRotationMoves, calculateMiddleRotationMoves);
-            dialog.setMaxProgress(polygon.vertexCount() * count);
+            dialog.setMaxProgress(ring.capacity() * count);
         }
 
-        configurations = initConfigurations();
+        initPhase("Edge index", () -> edgeIndex = new EdgeIndex(ring));
+        initPhase("Configurations", () -> configurations = initConfigurations());
 
-        positiveMoves = initPositiveMoves();
-        negativeMoves = initNegativeMoves();
-        initAllSpecialPairs();
+        initPhase("Positive moves", () -> positiveMoves = initPositiveMoves());
+        initPhase("Negative moves", () -> negativeMoves = initNegativeMoves());
+        initPhase("Pair moves", this::initAllSpecialPairs);
 
-        recalculateStaircases();
+        initPhase("Staircases", () -> staircaseIndex = new StaircaseIndex(ring, configurations));
 
+        startRotationMoves = new RingList<>(ring);
+        endRotationMoves = new RingList<>(ring);
+        middleRotationMoves = new RingList<>(ring);
         if (calculateStartRotationMoves)
-            startRotationMoves = initStartRotationMoves();
+            initPhase("Start rotation moves", () -> startRotationMoves = initStartRotationMoves());
         if (calculateEndRotationMoves)
-            endRotationMoves = initEndRotationMoves();
+            initPhase("End rotation moves", () -> endRotationMoves = initEndRotationMoves());
         if (calculateMiddleRotationMoves)
-            middleRotationMoves = initMiddleRotationMoves();
+            initPhase("Middle rotation moves", () -> middleRotationMoves = initMiddleRotationMoves());
 
-        compensatingRotationMoves = initCompensatingRotationMoves();
+        initPhase("Compensating rotation moves", () -> compensatingRotationMoves = initCompensatingRotationMoves());
+
+        initPhase("Queues", this::initQueues);
+        initPhase("Contraction index", this::initContractionIndex);
 
         this.dialog = null;
     }
 
-    public LineSegment removeAtIndex(int index) {
-        configurations.remove(index);
-        positiveMoves.remove(index);
-        negativeMoves.remove(index);
-        positivePairMoves.remove(index);
-        negativePairMoves.remove(index);
-
-        if (calculateStartRotationMoves)
-            startRotationMoves.remove(index);
-        if (calculateEndRotationMoves)
-            endRotationMoves.remove(index);
-        if (calculateMiddleRotationMoves)
-            middleRotationMoves.remove(index);
+    /**
+     * Runs a phase of init, recording it as a flight recorder event if it took long enough.
+     */
+    private void initPhase(String phase, Runnable init) {
+        var event = new InitPhaseEvent();
+        event.begin();
+        init.run();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.vertices = ring.size();
+            event.threaded = runThreaded;
+            event.commit();
+        }
+    }
 
-        compensatingRotationMoves.remove(index);
+    /**
+     * Returns the outer ring of the current polygon. The vertices are shared with the ring, so moves show up
+     * immediately; the polygon itself is only rebuilt after vertices were removed.
+     * <br> Complexity O(1), or O(n) the first time after a vertex was removed
+     */
+    public Polygon getPolygon() {
+        refreshPolygons();
+        return polygon;
+    }
 
-        var edge = polygon.edge(index).clone();
-        polygon.removeVertex(index);
-        return edge;
+    /**
+     * Returns the outer ring of the current polygon followed by the holes that have vertices left, shared with the
+     * ring like {@link #getPolygon()}.
+     * <br> Complexity O(1), or O(n) the first time after a vertex was removed
+     */
+    public List<Polygon> getRings() {
+        refreshPolygons();
+        return rings;
     }
 
-    public void resetAtIndex(int index) {
-        assert configurations.get(index).index == index;
+    /**
+     * Returns every face of the subdivision that is being simplified, as its outer ring followed by its holes. The
+     * vertices are shared with the ring.
+     * <br> Complexity O(n)
+     */
+    public List<List<Polygon>> getFaces() {
+        assert subdivision != null : "Not simplifying a subdivision";
+        return subdivision.getFaces(ring);
+    }
 
-        var configuration = new Configuration(polygon, index);
-        configurations.set(index, configuration);
+    /**
+     * Returns the moves of the given list in a subdivision that can compensate a move at the given handle, in handle
+     * order: those on the chains with the same faces on the same sides, so every face keeps its area. Outside
+     * subdivisions every move can, {@link MoveQueue#from(double)} finds those by area.
+     * <br> Complexity O(k + log c) for k vertices on those chains and c chains
+     */
+    public <T> Iterable<T> compensators(RingList<T> moves, int handle) {
+        assert subdivision != null : "Not simplifying a subdivision";
+        var result = new ArrayList<T>();
+        for (var chain : subdivision.chainsWithSameSides(ring.ringOf(handle))) {
+            for (int i = 0, other = ring.ringFirst(chain); i < ring.ringSize(chain); i++, other = ring.next(other)) {
+                result.add(moves.getAt(other));
+            }
+        }
+        return result;
+    }
 
-        positiveMoves.set(index, new PositiveNormalMove(configuration, polygon));
-        negativeMoves.set(index, new NegativeNormalMove(configuration, polygon));
-        positivePairMoves.set(index, new PairNormalMove(this, configuration, true));
-        negativePairMoves.set(index, new PairNormalMove(this, configuration, true));
+    private void refreshPolygons() {
+        if (polygonModifications != ring.getModifications()) {
+            rings = ring.toPolygons();
+            polygon = rings.get(0);
+            polygonModifications = ring.getModifications();
+        }
+    }
 
-        if (calculateStartRotationMoves)
-            startRotationMoves.set(index, new StartRotationMove(this, configuration, orientations));
-        if (calculateEndRotationMoves)
-            endRotationMoves.set(index, new EndRotationMove(this, configuration, orientations));
-        if (calculateMiddleRotationMoves)
-            middleRotationMoves.set(index, new MiddleRotationMove(this, configuration, orientations));
+    public int vertexCount() {
+        return ring.size();
+    }
 
-        compensatingRotationMoves.set(index, new CompensatingRotationMove(this, configuration, orientations));
+    private void initQueues() {
+        // Nothing was removed yet, so list indices and handles are still the same
+        // Outside subdivisions deciders look up compensating normal moves by their area
+        positiveQueue = new MoveQueue<>(positiveMoves, subdivision == null);
+        negativeQueue = new MoveQueue<>(negativeMoves, subdivision == null);
+        positivePairQueue = new MoveQueue<>(positivePairMoves);
+        negativePairQueue = new MoveQueue<>(negativePairMoves);
+        startRotationQueue = new MoveQueue<>(startRotationMoves);
+        endRotationQueue = new MoveQueue<>(endRotationMoves);
+        middleRotationQueue = new MoveQueue<>(middleRotationMoves);
+        compensatingRotationQueue = new MoveQueue<>(compensatingRotationMoves);
+
+        queuedRotationDistance = rotationDistance;
     }
 
-    private ArrayList<Configuration> initConfigurations() {
-        var list = new ArrayList<Configuration>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new Configuration(polygon, index));
-            if (dialog != null)
-                dialog.increaseProgress(1);
+    private void initContractionIndex() {
+        contractionIndex = new ContractionIndex(ring);
+        for (int handle = 0; handle < ring.capacity(); handle++) {
+            updateContractionBounds(handle);
         }
-        return list;
+        staleAreas.clear();
     }
 
-    private ArrayList<PositiveNormalMove> initPositiveMoves() {
-        var list = new ArrayList<PositiveNormalMove>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new PositiveNormalMove(configurations.get(index), polygon));
-            if (dialog != null)
-                dialog.increaseProgress(1);
-        }
-        return list;
+    /**
+     * Stores the bounding box of the contraction areas of the normal and pair moves of the given handle in the
+     * contraction index, after any of those moves was replaced.
+     * <br> Complexity O(k) for k cells covered by the contraction areas
+     */
+    public void updateContractionBounds(int handle) {
+        var bounds = new Rectangle();
+        positiveMoves.getAt(handle).includeContractionBounds(bounds);
+        negativeMoves.getAt(handle).includeContractionBounds(bounds);
+        positivePairMoves.getAt(handle).includeContractionBounds(bounds);
+        negativePairMoves.getAt(handle).includeContractionBounds(bounds);
+        contractionIndex.update(handle, bounds);
     }
 
-    private ArrayList<NegativeNormalMove> initNegativeMoves() {
-        var list = new ArrayList<NegativeNormalMove>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new NegativeNormalMove(configurations.get(index), polygon));
-            if (dialog != null)
-                dialog.increaseProgress(1);
-        }
-        return list;
+    /**
+     * Reevaluates the queued normal and pair moves of the given handle, after their blocking numbers changed.
+     * <br> Complexity O(log n)
+     */
+    public void updateQueues(int handle) {
+        positiveQueue.update(handle);
+        negativeQueue.update(handle);
+        positivePairQueue.update(handle);
+        negativePairQueue.update(handle);
     }
 
+    /**
+     * Takes all moves of the given handle out of the queues, so deciders skip them until {@link #resume(int)}.
+     * <br> Complexity O(log n)
+     */
+    public void suspend(int handle) {
+        positiveQueue.suspend(handle);
+        negativeQueue.suspend(handle);
+        positivePairQueue.suspend(handle);
+        negativePairQueue.suspend(handle);
+        startRotationQueue.suspend(handle);
+        endRotationQueue.suspend(handle);
+        middleRotationQueue.suspend(handle);
+        compensatingRotationQueue.suspend(handle);
+    }
 
-    public void initAllSpecialPairs() {
-        positivePairMoves = new ArrayList<>(polygon.vertexCount());
-        negativePairMoves = new ArrayList<>(polygon.vertexCount());
+    /**
+     * Puts the moves of the given handle back into the queues after {@link #suspend(int)}.
+     * <br> Complexity O(log n)
+     */
+    public void resume(int handle) {
+        if (!ring.contains(handle))
+            return;
+
+        updateQueues(handle);
+        startRotationQueue.update(handle);
+        endRotationQueue.update(handle);
+        middleRotationQueue.update(handle);
+        compensatingRotationQueue.update(handle);
+    }
 
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            initSpecialPairs(index);
-            if (dialog != null)
-                dialog.increaseProgress(1);
+    /**
+     * Rotation moves can be limited based on their index, which shifts whenever a vertex is removed. When that is the
+     * case the rotation queues are reevaluated completely.
+     * <br> Complexity O(n) if rotations are limited, O(1) otherwise
+     */
+    public void refreshRotationQueues() {
+        if (rotationDistance == 0 && queuedRotationDistance == 0)
+            return;
+
+        startRotationQueue.rebuild();
+        endRotationQueue.rebuild();
+        middleRotationQueue.rebuild();
+        compensatingRotationQueue.rebuild();
+
+        queuedRotationDistance = rotationDistance;
+    }
+
+    /**
+     * Removes the vertex of the given handle together with all its configurations and moves.
+     * Returns a copy of the edge that started at the vertex.
+     * <br> Complexity O(log n)
+     */
+    public LineSegment remove(int handle) {
+        positiveQueue.remove(handle);
+        negativeQueue.remove(handle);
+        positivePairQueue.remove(handle);
+        negativePairQueue.remove(handle);
+        startRotationQueue.remove(handle);
+        endRotationQueue.remove(handle);
+        middleRotationQueue.remove(handle);
+        compensatingRotationQueue.remove(handle);
+
+        configurations.clearAt(handle);
+        var staircaseStart = metrics.start();
+        staircaseIndex.remove(handle);
+        metrics.stop(SimplificationMetrics.Phase.STAIRCASE, staircaseStart);
+        contractionIndex.remove(handle);
+        positiveMoves.clearAt(handle);
+        negativeMoves.clearAt(handle);
+        positivePairMoves.clearAt(handle);
+        negativePairMoves.clearAt(handle);
+        startRotationMoves.clearAt(handle);
+        endRotationMoves.clearAt(handle);
+        middleRotationMoves.clearAt(handle);
+        compensatingRotationMoves.clearAt(handle);
+
+        var edge = ring.edge(handle).clone();
+        var previous = ring.previous(handle);
+        edgeIndex.remove(handle);
+        ring.remove(handle);
+        if (history != null)
+            history.removed(handle);
+        // The previous edge now ends at the vertex that followed the removed one
+        edgeIndex.update(previous);
+        return edge;
+    }
+
+    /**
+     * Updates the edge index for the edges touching the inner edge of the given handle, after its endpoints were moved.
+     * <br> Complexity O(1)
+     */
+    public void updateEdgesAround(int handle) {
+        if (history != null)
+            history.moved(handle);
+        edgeIndex.update(ring.previous(handle));
+        edgeIndex.update(handle);
+        edgeIndex.update(ring.next(handle));
+    }
+
+    public void resetAt(int handle) {
+        var configuration = new Configuration(ring, handle);
+        configurations.setAt(handle, configuration);
+        var staircaseStart = metrics.start();
+        staircaseIndex.update(handle, configuration);
+        metrics.stop(SimplificationMetrics.Phase.STAIRCASE, staircaseStart);
+
+        var positiveMove = new PositiveNormalMove(configuration, edgeIndex);
+        positiveMoves.setAt(handle, positiveMove);
+        positiveQueue.set(handle, positiveMove);
+        var negativeMove = new NegativeNormalMove(configuration, edgeIndex);
+        negativeMoves.setAt(handle, negativeMove);
+        negativeQueue.set(handle, negativeMove);
+        var positivePairMove = new PairNormalMove(this, configuration, true);
+        positivePairMoves.setAt(handle, positivePairMove);
+        positivePairQueue.set(handle, positivePairMove);
+        var negativePairMove = new PairNormalMove(this, configuration, true);
+        negativePairMoves.setAt(handle, negativePairMove);
+        negativePairQueue.set(handle, negativePairMove);
+
+        if (calculateStartRotationMoves) {
+            var move = new StartRotationMove(this, configuration, orientations);
+            startRotationMoves.setAt(handle, move);
+            startRotationQueue.set(handle, move);
+        }
+        if (calculateEndRotationMoves) {
+            var move = new EndRotationMove(this, configuration, orientations);
+            endRotationMoves.setAt(handle, move);
+            endRotationQueue.set(handle, move);
         }
+        if (calculateMiddleRotationMoves) {
+            var move = new MiddleRotationMove(this, configuration, orientations);
+            middleRotationMoves.setAt(handle, move);
+            middleRotationQueue.set(handle, move);
+        }
+
+        var compensatingMove = new CompensatingRotationMove(this, configuration, orientations);
+        compensatingRotationMoves.setAt(handle, compensatingMove);
+        compensatingRotationQueue.set(handle, compensatingMove);
+
+        updateContractionBounds(handle);
     }
 
-    public void initSpecialPairs(int index) {
-        var moves = getSpecialPairs(index);
+    private RingList<Configuration> initConfigurations() {
+        var list = Configuration.createAll(ring);
+        if (dialog != null)
+            dialog.increaseProgress(list.size());
+        return list;
+    }
 
-        positivePairMoves.add(moves[0]);
-        negativePairMoves.add(moves[1]);
+    private RingList<PositiveNormalMove> initPositiveMoves() {
+        var list = new RingList<PositiveNormalMove>(ring);
+        forEachHandle(handle -> list.setAt(handle, new PositiveNormalMove(configurations.getAt(handle), edgeIndex)));
+        return list;
     }
 
-    public void resetSpecialPairs(int index) {
-        var moves = getSpecialPairs(index);
+    private RingList<NegativeNormalMove> initNegativeMoves() {
+        var list = new RingList<NegativeNormalMove>(ring);
+        forEachHandle(handle -> list.setAt(handle, new NegativeNormalMove(configurations.getAt(handle), edgeIndex)));
+        return list;
+    }
+
+
+    public void initAllSpecialPairs() {
+        positivePairMoves = new RingList<>(ring);
+        negativePairMoves = new RingList<>(ring);
+
+        forEachHandle(handle -> {
+            var moves = getSpecialPairs(handle);
+            positivePairMoves.setAt(handle, moves[0]);
+            negativePairMoves.setAt(handle, moves[1]);
+        });
+    }
 
-        positivePairMoves.set(index, moves[0]);
-        negativePairMoves.set(index, moves[1]);
+    public void resetSpecialPairs(int handle) {
+        var moves = getSpecialPairs(handle);
+
+        positivePairMoves.setAt(handle, moves[0]);
+        positivePairQueue.set(handle, moves[0]);
+        negativePairMoves.setAt(handle, moves[1]);
+        negativePairQueue.set(handle, moves[1]);
+        updateContractionBounds(handle);
     }
 
-    public PairNormalMove[] getSpecialPairs(int indexA) {
-        var indexB = (indexA + 2) % configurations.size();
+    public PairNormalMove[] getSpecialPairs(int handleA) {
+        var handleB = ring.next(ring.next(handleA));
 
-        var configurationA = configurations.get(indexA);
-        var configurationB = configurations.get(indexB);
-        var positiveMoveA = positiveMoves.get(indexA);
-        var positiveMoveB = positiveMoves.get(indexB);
-        var negativeMoveA = negativeMoves.get(indexA);
-        var negativeMoveB = negativeMoves.get(indexB);
+        var configurationA = configurations.getAt(handleA);
+        var configurationB = configurations.getAt(handleB);
+        var positiveMoveA = positiveMoves.getAt(handleA);
+        var positiveMoveB = positiveMoves.getAt(handleB);
+        var negativeMoveA = negativeMoves.getAt(handleA);
+        var negativeMoveB = negativeMoves.getAt(handleB);
 
         // Set up moves as invalid so that they are easier to check against in the list
         PairNormalMove positivePairMove = new PairNormalMove(this, configurationA, true);
@@ -242,70 +524,56 @@ public class SimplificationData {
         return new PairNormalMove[]{positivePairMove, negativePairMove};
     }
 
-    private ArrayList<RotationMove> initStartRotationMoves() {
-        var list = new ArrayList<RotationMove>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new StartRotationMove(this, configurations.get(index), orientations));
-            if (dialog != null)
-                dialog.increaseProgress(1);
-        }
+    private RingList<RotationMove> initStartRotationMoves() {
+        var list = new RingList<RotationMove>(ring);
+        forEachHandle(handle -> list.setAt(handle, new StartRotationMove(this, configurations.getAt(handle), orientations)));
         return list;
     }
 
-    private ArrayList<RotationMove> initEndRotationMoves() {
-        var list = new ArrayList<RotationMove>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new EndRotationMove(this, configurations.get(index), orientations));
-            if (dialog != null)
-                dialog.increaseProgress(1);
-        }
+    private RingList<RotationMove> initEndRotationMoves() {
+        var list = new RingList<RotationMove>(ring);
+        forEachHandle(handle -> list.setAt(handle, new EndRotationMove(this, configurations.getAt(handle), orientations)));
         return list;
     }
 
-    private ArrayList<RotationMove> initMiddleRotationMoves() {
-        var list = new ArrayList<RotationMove>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new MiddleRotationMove(this, configurations.get(index), orientations));
-            if (dialog != null)
-                dialog.increaseProgress(1);
-        }
+    private RingList<RotationMove> initMiddleRotationMoves() {
+        var list = new RingList<RotationMove>(ring);
+        forEachHandle(handle -> list.setAt(handle, new MiddleRotationMove(this, configurations.getAt(handle), orientations)));
         return list;
     }
 
-    private ArrayList<RotationMove> initCompensatingRotationMoves() {
-        var list = new ArrayList<RotationMove>(polygon.vertexCount());
-        for (int index = 0; index < polygon.vertexCount(); index++) {
-            list.add(new CompensatingRotationMove(this, configurations.get(index), orientations));
-            if (dialog != null)
-                dialog.increaseProgress(1);
-        }
+    private RingList<RotationMove> initCompensatingRotationMoves() {
+        var list = new RingList<RotationMove>(ring);
+        forEachHandle(handle -> list.setAt(handle, new CompensatingRotationMove(this, configurations.getAt(handle), orientations)));
         return list;
     }
 
-    public void recalculateStaircases() {
-        staircases = new ArrayList<>();
-        var current = new Staircase();
-        for (int i = 0; i < configurations.size(); i++) {
-            var edge = configurations.get(i);
-            if (edge.isInnerConvex() || edge.isInnerReflex()) {
-                if (current.start >= 0) {
-                    current.end = i - 1;
-                    staircases.add(current);
-                    current.listLength = configurations.size();
-                    current = new Staircase();
-                }
-            } else {
-                if (current.start < 0) {
-                    current.start = i;
-                }
+    /**
+     * Runs the given action for every handle, spread over all cores when running threaded. Every phase of the
+     * initialization only reads the values of earlier phases and writes the value of its own handle, so handles can be
+     * computed in any order. Progress is reported once per block of handles.
+     * <br> Complexity O(n / p) for p cores
+     */
+    private void forEachHandle(IntConsumer action) {
+        var capacity = ring.capacity();
+        var blocks = (capacity + initBlockSize - 1) / initBlockSize;
+        var stream = IntStream.range(0, blocks);
+        (runThreaded ? stream.parallel() : stream).forEach(block -> {
+            var start = block * initBlockSize;
+            var end = Math.min(capacity, start + initBlockSize);
+            for (int handle = start; handle < end; handle++) {
+                action.accept(handle);
             }
-        }
-
-        if (staircases.size() > 0 && current.start >= 0 && current.end < 0) {
-            staircases.get(0).loops = true;
-            staircases.get(0).start = current.start;
-        }
+            if (dialog != null)
+                dialog.increaseProgress(end - start);
+        });
+    }
 
-        staircases = staircases.stream().filter(staircase -> staircase.length() >= minStaircaseSize).collect(Collectors.toList());
+    /**
+     * Returns all staircases of at least {@link #minStaircaseSize} edges.
+     * <br> Complexity O(k log n) for k convex and reflex edges
+     */
+    public List<Staircase> getStaircases() {
+        return staircaseIndex.getStaircases(minStaircaseSize);
     }
 }
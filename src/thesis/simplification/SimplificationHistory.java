@@ -0,0 +1,413 @@
+package thesis.simplification;
+
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Progressive representation of a simplification: the changes of every iteration, from which the polygon after any
+ * iteration can be rebuilt without simplifying again.
+ * <br> Every step records the vertices that were removed and the new position of the vertices that were moved, by
+ * their handle. Next to these changes the complete polygon is stored as a keyframe whenever the changes since the
+ * previous keyframe outnumber its vertices, so rebuilding the polygon of any step replays at most as many changes as
+ * it has vertices, while all keyframes together are no larger than the changes themselves.
+ * <br> Vertex counts only go down, so the first step with at most a given number of vertices is found with a binary
+ * search. Step 0 is the polygon the history was started with. Polygons with holes are rebuilt ring by ring, from the
+ * first handle of every ring.
+ */
+public class SimplificationHistory {
+
+    public static final String extension = ".hist";
+
+    /**
+     * "THST" in ASCII
+     */
+    public static final int magic = 0x54485354;
+    public static final int version = 2;
+
+    private static final int bufferSize = 1 << 16;
+
+    private static final class Keyframe {
+        final int step;
+        // Position in the coordinates of the first change after this keyframe
+        final int coordinateOffset;
+        // Remaining handles in ring order, which is ascending, and their vertices
+        final int[] handles;
+        final double[] coordinates;
+
+        Keyframe(int step, int coordinateOffset, int[] handles, double[] coordinates) {
+            this.step = step;
+            this.coordinateOffset = coordinateOffset;
+            this.handles = handles;
+            this.coordinates = coordinates;
+        }
+    }
+
+    // Only set while recording
+    private EdgeRing ring;
+    private boolean[] touched;
+    private int[] touchedHandles;
+    private int touchedCount = 0;
+    private int changesSinceKeyframe = 0;
+
+    private int steps = 0;
+    private int[] vertexCounts = new int[16];
+    // Number of changes up to and including every step
+    private int[] changeEnds = new int[16];
+
+    // Handle of every change, or its complement for removed vertices
+    private int[] changes = new int[64];
+    private int changeCount = 0;
+    // Consecutive x and y of every moved vertex, in the order of the changes
+    private double[] coordinates = new double[128];
+    private int coordinateCount = 0;
+
+    private final List<Keyframe> keyframes = new ArrayList<>();
+
+    // Smallest handle of the outer ring and of every hole
+    private int[] ringStarts = {0};
+
+    private SimplificationHistory() {
+    }
+
+    /**
+     * Starts recording the simplification of the given data from its current polygon.
+     * <br> Complexity O(n) for n handles
+     */
+    public static SimplificationHistory start(SimplificationData data) {
+        var history = new SimplificationHistory();
+        history.ring = data.ring;
+        history.touched = new boolean[data.ring.capacity()];
+        history.touchedHandles = new int[16];
+        history.ringStarts = new int[data.ring.ringCount()];
+        for (int r = 0; r < history.ringStarts.length; r++) {
+            history.ringStarts[r] = data.ring.ringStart(r);
+        }
+        history.vertexCounts[0] = data.ring.size();
+        history.keyframes.add(history.createKeyframe());
+
+        data.history = history;
+        return history;
+    }
+
+    /**
+     * Returns the number of recorded steps, the last step has this number.
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the number of vertices after the given step.
+     * <br> Complexity O(1)
+     */
+    public int getVertexCount(int step) {
+        return vertexCounts[step];
+    }
+
+    /**
+     * Returns the first step after which at most the given number of vertices was left, or -1 if the simplification
+     * never got that far.
+     * <br> Complexity O(log s) for s steps
+     */
+    public int findStep(int maxVertices) {
+        if (vertexCounts[steps] > maxVertices)
+            return -1;
+
+        var low = 0;
+        var high = steps;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (vertexCounts[mid] <= maxVertices)
+                high = mid;
+            else
+                low = mid + 1;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the largest polygon with at most the given number of vertices, or null if the simplification never got
+     * that far.
+     * <br> Complexity O(log s + m log m) for s steps and m vertices
+     */
+    public Polygon getPolygonWithAtMost(int maxVertices) {
+        var step = findStep(maxVertices);
+        return step < 0 ? null : getPolygon(step);
+    }
+
+    /**
+     * Rebuilds the outer ring of the polygon after the given step from the last keyframe before it.
+     * <br> Complexity O(log s + m log m) for s steps and m vertices in that keyframe
+     */
+    public Polygon getPolygon(int step) {
+        return getRings(step).get(0);
+    }
+
+    /**
+     * Rebuilds the outer ring and the holes that have vertices left after the given step from the last keyframe before
+     * it.
+     * <br> Complexity O(log s + m log m) for s steps and m vertices in that keyframe
+     */
+    public List<Polygon> getRings(int step) {
+        if (step < 0 || step > steps)
+            throw new IndexOutOfBoundsException("Step " + step + " out of bounds for " + steps + " steps");
+
+        var keyframe = keyframes.get(findKeyframe(step));
+        var handles = keyframe.handles;
+        var vertices = keyframe.coordinates.clone();
+        var removed = new boolean[handles.length];
+
+        var coordinate = keyframe.coordinateOffset;
+        for (int change = changeEnds[keyframe.step]; change < changeEnds[step]; change++) {
+            var handle = changes[change];
+            var index = Arrays.binarySearch(handles, handle < 0 ? ~handle : handle);
+            assert index >= 0 : "Change of handle " + handle + " that is not in the keyframe";
+
+            if (handle < 0) {
+                removed[index] = true;
+            } else {
+                vertices[index * 2] = coordinates[coordinate++];
+                vertices[index * 2 + 1] = coordinates[coordinate++];
+            }
+        }
+
+        // Handles are ascending, so the rings follow each other
+        var rings = new ArrayList<Polygon>();
+        var polygon = new ArrayList<Vector>();
+        var count = 0;
+        for (int index = 0, ring = 0; index < handles.length; index++) {
+            while (ring + 1 < ringStarts.length && handles[index] >= ringStarts[ring + 1]) {
+                addRing(rings, polygon);
+                polygon = new ArrayList<>();
+                ring++;
+            }
+            if (!removed[index])
+                polygon.add(new Vector(vertices[index * 2], vertices[index * 2 + 1]));
+        }
+        addRing(rings, polygon);
+
+        for (var ring : rings) {
+            count += ring.vertexCount();
+        }
+        assert count == vertexCounts[step] : count + " != " + vertexCounts[step];
+        return rings;
+    }
+
+    private static void addRing(List<Polygon> rings, List<Vector> vertices) {
+        // Holes without vertices are left out, the outer ring stays first
+        if (rings.isEmpty() || !vertices.isEmpty())
+            rings.add(new Polygon(vertices));
+    }
+
+    private int findKeyframe(int step) {
+        var low = 0;
+        var high = keyframes.size() - 1;
+        while (low < high) {
+            var mid = (low + high + 1) >>> 1;
+            if (keyframes.get(mid).step <= step)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    //region Recording
+
+    /**
+     * Marks the endpoints of the edge of the given handle as moved in the current step.
+     * <br> Complexity O(1)
+     */
+    void moved(int handle) {
+        touch(handle);
+        touch(ring.next(handle));
+    }
+
+    private void touch(int handle) {
+        if (touched[handle])
+            return;
+
+        touched[handle] = true;
+        if (touchedCount == touchedHandles.length)
+            touchedHandles = Arrays.copyOf(touchedHandles, touchedCount * 2);
+        touchedHandles[touchedCount++] = handle;
+    }
+
+    /**
+     * Records the removal of the vertex of the given handle in the current step.
+     * <br> Complexity O(1)
+     */
+    void removed(int handle) {
+        addChange(~handle);
+    }
+
+    /**
+     * Ends the current step, storing the positions of the vertices that moved during it. Steps without changes are
+     * not recorded.
+     * <br> Complexity O(k) for k changed vertices, O(m) when a keyframe is stored for m vertices
+     */
+    public void endIteration() {
+        assert ring != null : "History is not being recorded";
+
+        for (int i = 0; i < touchedCount; i++) {
+            var handle = touchedHandles[i];
+            touched[handle] = false;
+            if (!ring.contains(handle))
+                continue;
+
+            addChange(handle);
+            if (coordinateCount + 2 > coordinates.length)
+                coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+            var vertex = ring.vertex(handle);
+            coordinates[coordinateCount++] = vertex.getX();
+            coordinates[coordinateCount++] = vertex.getY();
+        }
+        touchedCount = 0;
+
+        if (changeCount == changeEnds[steps])
+            return;
+
+        steps++;
+        if (steps == vertexCounts.length) {
+            vertexCounts = Arrays.copyOf(vertexCounts, steps * 2);
+            changeEnds = Arrays.copyOf(changeEnds, steps * 2);
+        }
+        vertexCounts[steps] = ring.size();
+        changeEnds[steps] = changeCount;
+
+        changesSinceKeyframe += changeCount - changeEnds[steps - 1];
+        if (changesSinceKeyframe >= ring.size()) {
+            keyframes.add(createKeyframe());
+            changesSinceKeyframe = 0;
+        }
+    }
+
+    private void addChange(int change) {
+        if (changeCount == changes.length)
+            changes = Arrays.copyOf(changes, changeCount * 2);
+        changes[changeCount++] = change;
+    }
+
+    private Keyframe createKeyframe() {
+        var size = ring.size();
+        var handles = new int[size];
+        var vertices = new double[size * 2];
+        for (int index = 0, handle = ring.first(); index < size; index++, handle = ring.following(handle)) {
+            handles[index] = handle;
+            vertices[index * 2] = ring.vertex(handle).getX();
+            vertices[index * 2 + 1] = ring.vertex(handle).getY();
+        }
+        return new Keyframe(steps, coordinateCount, handles, vertices);
+    }
+    //endregion Recording
+
+    //region Files
+
+    /**
+     * Writes this history as a big-endian binary file: the {@link #magic} number, the {@link #version}, the first
+     * handle of every ring, the vertex count and change count of every step, the changes, the coordinates of the moved
+     * vertices and the keyframes. Files of other versions are rejected.
+     * <br> Complexity O(c) for c changes
+     */
+    public void write(File file) throws IOException {
+        try (var output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), bufferSize))) {
+            output.writeInt(magic);
+            output.writeInt(version);
+
+            output.writeInt(ringStarts.length);
+            for (var ringStart : ringStarts) {
+                output.writeInt(ringStart);
+            }
+
+            output.writeInt(steps);
+            for (int step = 0; step <= steps; step++) {
+                output.writeInt(vertexCounts[step]);
+                output.writeInt(changeEnds[step]);
+            }
+
+            output.writeInt(changeCount);
+            for (int i = 0; i < changeCount; i++) {
+                output.writeInt(changes[i]);
+            }
+            output.writeInt(coordinateCount);
+            for (int i = 0; i < coordinateCount; i++) {
+                output.writeDouble(coordinates[i]);
+            }
+
+            output.writeInt(keyframes.size());
+            for (var keyframe : keyframes) {
+                output.writeInt(keyframe.step);
+                output.writeInt(keyframe.coordinateOffset);
+                output.writeInt(keyframe.handles.length);
+                for (int index = 0; index < keyframe.handles.length; index++) {
+                    output.writeInt(keyframe.handles[index]);
+                    output.writeDouble(keyframe.coordinates[index * 2]);
+                    output.writeDouble(keyframe.coordinates[index * 2 + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a history written by {@link #write(File)}, which can be queried but not recorded to.
+     * <br> Complexity O(c) for c changes
+     */
+    public static SimplificationHistory read(File file) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), bufferSize))) {
+            if (input.readInt() != magic)
+                throw new IOException("Not a simplification history: " + file);
+            var fileVersion = input.readInt();
+            if (fileVersion != version)
+                throw new IOException("Unsupported simplification history version " + fileVersion + ": " + file);
+
+            var history = new SimplificationHistory();
+            history.ringStarts = new int[input.readInt()];
+            for (int r = 0; r < history.ringStarts.length; r++) {
+                history.ringStarts[r] = input.readInt();
+            }
+            history.steps = input.readInt();
+            history.vertexCounts = new int[history.steps + 1];
+            history.changeEnds = new int[history.steps + 1];
+            for (int step = 0; step <= history.steps; step++) {
+                history.vertexCounts[step] = input.readInt();
+                history.changeEnds[step] = input.readInt();
+            }
+
+            history.changeCount = input.readInt();
+            history.changes = new int[history.changeCount];
+            for (int i = 0; i < history.changeCount; i++) {
+                history.changes[i] = input.readInt();
+            }
+            history.coordinateCount = input.readInt();
+            history.coordinates = new double[history.coordinateCount];
+            for (int i = 0; i < history.coordinateCount; i++) {
+                history.coordinates[i] = input.readDouble();
+            }
+
+            var keyframeCount = input.readInt();
+            for (int i = 0; i < keyframeCount; i++) {
+                var step = input.readInt();
+                var coordinateOffset = input.readInt();
+                var handles = new int[input.readInt()];
+                var vertices = new double[handles.length * 2];
+                for (int index = 0; index < handles.length; index++) {
+                    handles[index] = input.readInt();
+                    vertices[index * 2] = input.readDouble();
+                    vertices[index * 2 + 1] = input.readDouble();
+                }
+                history.keyframes.add(new Keyframe(step, coordinateOffset, handles, vertices));
+            }
+            if (history.keyframes.isEmpty() || history.keyframes.get(0).step != 0)
+                throw new IOException("Simplification history without initial polygon: " + file);
+            return history;
+        } catch (EOFException | NegativeArraySizeException ex) {
+            throw new IOException("Corrupt simplification history: " + file, ex);
+        }
+    }
+    //endregion Files
+}
@@ -0,0 +1,486 @@
+package thesis.simplification;
+
+import thesis.simplification.moves.MoveType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per iteration measurements of a simplification: the time spent in every {@link Phase}, the number of vertices
+ * removed, the area displaced and the moves applied by {@link MoveType}.
+ * <br> Phase times are exclusive, time spent in a phase measured inside another phase only counts for the inner one,
+ * so the phases of an iteration add up to at most its total time. Besides the totals, a histogram of every measure
+ * per iteration is kept, and the iterations themselves when {@link #keepIterations} is turned on. Everything can be
+ * exported as JSON (totals and histograms) or CSV (one row per iteration, only the kept iterations).
+ */
+public class SimplificationMetrics {
+
+    public enum Phase {
+        /**
+         * Finding the moves of an iteration
+         */
+        DECIDER,
+        /**
+         * Moving the edges of a move
+         */
+        APPLY,
+        /**
+         * Removing vertices that became invalid after a move
+         */
+        VALIDITY,
+        /**
+         * Recalculating configurations and moves around a move
+         */
+        RESET,
+        /**
+         * Updating blocking edges of moves near a move
+         */
+        BLOCKING,
+        /**
+         * Updating the staircases around a move
+         */
+        STAIRCASE,
+    }
+
+    private static final Phase[] phases = Phase.values();
+    private static final MoveType[] moveTypes = MoveType.values();
+
+    /**
+     * Whether every iteration is kept for {@link #writeCsv(Writer)}, which grows with the number of iterations
+     */
+    public boolean keepIterations = false;
+
+    private int iterations = 0;
+    /**
+     * Number of simplifications measured, including merged ones
+     */
+    private int runs = 0;
+    private boolean inIteration = false;
+
+    // Current iteration
+    private final long[] phaseTimes = new long[phases.length];
+    private final int[] moveCounts = new int[moveTypes.length];
+    private int verticesRemoved = 0;
+    private double areaDisplaced = 0;
+    private long iterationStart;
+
+    // Nested measurements, see start and stop
+    private long[] measuredAtStart = new long[8];
+    private int depth = 0;
+    private long measured = 0;
+
+    // Totals and histograms over all iterations
+    private final long[] totalPhaseTimes = new long[phases.length];
+    private final long[] totalMoveCounts = new long[moveTypes.length];
+    private long totalTime = 0;
+    private long totalVerticesRemoved = 0;
+    private double totalAreaDisplaced = 0;
+
+    private final Histogram[] phaseHistograms = new Histogram[phases.length];
+    private final Histogram timeHistogram = new Histogram();
+    private final Histogram verticesHistogram = new Histogram();
+    private final Histogram areaHistogram = new Histogram();
+
+    // Kept iterations, one entry per iteration or per phase/move type of an iteration
+    private int[] iterationRuns = new int[0];
+    private long[] iterationTimes = new long[0];
+    private long[] iterationPhaseTimes = new long[0];
+    private int[] iterationMoveCounts = new int[0];
+    private int[] iterationVertices = new int[0];
+    private double[] iterationAreas = new double[0];
+    private int kept = 0;
+
+    public SimplificationMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phaseHistograms[i] = new Histogram();
+        }
+    }
+
+    public void reset() {
+        iterations = 0;
+        runs = 0;
+        inIteration = false;
+        depth = 0;
+        Arrays.fill(totalPhaseTimes, 0);
+        Arrays.fill(totalMoveCounts, 0);
+        totalTime = 0;
+        totalVerticesRemoved = 0;
+        totalAreaDisplaced = 0;
+        for (var histogram : phaseHistograms) {
+            histogram.reset();
+        }
+        timeHistogram.reset();
+        verticesHistogram.reset();
+        areaHistogram.reset();
+        kept = 0;
+    }
+
+    //region Recording
+
+    public void beginIteration() {
+        runs = Math.max(runs, 1);
+        Arrays.fill(phaseTimes, 0);
+        Arrays.fill(moveCounts, 0);
+        verticesRemoved = 0;
+        areaDisplaced = 0;
+        depth = 0;
+        measured = 0;
+        inIteration = true;
+        iterationStart = System.nanoTime();
+    }
+
+    /**
+     * Starts measuring a phase, returns the start time to pass to {@link #stop(Phase, long)}. Measurements can be
+     * nested, but every start has to be followed by a stop.
+     * <br> Complexity O(1)
+     */
+    public long start() {
+        if (depth == measuredAtStart.length)
+            measuredAtStart = Arrays.copyOf(measuredAtStart, depth * 2);
+        measuredAtStart[depth++] = measured;
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops measuring the given phase, counting the time since the start minus the time of phases measured within.
+     * <br> Complexity O(1)
+     */
+    public void stop(Phase phase, long start) {
+        var elapsed = System.nanoTime() - start;
+        var nested = measured - measuredAtStart[--depth];
+        var exclusive = elapsed - nested;
+
+        measured += exclusive;
+        if (inIteration)
+            phaseTimes[phase.ordinal()] += exclusive;
+    }
+
+    public void countMove(MoveType type, double area) {
+        moveCounts[type.ordinal()]++;
+        areaDisplaced += area;
+    }
+
+    public void countRemovedVertex() {
+        verticesRemoved++;
+    }
+
+    public void endIteration() {
+        var time = System.nanoTime() - iterationStart;
+        inIteration = false;
+        iterations++;
+
+        totalTime += time;
+        timeHistogram.add(time);
+        for (int i = 0; i < phases.length; i++) {
+            totalPhaseTimes[i] += phaseTimes[i];
+            phaseHistograms[i].add(phaseTimes[i]);
+        }
+        for (int i = 0; i < moveTypes.length; i++) {
+            totalMoveCounts[i] += moveCounts[i];
+        }
+        totalVerticesRemoved += verticesRemoved;
+        verticesHistogram.add(verticesRemoved);
+        totalAreaDisplaced += areaDisplaced;
+        areaHistogram.add(areaDisplaced);
+
+        if (keepIterations)
+            keep(runs - 1, time, phaseTimes, moveCounts, verticesRemoved, areaDisplaced);
+    }
+
+    private void keep(int run, long time, long[] phaseTimes, int[] moveCounts, int vertices, double area) {
+        if (kept == iterationTimes.length) {
+            var capacity = Math.max(16, kept * 2);
+            iterationRuns = Arrays.copyOf(iterationRuns, capacity);
+            iterationTimes = Arrays.copyOf(iterationTimes, capacity);
+            iterationPhaseTimes = Arrays.copyOf(iterationPhaseTimes, capacity * phases.length);
+            iterationMoveCounts = Arrays.copyOf(iterationMoveCounts, capacity * moveTypes.length);
+            iterationVertices = Arrays.copyOf(iterationVertices, capacity);
+            iterationAreas = Arrays.copyOf(iterationAreas, capacity);
+        }
+
+        iterationRuns[kept] = run;
+        iterationTimes[kept] = time;
+        System.arraycopy(phaseTimes, 0, iterationPhaseTimes, kept * phases.length, phases.length);
+        System.arraycopy(moveCounts, 0, iterationMoveCounts, kept * moveTypes.length, moveTypes.length);
+        iterationVertices[kept] = vertices;
+        iterationAreas[kept] = area;
+        kept++;
+    }
+
+    /**
+     * Adds the measurements of another simplification to these, as a separate run.
+     * <br> Complexity O(k) for k kept iterations of the other simplification
+     */
+    public void merge(SimplificationMetrics other) {
+        iterations += other.iterations;
+        totalTime += other.totalTime;
+        timeHistogram.merge(other.timeHistogram);
+        for (int i = 0; i < phases.length; i++) {
+            totalPhaseTimes[i] += other.totalPhaseTimes[i];
+            phaseHistograms[i].merge(other.phaseHistograms[i]);
+        }
+        for (int i = 0; i < moveTypes.length; i++) {
+            totalMoveCounts[i] += other.totalMoveCounts[i];
+        }
+        totalVerticesRemoved += other.totalVerticesRemoved;
+        verticesHistogram.merge(other.verticesHistogram);
+        totalAreaDisplaced += other.totalAreaDisplaced;
+        areaHistogram.merge(other.areaHistogram);
+
+        if (keepIterations) {
+            var phaseTimes = new long[phases.length];
+            var moveCounts = new int[moveTypes.length];
+            for (int i = 0; i < other.kept; i++) {
+                System.arraycopy(other.iterationPhaseTimes, i * phases.length, phaseTimes, 0, phases.length);
+                System.arraycopy(other.iterationMoveCounts, i * moveTypes.length, moveCounts, 0, moveTypes.length);
+                keep(runs + other.iterationRuns[i], other.iterationTimes[i], phaseTimes, moveCounts, other.iterationVertices[i], other.iterationAreas[i]);
+            }
+        }
+        runs += other.runs;
+    }
+    //endregion
+
+    //region Queries
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    public long getTotalTime(Phase phase) {
+        return totalPhaseTimes[phase.ordinal()];
+    }
+
+    public long getMoveCount(MoveType type) {
+        return totalMoveCounts[type.ordinal()];
+    }
+
+    public long getVerticesRemoved() {
+        return totalVerticesRemoved;
+    }
+
+    public double getAreaDisplaced() {
+        return totalAreaDisplaced;
+    }
+
+    public Histogram getTimeHistogram() {
+        return timeHistogram;
+    }
+
+    public Histogram getHistogram(Phase phase) {
+        return phaseHistograms[phase.ordinal()];
+    }
+
+    public Histogram getVerticesHistogram() {
+        return verticesHistogram;
+    }
+
+    public Histogram getAreaHistogram() {
+        return areaHistogram;
+    }
+
+    /**
+     * Returns the number of kept iterations, which can be less than the number of iterations if they were not kept.
+     */
+    public int getKeptIterations() {
+        return kept;
+    }
+
+    public long getIterationTime(int iteration, Phase phase) {
+        return iterationPhaseTimes[iteration * phases.length + phase.ordinal()];
+    }
+    //endregion
+
+    //region Export
+
+    /**
+     * Writes the totals and histograms as a JSON object.
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"runs\": " + runs + ",\n");
+        writer.write("  \"iterations\": " + iterations + ",\n");
+        writer.write("  \"totalNanos\": " + totalTime + ",\n");
+        writer.write("  \"verticesRemoved\": " + totalVerticesRemoved + ",\n");
+        writer.write("  \"areaDisplaced\": " + number(totalAreaDisplaced) + ",\n");
+
+        writer.write("  \"phaseNanos\": {");
+        for (int i = 0; i < phases.length; i++) {
+            writer.write((i > 0 ? ", " : "") + "\"" + phases[i] + "\": " + totalPhaseTimes[i]);
+        }
+        writer.write("},\n");
+
+        writer.write("  \"moves\": {");
+        for (int i = 0; i < moveTypes.length; i++) {
+            writer.write((i > 0 ? ", " : "") + "\"" + moveTypes[i] + "\": " + totalMoveCounts[i]);
+        }
+        writer.write("},\n");
+
+        writer.write("  \"histograms\": {\n");
+        writer.write("    \"iterationNanos\": " + timeHistogram.toJson() + ",\n");
+        for (int i = 0; i < phases.length; i++) {
+            writer.write("    \"" + phases[i] + "Nanos\": " + phaseHistograms[i].toJson() + ",\n");
+        }
+        writer.write("    \"verticesRemoved\": " + verticesHistogram.toJson() + ",\n");
+        writer.write("    \"areaDisplaced\": " + areaHistogram.toJson() + "\n");
+        writer.write("  }\n");
+        writer.write("}\n");
+        writer.flush();
+    }
+
+    /**
+     * Writes the kept iterations as CSV, one row per iteration with the time of every phase in nanoseconds.
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("run,iteration,totalNanos");
+        for (var phase : phases) {
+            writer.write("," + phase + "Nanos");
+        }
+        writer.write(",verticesRemoved,areaDisplaced");
+        for (var type : moveTypes) {
+            writer.write("," + type + "Moves");
+        }
+        writer.write("\n");
+
+        var iteration = 0;
+        for (int i = 0; i < kept; i++) {
+            iteration = i > 0 && iterationRuns[i] == iterationRuns[i - 1] ? iteration + 1 : 0;
+
+            var row = new StringBuilder();
+            row.append(iterationRuns[i]).append(',').append(iteration).append(',').append(iterationTimes[i]);
+            for (int p = 0; p < phases.length; p++) {
+                row.append(',').append(iterationPhaseTimes[i * phases.length + p]);
+            }
+            row.append(',').append(iterationVertices[i]).append(',').append(number(iterationAreas[i]));
+            for (int t = 0; t < moveTypes.length; t++) {
+                row.append(',').append(iterationMoveCounts[i * moveTypes.length + t]);
+            }
+            writer.write(row.append('\n').toString());
+        }
+        writer.flush();
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+    //endregion
+
+    /**
+     * Histogram with buckets for every power of two, from 2^{@link #minExponent} upwards. Values below the smallest
+     * bucket, including zero, are counted in it.
+     */
+    public static class Histogram {
+        public static final int minExponent = -32;
+        private static final int bucketCount = 64 - minExponent;
+
+        private final long[] buckets = new long[bucketCount];
+        private long count = 0;
+        private double sum = 0;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        public void add(double value) {
+            buckets[bucket(value)]++;
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        public void merge(Histogram other) {
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] += other.buckets[i];
+            }
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        public void reset() {
+            Arrays.fill(buckets, 0);
+            count = 0;
+            sum = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+        }
+
+        private static int bucket(double value) {
+            if (!(value >= Math.scalb(1.0, minExponent)))
+                return 0;
+            return Math.min(bucketCount - 1, Math.getExponent(value) - minExponent);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count > 0 ? sum / count : 0;
+        }
+
+        public double getMin() {
+            return count > 0 ? min : 0;
+        }
+
+        public double getMax() {
+            return count > 0 ? max : 0;
+        }
+
+        /**
+         * Returns an upper bound of the given percentile (between 0 and 100): the upper end of the bucket it falls in.
+         */
+        public double getPercentile(double percentile) {
+            if (count == 0)
+                return 0;
+
+            var target = Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < bucketCount; i++) {
+                seen += buckets[i];
+                if (seen >= target && seen > 0)
+                    return Math.min(max, Math.scalb(1.0, i + minExponent + 1));
+            }
+            return max;
+        }
+
+        private static String lowerBound(int bucket) {
+            var exponent = bucket + minExponent;
+            // 2^63 does not fit in a long
+            return exponent >= 0 && exponent <= 62 ? Long.toString(1L << exponent) : Double.toString(Math.scalb(1.0, exponent));
+        }
+
+        private String toJson() {
+            var json = new StringBuilder();
+            json.append("{\"count\": ").append(count)
+                    .append(", \"mean\": ").append(number(getMean()))
+                    .append(", \"min\": ").append(number(getMin()))
+                    .append(", \"max\": ").append(number(getMax()))
+                    .append(", \"p50\": ").append(number(getPercentile(50)))
+                    .append(", \"p90\": ").append(number(getPercentile(90)))
+                    .append(", \"p99\": ").append(number(getPercentile(99)))
+                    .append(", \"buckets\": {");
+
+            var first = true;
+            for (int i = 0; i < bucketCount; i++) {
+                if (buckets[i] == 0)
+                    continue;
+                // Keyed by the lower end of the bucket
+                json.append(first ? "" : ", ").append('"').append(i == 0 ? "0" : lowerBound(i)).append("\": ").append(buckets[i]);
+                first = false;
+            }
+            return json.append("}}").toString();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package thesis.simplification;
+
+import thesis.Checks;
+import thesis.OrientationSet;
+import thesis.simplification.SimplificationMetrics.Phase;
+import thesis.simplification.deciders.IDecider;
+import thesis.simplification.events.IterationEvent;
+import thesis.ui.ProgressDialog;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simplification of a single polygon, owning its state, statistics and decider.
+ * <br> Sessions share nothing with each other, so different polygons can be simplified on different threads at the
+ * same time. A single session should only be used by one thread at a time.
+ */
+public class SimplificationSession {
+
+    private static final boolean checkFaceAreas = SimplificationSession.class.desiredAssertionStatus();
+
+    public final SimplificationData data;
+
+    private IDecider decider;
+    private String deciderType;
+
+    public SimplificationSession(SimplificationData data) {
+        this.data = data;
+    }
+
+    public SimplificationSession(Polygon polygon, OrientationSet orientations) {
+        this(new SimplificationData(polygon.clone(), orientations));
+    }
+
+    public SimplificationStatistics getStatistics() {
+        return data.statistics;
+    }
+
+    public SimplificationMetrics getMetrics() {
+        return data.metrics;
+    }
+
+    public void init(Polygon polygon, ProgressDialog dialog) {
+        data.init(polygon.clone(), dialog);
+    }
+
+    /**
+     * Starts simplifying a polygon with holes, given as its clockwise outer ring followed by its counter-clockwise
+     * holes.
+     */
+    public void init(List<Polygon> rings, ProgressDialog dialog) {
+        var clones = new ArrayList<Polygon>(rings.size());
+        for (var ring : rings) {
+            clones.add(ring.clone());
+        }
+        data.init(clones, dialog);
+    }
+
+    /**
+     * Starts simplifying all faces of a subdivision together, keeping their shared boundaries identical.
+     */
+    public void init(Subdivision subdivision, ProgressDialog dialog) {
+        data.init(subdivision, dialog);
+    }
+
+    /**
+     * Continues the simplification that was stored in the given checkpoint.
+     */
+    public void restore(SimplificationCheckpoint checkpoint, ProgressDialog dialog) {
+        checkpoint.restore(data, dialog);
+    }
+
+    /**
+     * Returns the decider of this session, creating a new one whenever the decider type was changed.
+     */
+    public IDecider getDecider() {
+        if (!data.deciderType.equals(deciderType)) {
+            decider = IDecider.create(data.deciderType);
+            deciderType = data.deciderType;
+        }
+        return decider;
+    }
+
+    public boolean timedIteration() {
+        long start = System.currentTimeMillis();
+        var madeChanges = iteration();
+        long end = System.currentTimeMillis();
+        long duration = end - start;
+
+        var statistics = getStatistics();
+        statistics.totalTimeTaken += duration;
+        statistics.lastCycleTimeTaken = duration;
+        return madeChanges;
+    }
+
+    public boolean iteration() {
+        var event = new IterationEvent();
+        event.begin();
+        var verticesBefore = data.vertexCount();
+
+        var metrics = data.metrics;
+        metrics.beginIteration();
+
+        // Find moves
+        var deciderStart = metrics.start();
+        data.refreshRotationQueues();
+        var decider = getDecider();
+        var moves = data.batchSize > 1 ? Simplification.findBatch(data, decider) : new ArrayList<>(decider.findMoves(data));
+        var madeChanges = moves.size() > 0;
+        metrics.stop(Phase.DECIDER, deciderStart);
+
+        // Reset Debug values
+        var statistics = getStatistics();
+        statistics.totalIterations++;
+        statistics.totalMovesMade += moves.size();
+        statistics.lastCycleMovesMade = moves.size();
+        statistics.lastCycleAreaEffected = 0;
+        statistics.lastCycleVerticesRemoved = 0;
+
+        // Area preserving deciders have to keep the area of every face, checked when assertions are enabled
+        var faceAreas = checkFaceAreas && data.subdivision != null && decider.preservesArea()
+                ? data.subdivision.faceAreas(data.ring) : null;
+
+        // Apply found moves
+        var moveCount = moves.size();
+        while (moves.size() > 0) {
+            var move = moves.remove(0);
+            metrics.countMove(move.move.getType(), move.removeArea);
+            Simplification.applyMove(data, move);
+        }
+
+        assert faceAreas == null || Checks.sameAreas(faceAreas, data.subdivision.faceAreas(data.ring))
+                : "Face areas changed in iteration " + statistics.totalIterations;
+
+        metrics.endIteration();
+        if (data.history != null)
+            data.history.endIteration();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.decider = data.deciderType;
+            event.moves = moveCount;
+            event.verticesRemoved = verticesBefore - data.vertexCount();
+            event.verticesLeft = data.vertexCount();
+            event.commit();
+        }
+        return madeChanges;
+    }
+
+    /**
+     * Runs iterations until at most the given number of vertices is left, or no more moves can be found.
+     * Returns whether that number was reached.
+     */
+    public boolean runUntilLeft(int left) {
+        while (data.vertexCount() > left) {
+            if (!iteration())
+                return false;
+        }
+        return true;
+    }
+}
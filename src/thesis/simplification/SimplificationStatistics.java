@@ -0,0 +1,30 @@
+package thesis.simplification;
+
+/**
+ * Counters of a single simplification, kept per {@link SimplificationData} so multiple polygons can be simplified at
+ * the same time.
+ */
+public class SimplificationStatistics {
+
+    public int totalIterations = 0;
+
+    public int totalVerticesRemoved = 0;
+    public int lastCycleVerticesRemoved = 0;
+
+    public double totalAreaEffected = 0;
+    public double lastCycleAreaEffected = 0;
+
+    public int totalMovesMade = 0;
+    public int lastCycleMovesMade = 0;
+
+    public long totalTimeTaken = 0;
+    public long lastCycleTimeTaken = 0;
+
+    public void reset() {
+        totalIterations = 0;
+        totalVerticesRemoved = lastCycleVerticesRemoved = 0;
+        totalAreaEffected = lastCycleAreaEffected = 0;
+        totalMovesMade = lastCycleMovesMade = 0;
+        totalTimeTaken = lastCycleTimeTaken = 0;
+    }
+}
@@ -4,12 +4,14 @@ public class Staircase {
 
     public int start = -1;
     public int end = -1;
+    // Index of the first edge and number of edges of the ring the staircase is part of
+    public int offset = 0;
     public int listLength = -1;
     public boolean loops = false;
 
     public int length() {
         if (loops)
-            return end + 1 + (listLength - start);
+            return end - offset + 1 + (offset + listLength - start);
 
         return end - start + 1;
     }
@@ -0,0 +1,125 @@
+package thesis.simplification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps track of the staircases of a polygon while it is being simplified.
+ * <br> A staircase is a maximal run of edges that are neither convex nor reflex. Instead of the runs themselves only
+ * the handles of the convex and reflex edges that separate them are stored, so a changed or removed edge is patched in
+ * O(log n) and the staircase containing an edge is found between its neighbouring separators.
+ * Staircases never continue from one ring into another; staircases that wrap around the end of their ring are a
+ * single staircase marked as {@link Staircase#loops}.
+ */
+public class StaircaseIndex {
+
+    private final EdgeRing ring;
+    private final TreeSet<Integer> separators = new TreeSet<>();
+
+    public StaircaseIndex(EdgeRing ring, RingList<Configuration> configurations) {
+        this.ring = ring;
+
+        for (int i = 0, handle = ring.first(); i < ring.size(); i++, handle = ring.following(handle)) {
+            update(handle, configurations.getAt(handle));
+        }
+    }
+
+    /**
+     * Updates whether the edge of the given handle separates staircases, after its configuration was replaced.
+     * <br> Complexity O(log n)
+     */
+    public void update(int handle, Configuration configuration) {
+        if (configuration.isInnerConvex() || configuration.isInnerReflex())
+            separators.add(handle);
+        else
+            separators.remove(handle);
+    }
+
+    /**
+     * Removes the edge of the given handle, merging the staircases on either side if it separated them.
+     * <br> Complexity O(log n)
+     */
+    public void remove(int handle) {
+        separators.remove(handle);
+    }
+
+    /**
+     * Returns the staircase containing the edge at the given index, or null if that edge is convex or reflex.
+     * <br> Complexity O(log n)
+     */
+    public Staircase find(int index) {
+        var handle = ring.handleAt(index);
+        var separators = ringSeparators(ring.ringOf(handle));
+        if (separators.isEmpty() || separators.contains(handle))
+            return null;
+
+        var before = separators.lower(handle);
+        var after = separators.higher(handle);
+        return between(before != null ? before : separators.last(), after != null ? after : separators.first());
+    }
+
+    /**
+     * Returns all staircases of at least the given length, in polygon order.
+     * <br> Complexity O(k log n + r) for k convex and reflex edges and r rings
+     */
+    public List<Staircase> getStaircases(int minLength) {
+        var staircases = new ArrayList<Staircase>();
+        for (int r = 0; r < ring.ringCount(); r++) {
+            var separators = ringSeparators(r);
+            if (separators.isEmpty())
+                continue;
+
+            Integer previous = null;
+            for (var separator : separators) {
+                if (previous != null)
+                    addIfLongEnough(staircases, between(previous, separator), minLength);
+                previous = separator;
+            }
+
+            // The staircase from the last separator around to the first one
+            addIfLongEnough(staircases, between(separators.last(), separators.first()), minLength);
+        }
+        return staircases;
+    }
+
+    /**
+     * Returns the separators of the given ring, whose handles follow those of the rings before it.
+     * <br> Complexity O(1)
+     */
+    private NavigableSet<Integer> ringSeparators(int r) {
+        if (ring.ringCount() == 1)
+            return separators;
+
+        var first = ring.ringFirst(r);
+        if (first < 0)
+            return Collections.emptyNavigableSet();
+        return separators.subSet(first, true, ring.previous(first), true);
+    }
+
+    private void addIfLongEnough(List<Staircase> staircases, Staircase staircase, int minLength) {
+        if (staircase != null && staircase.length() >= minLength)
+            staircases.add(staircase);
+    }
+
+    private Staircase between(int before, int after) {
+        var r = ring.ringOf(before);
+        var size = ring.ringSize(r);
+        var offset = ring.indexOf(ring.ringFirst(r));
+        var beforeIndex = ring.indexOf(before) - offset;
+        var length = Math.floorMod(ring.indexOf(after) - offset - beforeIndex - 1, size);
+        if (length == 0)
+            return null;
+
+        var start = (beforeIndex + 1) % size;
+        var staircase = new Staircase();
+        staircase.offset = offset;
+        staircase.listLength = size;
+        staircase.start = offset + start;
+        staircase.end = offset + (start + length - 1) % size;
+        staircase.loops = start + length - 1 >= size;
+        return staircase;
+    }
+}
@@ -0,0 +1,365 @@
+package thesis.simplification;
+
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.util.DoubleUtil;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Subdivision of the plane into faces that share their boundaries, such as adjacent parcels, split into the chains
+ * between the vertices where three or more faces meet.
+ * <br> Faces are given as their outer ring followed by their holes, in any orientation; vertices are shared when they
+ * have exactly the same coordinates. Every chain is stored once and simplified as a ring of its own: open chains have
+ * their end vertices pinned, closed chains that pass through a single junction have that vertex pinned. Because all
+ * chains are in the same edge index, a move on a shared chain is blocked by the edges of both faces next to it, and
+ * because both faces are rebuilt from the same chain, shared boundaries stay identical.
+ * <br> Every chain runs the way the first face it bounds walks it, with its outer ring clockwise and its holes
+ * counter-clockwise, so that face is on its inner side and the other face, if any, on its outer side. A move on a
+ * chain moves area from one of these faces to the other. Moves that compensate each other are only combined on chains
+ * with the same faces on the same sides, see {@link #chainsWithSameSides(int)}, so area preserving deciders keep the area
+ * of every face.
+ * <br> The rings of the simplification are not the boundary of a single polygon, so no {@link DifferenceLedger} is kept
+ * for them.
+ */
+public class Subdivision {
+
+    private static final class Chain {
+        // Vertices of the chain as it was found, to recognise it from the other face, and the vertices that are kept
+        final List<Integer> found;
+        final List<Integer> vertices;
+        // Open chains run from one junction to another, closed chains form a ring of their own
+        final boolean open;
+        // Junction a closed chain passes through, or -1
+        final int pinned;
+        // Face on the inner side of the chain, which created it, and the face on its outer side, or -1 for none
+        final int inside;
+        int outside = -1;
+
+        Chain(List<Integer> found, List<Integer> vertices, boolean open, int pinned, int inside) {
+            this.found = found;
+            this.vertices = vertices;
+            this.open = open;
+            this.pinned = pinned;
+            this.inside = inside;
+        }
+    }
+
+    private final List<Vector> points = new ArrayList<>();
+    private final List<Chain> chains = new ArrayList<>();
+    // Chains of every ring of every face, as the chain index or its complement when the chain is walked backwards
+    private final List<List<int[]>> faces = new ArrayList<>();
+    // Chains with the same faces on the same sides as every chain, including itself
+    private final List<int[]> sameSides = new ArrayList<>();
+
+    private Subdivision() {
+    }
+
+    /**
+     * Splits the given faces into chains between junctions. Vertices that lie on a straight line in the middle of a
+     * chain are left out, the same as {@link thesis.Checks} does for single polygons.
+     * <br> Complexity O(n) expected for n vertices in all faces
+     */
+    public static Subdivision create(List<List<Polygon>> faces) {
+        var subdivision = new Subdivision();
+        var rings = subdivision.indexVertices(faces);
+
+        // Junctions are the vertices with other than two neighbours
+        var neighbours = new HashMap<Integer, List<Integer>>();
+        for (var face : rings) {
+            for (var ring : face) {
+                for (int i = 0; i < ring.length; i++) {
+                    addNeighbour(neighbours, ring[i], ring[(i + 1) % ring.length]);
+                    addNeighbour(neighbours, ring[(i + 1) % ring.length], ring[i]);
+                }
+            }
+        }
+
+        // Every edge belongs to exactly one chain, which is found again from the other face through any of its edges
+        var chainOfEdge = new HashMap<Long, Integer>();
+        for (int face = 0; face < rings.size(); face++) {
+            var chainRings = new ArrayList<int[]>(rings.get(face).size());
+            for (var ring : rings.get(face)) {
+                chainRings.add(subdivision.addChains(ring, face, neighbours, chainOfEdge));
+            }
+            subdivision.faces.add(chainRings);
+        }
+
+        var chainsBySides = new HashMap<Long, List<Integer>>();
+        for (int index = 0; index < subdivision.chains.size(); index++) {
+            var chain = subdivision.chains.get(index);
+            chainsBySides.computeIfAbsent(((long) chain.inside << 32) | (chain.outside + 1), key -> new ArrayList<>()).add(index);
+        }
+        for (var chain : subdivision.chains) {
+            var group = chainsBySides.get(((long) chain.inside << 32) | (chain.outside + 1));
+            subdivision.sameSides.add(group.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return subdivision;
+    }
+
+    private List<List<int[]>> indexVertices(List<List<Polygon>> faces) {
+        var indices = new HashMap<Coordinate, Integer>();
+        var rings = new ArrayList<List<int[]>>(faces.size());
+        for (var face : faces) {
+            var faceRings = new ArrayList<int[]>(face.size());
+            for (int i = 0; i < face.size(); i++) {
+                var polygon = face.get(i);
+                var ring = new ArrayList<Integer>(polygon.vertexCount());
+                for (var vertex : polygon.vertices()) {
+                    var index = indices.computeIfAbsent(new Coordinate(vertex.getX(), vertex.getY()), coordinate -> {
+                        points.add(vertex.clone());
+                        return points.size() - 1;
+                    });
+                    // Repeated vertices, including a closing vertex, add no edge
+                    if (ring.isEmpty() || ring.get(ring.size() - 1) != index.intValue())
+                        ring.add(index);
+                }
+                if (ring.size() > 1 && ring.get(0).equals(ring.get(ring.size() - 1)))
+                    ring.remove(ring.size() - 1);
+                if (ring.size() < 3)
+                    continue;
+
+                // The outer ring goes clockwise and the holes counter-clockwise, so the face is on the inner side of all
+                var clockwise = polygon.areaSigned() > 0;
+                if (clockwise != (i == 0))
+                    Collections.reverse(ring);
+                faceRings.add(ring.stream().mapToInt(Integer::intValue).toArray());
+            }
+            rings.add(faceRings);
+        }
+        return rings;
+    }
+
+    private static void addNeighbour(Map<Integer, List<Integer>> neighbours, int vertex, int neighbour) {
+        var list = neighbours.computeIfAbsent(vertex, key -> new ArrayList<>(2));
+        if (!list.contains(neighbour))
+            list.add(neighbour);
+    }
+
+    /**
+     * Returns the chains of the given ring in ring order, creating the chains that were not found through another face.
+     */
+    private int[] addChains(int[] ring, int face, Map<Integer, List<Integer>> neighbours, Map<Long, Integer> chainOfEdge) {
+        var start = -1;
+        for (int i = 0; i < ring.length && start < 0; i++) {
+            if (neighbours.get(ring[i]).size() != 2)
+                start = i;
+        }
+
+        if (start < 0) {
+            // A ring without junctions is a single closed chain
+            var chain = findOrAdd(ring, 0, ring.length, false, face, chainOfEdge);
+            return new int[]{chain};
+        }
+
+        // Walk once around the ring from the first junction, ending a chain at every junction
+        var result = new ArrayList<Integer>();
+        var pieceStart = 0;
+        for (int step = 1; step <= ring.length; step++) {
+            if (neighbours.get(ring[(start + step) % ring.length]).size() == 2)
+                continue;
+
+            result.add(findOrAdd(ring, (start + pieceStart) % ring.length, step - pieceStart, true, face, chainOfEdge));
+            pieceStart = step;
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the chain of the given edges of a ring of the given face, starting at the given position, as its index
+     * or its complement when the ring walks it backwards.
+     */
+    private int findOrAdd(int[] ring, int from, int edges, boolean fromJunction, int face, Map<Long, Integer> chainOfEdge) {
+        var first = ring[from];
+        var second = ring[(from + 1) % ring.length];
+        var existing = chainOfEdge.get(edgeKey(first, second));
+        if (existing != null) {
+            var chain = chains.get(existing);
+            if (chain.inside != face)
+                chain.outside = face;
+            var next = (chain.found.indexOf(first) + 1) % chain.found.size();
+            // Open chains do not continue from their last vertex to their first
+            var forward = chain.found.get(next) == second && (!chain.open || next > 0);
+            return forward ? existing : ~existing;
+        }
+
+        var vertices = new ArrayList<Integer>(edges + 1);
+        for (int i = 0; i <= edges; i++) {
+            vertices.add(ring[(from + i) % ring.length]);
+        }
+
+        // A chain from a junction back to the same junction is closed, but keeps that junction in place
+        var closed = !fromJunction || first == vertices.get(edges);
+        if (closed)
+            vertices.remove(vertices.size() - 1);
+        var pinned = fromJunction ? first : -1;
+        var chain = new Chain(vertices, removeStraightVertices(vertices, closed, pinned), !closed, pinned, face);
+
+        var index = chains.size();
+        chains.add(chain);
+        for (int i = 0; i < edges; i++) {
+            chainOfEdge.put(edgeKey(ring[(from + i) % ring.length], ring[(from + i + 1) % ring.length]), index);
+        }
+        return index;
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    /**
+     * Leaves out the vertices of the chain whose edges continue in the same or the opposite direction, except for
+     * its junctions.
+     * <br> Complexity O(k) for k vertices in the chain
+     */
+    private List<Integer> removeStraightVertices(List<Integer> vertices, boolean closed, int pinned) {
+        var result = new ArrayList<Integer>(vertices.size());
+        for (var vertex : vertices) {
+            // Check the last kept vertex against the one before it and the new vertex, the first vertex is kept
+            while (result.size() >= 2 && isStraight(result.get(result.size() - 2), result.get(result.size() - 1), vertex)) {
+                result.remove(result.size() - 1);
+            }
+            result.add(vertex);
+        }
+        if (!closed)
+            return result;
+
+        // Closed chains continue from their last vertex to their first
+        while (result.size() > 3 && isStraight(result.get(result.size() - 2), result.get(result.size() - 1), result.get(0))) {
+            result.remove(result.size() - 1);
+        }
+        while (pinned < 0 && result.size() > 3 && isStraight(result.get(result.size() - 1), result.get(0), result.get(1))) {
+            result.remove(0);
+        }
+        return result;
+    }
+
+    private boolean isStraight(int a, int b, int c) {
+        var pa = points.get(a);
+        var pb = points.get(b);
+        var pc = points.get(c);
+        var cross = Vector.crossProduct(Vector.subtract(pb, pa), Vector.subtract(pc, pb));
+        return DoubleUtil.close(cross, 0);
+    }
+
+    public int faceCount() {
+        return faces.size();
+    }
+
+    public int chainCount() {
+        return chains.size();
+    }
+
+    /**
+     * Returns the chains, in ascending order and including the given chain, that have the same face on their inner side
+     * and the same face on their outer side as the given chain. A move on any of them changes the areas of the same
+     * faces as a move of the same type on the given chain.
+     * <br> Complexity O(1)
+     */
+    public int[] chainsWithSameSides(int chain) {
+        return sameSides.get(chain);
+    }
+
+    /**
+     * Returns every chain as a ring of its vertices, in the order of the rings of {@link #prepare(EdgeRing)}.
+     */
+    public List<Polygon> getChains() {
+        var rings = new ArrayList<Polygon>(chains.size());
+        for (var chain : chains) {
+            var polygon = new Polygon();
+            for (var vertex : chain.vertices) {
+                polygon.addVertex(points.get(vertex).clone());
+            }
+            rings.add(polygon);
+        }
+        return rings;
+    }
+
+    /**
+     * Opens and pins the chains in an edge ring created from {@link #getChains()}.
+     * <br> Complexity O(c) for c chains
+     */
+    public void prepare(EdgeRing ring) {
+        assert ring.ringCount() == chains.size() : ring.ringCount() + " != " + chains.size();
+
+        for (int index = 0; index < chains.size(); index++) {
+            var chain = chains.get(index);
+            if (chain.open)
+                ring.open(index);
+            else if (chain.pinned >= 0)
+                ring.pin(ring.ringStart(index));
+        }
+    }
+
+    /**
+     * Rebuilds every face from the current vertices of its chains in the given ring, as its outer ring followed by
+     * its holes.
+     * <br> Complexity O(n) for n vertices in all faces
+     */
+    public List<List<Polygon>> getFaces(EdgeRing ring) {
+        var result = new ArrayList<List<Polygon>>(faces.size());
+        for (var face : faces) {
+            var polygons = new ArrayList<Polygon>(face.size());
+            for (var chainRing : face) {
+                var polygon = new Polygon();
+                for (var reference : chainRing) {
+                    addChain(ring, reference, polygon);
+                }
+                polygons.add(polygon);
+            }
+            result.add(polygons);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the area of every face, rebuilt from the current vertices of its chains in the given ring, without the
+     * area of its holes.
+     * <br> Complexity O(n) for n vertices in all faces
+     */
+    public double[] faceAreas(EdgeRing ring) {
+        var faces = getFaces(ring);
+        var areas = new double[faces.size()];
+        for (int face = 0; face < faces.size(); face++) {
+            // Holes go counter-clockwise, so their signed area is subtracted
+            for (var polygon : faces.get(face)) {
+                areas[face] += polygon.areaSigned();
+            }
+        }
+        return areas;
+    }
+
+    /**
+     * Adds the vertices of the referenced chain to the polygon, leaving out its last vertex for open chains as that is
+     * the first vertex of the next chain.
+     */
+    private void addChain(EdgeRing ring, int reference, Polygon polygon) {
+        var index = reference < 0 ? ~reference : reference;
+        var chain = chains.get(index);
+        var first = ring.ringFirst(index);
+        if (first < 0)
+            return;
+
+        // Pinned vertices are never removed, so the first vertex is still the one the chain started with
+        var handles = new ArrayList<Integer>(ring.ringSize(index));
+        for (int i = 0, handle = first; i < ring.ringSize(index); i++, handle = ring.next(handle)) {
+            handles.add(handle);
+        }
+        if (reference < 0) {
+            Collections.reverse(handles);
+            // Walked backwards a chain starts at its last vertex, or at its pinned vertex when it is closed
+            if (!chain.open)
+                Collections.rotate(handles, 1);
+        }
+
+        var count = chain.open ? handles.size() - 1 : handles.size();
+        for (int i = 0; i < count; i++) {
+            polygon.addVertex(ring.vertex(handles.get(i)));
+        }
+    }
+}
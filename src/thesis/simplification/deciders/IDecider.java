@@ -2,49 +2,116 @@ package thesis.simplification.deciders;
 
 import thesis.simplification.SimplificationData;
 import thesis.simplification.moves.Move;
+import thesis.simplification.moves.MoveQueue;
+import thesis.simplification.moves.MoveType;
 import thesis.simplification.moves.moving.NormalMove;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public abstract class IDecider {
 
-    public static Map<String, IDecider> deciders = Map.ofEntries(
-            Map.entry("0. Only Positive", new OnlyPositiveDecider()),
-            Map.entry("1. Only Negative", new OnlyNegativeDecider()),
-            Map.entry("2. Smallest Edge-Move", new SmallestSingleDecider()),
-            Map.entry("3. Minimal Pair", new MinimalPairDecider()),
-            Map.entry("4. Minimal Complementary Pair", new MinimalComplementaryPairDecider()),
-            Map.entry("5. Only Start/End Rotation", new OnlyStartEndRotationDecider()),
-            Map.entry("6. Only Middle Rotation", new OnlyMiddleRotationDecider()),
-            Map.entry("7. Only Compensating Rotation", new OnlyCompensatingRotationDecider()),
-            Map.entry("8. Minimal", new MinimalDecider())
+    public static final Map<String, Supplier<IDecider>> deciders = Map.ofEntries(
+            Map.entry("0. Only Positive", OnlyPositiveDecider::new),
+            Map.entry("1. Only Negative", OnlyNegativeDecider::new),
+            Map.entry("2. Smallest Edge-Move", SmallestSingleDecider::new),
+            Map.entry("3. Minimal Pair", MinimalPairDecider::new),
+            Map.entry("4. Minimal Complementary Pair", MinimalComplementaryPairDecider::new),
+            Map.entry("5. Only Start/End Rotation", OnlyStartEndRotationDecider::new),
+            Map.entry("6. Only Middle Rotation", OnlyMiddleRotationDecider::new),
+            Map.entry("7. Only Compensating Rotation", OnlyCompensatingRotationDecider::new),
+            Map.entry("8. Minimal", MinimalDecider::new)
     );
 
+    /**
+     * Creates a new decider of the given type, every simplification session uses its own.
+     */
+    public static IDecider create(String type) {
+        var decider = deciders.get(type);
+        if (decider == null)
+            throw new IllegalArgumentException("Unknown decider type: " + type);
+        return decider.get();
+    }
+
     public abstract List<Decision> findMoves(SimplificationData data);
 
-    protected <K extends Move> K findSmallest(List<K> moves) {
-        double minArea = Double.MAX_VALUE;
-        K min = null;
-        for (var move : moves) {
-            if (move.isValid()) {
-                var area = move.getAffectedArea();
-                if (area < minArea) {
-                    min = move;
-                    minArea = area;
-                }
+    /**
+     * Returns whether every group of moves this decider returns keeps the area of the polygon, and of every face of a
+     * subdivision.
+     */
+    public boolean preservesArea() {
+        return false;
+    }
+
+    /**
+     * Returns the valid move with the smallest affected area.
+     * <br> Complexity O(1)
+     */
+    protected <K extends Move> K findSmallest(MoveQueue<K> moves) {
+        return moves.peek();
+    }
+
+    /**
+     * Returns the smallest normal move together with the move that compensates it, or nothing if it cannot be
+     * compensated. In a subdivision a move can only be compensated on the chains between the same faces, so there
+     * the next smallest moves are tried until one can be compensated.
+     * <br> Complexity O(k (m + log n)) for k tried moves and m candidate compensators per move
+     */
+    protected List<Decision> findNormalPair(SimplificationData data) {
+        var suspended = new ArrayList<NormalMove>();
+        try {
+            while (true) {
+                var min = getSmallest(findSmallest(data.positiveQueue), findSmallest(data.negativeQueue));
+                if (min == null)
+                    return Collections.emptyList();
+
+                var compensation = findCompensator(data, min, min.configuration.handle);
+                if (compensation != null)
+                    return List.of(new Decision(min.configuration, min), compensation);
+                if (data.subdivision == null)
+                    return Collections.emptyList();
+
+                // Leave the move out of its queue while looking further
+                queueOf(data, min).suspend(min.configuration.handle);
+                suspended.add(min);
+            }
+        } finally {
+            for (var move : suspended) {
+                queueOf(data, move).update(move.configuration.handle);
             }
         }
-        return min;
     }
 
-    protected Decision findCompensator(SimplificationData data, Move move, int index) {
+    private static MoveQueue<? extends NormalMove> queueOf(SimplificationData data, NormalMove move) {
+        return move.getType() == MoveType.POSITIVE ? data.positiveQueue : data.negativeQueue;
+    }
+
+    /**
+     * Returns the smallest valid normal move in the opposite direction of the given move that does not collide with it
+     * and affects at least the area the given move has to be compensated with, or nothing if there is none. In a
+     * subdivision only the moves on the chains between the same faces are considered.
+     * <br> Complexity O((c + 1) log n) for c colliding moves, O(k) for k moves on those chains in a subdivision
+     */
+    protected Decision findCompensator(SimplificationData data, Move move, int handle) {
         double area = move.getCompensationArea();
+        if (data.subdivision == null) {
+            // The queue gives the moves by increasing area, so the first that fits is the smallest
+            var queue = area > 0 ? data.negativeQueue : data.positiveQueue;
+            for (NormalMove m : queue.from(Math.abs(area))) {
+                if (m.isValid() && !m.configuration.isColliding(move.configuration))
+                    return new Decision(m.configuration, m, Math.abs(area));
+            }
+            return null;
+        }
+
         var moves = area > 0 ? data.negativeMoves : data.positiveMoves;
 
         double minArea = Double.MAX_VALUE;
         NormalMove smallest = null;
-        for (var m : moves) {
+        for (var m : data.compensators(moves, handle)) {
             if (m.isValid()) {
                 var a = m.getAffectedArea();
                 if (a < minArea && a >= Math.abs(area)
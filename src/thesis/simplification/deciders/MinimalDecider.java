@@ -7,6 +7,11 @@ import java.util.List;
 
 public class MinimalDecider extends IDecider {
 
+    @Override
+    public boolean preservesArea() {
+        return true;
+    }
+
     @Override
     public List<Decision> findMoves(SimplificationData data) {
         var bestRotation = findRotation(data);
@@ -26,32 +31,16 @@ public class MinimalDecider extends IDecider {
         return bestNormalPair;
     }
 
-    public List<Decision> findNormalPair(SimplificationData data) {
-        var minPositive = findSmallest(data.positiveMoves);
-        var minNegative = findSmallest(data.negativeMoves);
-        var min = getSmallest(minPositive, minNegative);
-
-        if (min == null)
-            return Collections.emptyList();
-
-        var compensation = findCompensator(data, min, min.configuration.index);
-
-        if (compensation == null)
-            return Collections.emptyList();
-
-        return List.of(new Decision(min.configuration, min), compensation);
-    }
-
     private List<Decision> findPairMove(SimplificationData data) {
-        var bestPositive = findSmallest(data.positivePairMoves);
-        var bestNegative = findSmallest(data.negativePairMoves);
+        var bestPositive = findSmallest(data.positivePairQueue);
+        var bestNegative = findSmallest(data.negativePairQueue);
         var smallest = getSmallest(bestPositive, bestNegative);
 
         return smallest != null ? Collections.singletonList(new Decision(smallest.configuration, smallest, smallest.getAffectedArea(), false)) : Collections.emptyList();
     }
 
     private List<Decision> findRotation(SimplificationData data) {
-        var min = findSmallest(data.compensatingRotationMoves);
+        var min = findSmallest(data.compensatingRotationQueue);
 
         if (min == null)
             return Collections.emptyList();
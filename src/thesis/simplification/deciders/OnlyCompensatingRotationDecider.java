@@ -8,9 +8,14 @@ import java.util.List;
 
 public class OnlyCompensatingRotationDecider extends IDecider {
 
+    @Override
+    public boolean preservesArea() {
+        return true;
+    }
+
     @Override
     public List<Decision> findMoves(SimplificationData data) {
-        RotationMove min = findSmallest(data.compensatingRotationMoves);
+        RotationMove min = findSmallest(data.compensatingRotationQueue);
 
         if (min == null)
             return Collections.emptyList();
@@ -10,7 +10,7 @@ public class OnlyMiddleRotationDecider extends IDecider {
 
     @Override
     public List<Decision> findMoves(SimplificationData data) {
-        RotationMove min = findSmallest(data.middleRotationMoves);
+        RotationMove min = findSmallest(data.middleRotationQueue);
 
         if (min == null)
             return Collections.emptyList();
@@ -18,7 +18,7 @@ public class OnlyMiddleRotationDecider extends IDecider {
         if (!data.compensateSingleMoves)
             return Collections.singletonList(new Decision(min.configuration, min));
 
-        var compensation = findCompensator(data, min, min.configuration.index);
+        var compensation = findCompensator(data, min, min.configuration.handle);
         return List.of(new Decision(min.configuration, min), compensation);
     }
 }
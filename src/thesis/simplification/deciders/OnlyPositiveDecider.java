@@ -9,7 +9,7 @@ public class OnlyPositiveDecider extends IDecider {
 
     @Override
     public List<Decision> findMoves(SimplificationData data) {
-        var min = findSmallest(data.positiveMoves);
+        var min = findSmallest(data.positiveQueue);
 
         if (min == null)
             return Collections.emptyList();
@@ -17,7 +17,7 @@ public class OnlyPositiveDecider extends IDecider {
         if (!data.compensateSingleMoves)
             return Collections.singletonList(new Decision(min.configuration, min));
 
-        var compensation = findCompensator(data, min, min.configuration.index);
+        var compensation = findCompensator(data, min, min.configuration.handle);
         return List.of(new Decision(min.configuration, min), compensation);
 
     }
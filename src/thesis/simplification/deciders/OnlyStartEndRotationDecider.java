@@ -9,8 +9,8 @@ public class OnlyStartEndRotationDecider extends IDecider {
 
     @Override
     public List<Decision> findMoves(SimplificationData data) {
-        var smallestStart = findSmallest(data.startRotationMoves);
-        var smallestEnd = findSmallest(data.endRotationMoves);
+        var smallestStart = findSmallest(data.startRotationQueue);
+        var smallestEnd = findSmallest(data.endRotationQueue);
         var min = getSmallest(smallestStart, smallestEnd);
 
         if (min == null)
@@ -19,7 +19,7 @@ public class OnlyStartEndRotationDecider extends IDecider {
         if (!data.compensateSingleMoves)
             return Collections.singletonList(new Decision(min.configuration, min));
 
-        var compensation = findCompensator(data, min, min.configuration.index);
+        var compensation = findCompensator(data, min, min.configuration.handle);
         return List.of(new Decision(min.configuration, min), compensation);
     }
 }
@@ -9,8 +9,8 @@ public class SmallestSingleDecider extends IDecider {
 
     @Override
     public List<Decision> findMoves(SimplificationData data) {
-        var smallestPositive = findSmallest(data.positiveMoves);
-        var smallestNegative = findSmallest(data.negativeMoves);
+        var smallestPositive = findSmallest(data.positiveQueue);
+        var smallestNegative = findSmallest(data.negativeQueue);
         var smallest = getSmallest(smallestNegative, smallestPositive);
 
         return smallest != null ? Collections.singletonList(new Decision(smallest.configuration, smallest)) : Collections.emptyList();
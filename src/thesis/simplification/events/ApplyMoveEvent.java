@@ -0,0 +1,33 @@
+package thesis.simplification.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for applying a single move, including the cleanup around it.
+ */
+@Name("thesis.simplification.ApplyMove")
+@Label("Apply Move")
+@Category({"Thesis", "Simplification"})
+@Description("Applying a move and cleaning up the configurations and moves around it")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ApplyMoveEvent extends jdk.jfr.Event {
+
+    @Label("Move Type")
+    public String moveType;
+
+    @Label("Area")
+    public double area;
+
+    @Label("Handle")
+    @Description("Original index of the vertex the move was applied to")
+    public int handle;
+
+    @Label("Requires Cleanup")
+    public boolean requiresCleanup;
+}
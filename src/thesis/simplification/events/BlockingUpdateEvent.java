@@ -0,0 +1,29 @@
+package thesis.simplification.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for updating the blocking edges of the moves near a move.
+ */
+@Name("thesis.simplification.BlockingUpdate")
+@Label("Blocking Update")
+@Category({"Thesis", "Simplification"})
+@Description("Updating the blocking edges of moves near the edges a move changed")
+@Threshold("1 ms")
+@StackTrace(false)
+public class BlockingUpdateEvent extends jdk.jfr.Event {
+
+    @Label("Changed Edges")
+    public int changedEdges;
+
+    @Label("Removed Edges")
+    public int removedEdges;
+
+    @Label("Handles Visited")
+    public int handlesVisited;
+}
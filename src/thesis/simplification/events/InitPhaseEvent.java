@@ -0,0 +1,29 @@
+package thesis.simplification.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a single phase of initialising a simplification, such as creating all moves of one type.
+ */
+@Name("thesis.simplification.InitPhase")
+@Label("Simplification Init Phase")
+@Category({"Thesis", "Simplification"})
+@Description("One phase of initialising the configurations, moves and indices of a simplification")
+@Threshold("1 ms")
+@StackTrace(false)
+public class InitPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Threaded")
+    public boolean threaded;
+}
@@ -0,0 +1,32 @@
+package thesis.simplification.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a single iteration of a simplification, from finding its moves to their cleanup.
+ */
+@Name("thesis.simplification.Iteration")
+@Label("Simplification Iteration")
+@Category({"Thesis", "Simplification"})
+@Description("Finding and applying the moves of one iteration")
+@Threshold("10 ms")
+@StackTrace(false)
+public class IterationEvent extends jdk.jfr.Event {
+
+    @Label("Decider")
+    public String decider;
+
+    @Label("Moves")
+    public int moves;
+
+    @Label("Vertices Removed")
+    public int verticesRemoved;
+
+    @Label("Vertices Left")
+    public int verticesLeft;
+}
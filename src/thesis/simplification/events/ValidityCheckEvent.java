@@ -0,0 +1,26 @@
+package thesis.simplification.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for removing the vertices that became invalid after a move.
+ */
+@Name("thesis.simplification.ValidityCheck")
+@Label("Validity Check")
+@Category({"Thesis", "Simplification"})
+@Description("Removing vertices around a move that became invalid")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ValidityCheckEvent extends jdk.jfr.Event {
+
+    @Label("Checked")
+    public int checked;
+
+    @Label("Removed")
+    public int removed;
+}
@@ -0,0 +1,285 @@
+package thesis.simplification.moves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Indexed binary min-heap over the valid moves of a move list, keyed by {@link Move#getAffectedArea()}.
+ * <br> Every move is stored under the handle of the vertex it belongs to. Handles are assigned in polygon order and
+ * vertices are only ever removed, so breaking ties on the handle gives the same move as a scan over the move list.
+ * <br> The area of a move is cached when it is added or updated, {@link #update(int)} has to be called whenever the
+ * validity or area of a move changes.
+ * <br> An ordered queue also keeps its moves sorted by area, so {@link #from(double)} finds the smallest move of at
+ * least a given area without scanning all moves.
+ */
+public class MoveQueue<K extends Move> {
+
+    private final List<K> moves;
+    private final double[] keys;
+    private final int[] heap;
+    private final int[] positions;
+    private int size = 0;
+
+    // Moves sorted by area and handle, only kept by ordered queues. Suspended moves stay in here.
+    private final TreeSet<Entry> ordered;
+    private final Entry[] entries;
+
+    private record Entry(double key, int handle) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            if (key != other.key)
+                return key < other.key ? -1 : 1;
+            return Integer.compare(handle, other.handle);
+        }
+    }
+
+    public MoveQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    public MoveQueue(int capacity, boolean ordered) {
+        this.moves = new ArrayList<>(capacity);
+        for (int handle = 0; handle < capacity; handle++) {
+            moves.add(null);
+        }
+        this.keys = new double[capacity];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        this.ordered = ordered ? new TreeSet<>() : null;
+        this.entries = ordered ? new Entry[capacity] : null;
+    }
+
+    /**
+     * Creates a queue for the given moves, using their list index as handle.
+     * <br> Complexity O(n)
+     */
+    public MoveQueue(List<? extends K> moves) {
+        this(moves, false);
+    }
+
+    /**
+     * Creates a queue for the given moves, using their list index as handle, that also keeps them sorted by area if
+     * ordered is set.
+     * <br> Complexity O(n), or O(n log n) if ordered
+     */
+    public MoveQueue(List<? extends K> moves, boolean ordered) {
+        this(moves.size(), ordered);
+        for (int handle = 0; handle < moves.size(); handle++) {
+            this.moves.set(handle, moves.get(handle));
+        }
+        rebuild();
+    }
+
+    /**
+     * Returns the smallest valid move, or null if there is none.
+     * <br> Complexity O(1)
+     */
+    public K peek() {
+        return size > 0 ? moves.get(heap[0]) : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int handle) {
+        return positions[handle] >= 0;
+    }
+
+    public K get(int handle) {
+        return moves.get(handle);
+    }
+
+    /**
+     * Returns the moves of this ordered queue with an area of at least the given area, smallest area first and ties in
+     * handle order. Suspended moves are included, they are only left out of {@link #peek()}.
+     * <br> Complexity O(log n) to start, O(log n) per move
+     */
+    public Iterable<K> from(double area) {
+        assert ordered != null : "Queue is not ordered";
+        var tail = ordered.tailSet(new Entry(area, -1));
+        return () -> new Iterator<>() {
+            private final Iterator<Entry> entries = tail.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public K next() {
+                return moves.get(entries.next().handle);
+            }
+        };
+    }
+
+    /**
+     * Replaces the move stored under the given handle.
+     * <br> Complexity O(log n)
+     */
+    public void set(int handle, K move) {
+        moves.set(handle, move);
+        update(handle);
+    }
+
+    /**
+     * Reevaluates the validity and area of the move stored under the given handle.
+     * <br> Complexity O(log n)
+     */
+    public void update(int handle) {
+        var move = moves.get(handle);
+        if (!isCandidate(move)) {
+            dequeue(handle);
+            unorder(handle);
+            return;
+        }
+
+        var key = move.getAffectedArea();
+        order(handle, key);
+        var position = positions[handle];
+        if (position < 0) {
+            keys[handle] = key;
+            heap[size] = handle;
+            positions[handle] = size;
+            size++;
+            siftUp(size - 1);
+        } else if (key != keys[handle]) {
+            keys[handle] = key;
+            siftUp(position);
+            siftDown(positions[handle]);
+        }
+    }
+
+    /**
+     * Takes the move stored under the given handle out of the queue while keeping it, until {@link #update(int)} is
+     * called for the handle again.
+     * <br> Complexity O(log n)
+     */
+    public void suspend(int handle) {
+        dequeue(handle);
+    }
+
+    /**
+     * Removes the move stored under the given handle.
+     * <br> Complexity O(log n)
+     */
+    public void remove(int handle) {
+        dequeue(handle);
+        unorder(handle);
+        moves.set(handle, null);
+    }
+
+    /**
+     * Reevaluates every move and restores the heap from scratch.
+     * <br> Complexity O(n), or O(n log n) if ordered
+     */
+    public void rebuild() {
+        Arrays.fill(positions, -1);
+        size = 0;
+        if (ordered != null) {
+            ordered.clear();
+            Arrays.fill(entries, null);
+        }
+        for (int handle = 0; handle < moves.size(); handle++) {
+            var move = moves.get(handle);
+            if (isCandidate(move)) {
+                keys[handle] = move.getAffectedArea();
+                heap[size] = handle;
+                positions[handle] = size;
+                size++;
+                order(handle, keys[handle]);
+            }
+        }
+
+        for (int position = size / 2 - 1; position >= 0; position--) {
+            siftDown(position);
+        }
+    }
+
+    private boolean isCandidate(K move) {
+        // Same filter as a linear scan for the smallest move, which also skips NaN and unbounded areas
+        return move != null && move.isValid() && move.getAffectedArea() < Double.MAX_VALUE;
+    }
+
+    private void order(int handle, double key) {
+        if (ordered == null)
+            return;
+
+        var entry = entries[handle];
+        if (entry != null && entry.key == key)
+            return;
+        if (entry != null)
+            ordered.remove(entry);
+        entries[handle] = new Entry(key, handle);
+        ordered.add(entries[handle]);
+    }
+
+    private void unorder(int handle) {
+        if (ordered == null || entries[handle] == null)
+            return;
+
+        ordered.remove(entries[handle]);
+        entries[handle] = null;
+    }
+
+    private void dequeue(int handle) {
+        var position = positions[handle];
+        if (position < 0) return;
+
+        size--;
+        positions[handle] = -1;
+        if (position == size) return;
+
+        var last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftUp(position);
+        siftDown(positions[last]);
+    }
+
+    private boolean less(int handleA, int handleB) {
+        if (keys[handleA] != keys[handleB])
+            return keys[handleA] < keys[handleB];
+        return handleA < handleB;
+    }
+
+    private void siftUp(int position) {
+        var handle = heap[position];
+        while (position > 0) {
+            var parent = (position - 1) / 2;
+            if (!less(handle, heap[parent]))
+                break;
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = handle;
+        positions[handle] = position;
+    }
+
+    private void siftDown(int position) {
+        var handle = heap[position];
+        while (true) {
+            var child = 2 * position + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && less(heap[child + 1], heap[child]))
+                child++;
+            if (!less(heap[child], handle))
+                break;
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = handle;
+        positions[handle] = position;
+    }
+}
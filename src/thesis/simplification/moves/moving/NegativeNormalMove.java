@@ -1,15 +1,15 @@
 package thesis.simplification.moves.moving;
 
 import thesis.simplification.Configuration;
+import thesis.simplification.EdgeIndex;
 import thesis.simplification.moves.MoveType;
 import nl.tue.geometrycore.geometry.Vector;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
-import nl.tue.geometrycore.geometry.linear.Polygon;
 
 public class NegativeNormalMove extends NormalMove {
 
-    public NegativeNormalMove(Configuration configuration, Polygon polygon) {
-        super(configuration, polygon);
+    public NegativeNormalMove(Configuration configuration, EdgeIndex edges) {
+        super(configuration, edges);
     }
 
     @Override
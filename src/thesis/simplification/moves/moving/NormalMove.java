@@ -2,11 +2,13 @@ package thesis.simplification.moves.moving;
 
 import thesis.Util;
 import thesis.simplification.Configuration;
+import thesis.simplification.EdgeIndex;
 import thesis.simplification.moves.Move;
 import nl.tue.geometrycore.geometry.Vector;
 import nl.tue.geometrycore.geometry.linear.Line;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
 import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
 import nl.tue.geometrycore.util.DoubleUtil;
 
 import java.util.ArrayList;
@@ -15,7 +17,6 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static thesis.Util.extendLine;
-import static thesis.Util.undirectedEquals;
 
 public abstract class NormalMove extends Move {
 
@@ -23,15 +24,18 @@ public abstract class NormalMove extends Move {
     protected final Vector direction;
     protected double distance;
 
-    protected List<LineSegment> blockingEdges;
+    protected final EdgeIndex edges;
+    protected List<Integer> blockingEdges;
 
-    public NormalMove(Configuration configuration, Polygon polygon) {
+    public NormalMove(Configuration configuration, EdgeIndex edges) {
         super(configuration);
+        this.edges = edges;
         this.distance = calculateDistance();
         this.direction = calculateDirection();
-        this.contraction = calculateContraction();
+        // Moving the inner edge moves both its vertices
+        this.contraction = configuration.isFixed() ? null : calculateContraction();
 
-        this.blockingEdges = calculateBlockingVectors(polygon, contraction);
+        this.blockingEdges = calculateBlockingVectors(edges, contraction);
     }
 
     @Override
@@ -77,8 +81,12 @@ public abstract class NormalMove extends Move {
         return blockingEdges.size();
     }
 
+    /**
+     * Returns the current edges blocking this move.
+     * <br> Complexity O(k) for k blocking edges
+     */
     public List<LineSegment> getBlockingEdges() {
-        return blockingEdges;
+        return blockingEdges.stream().map(edges::edge).collect(Collectors.toList());
     }
 
     public List<Vector> getBoundary() {
@@ -116,7 +124,7 @@ public abstract class NormalMove extends Move {
         if (DoubleUtil.close(removeArea, getArea()))
             return contraction;
         if (removeArea > getArea() || removeArea < 0)
-            throw new IllegalArgumentException("removeArea out of possible move bounds [0, " + getArea() + "]: " + removeArea + " at index " + configuration.index);
+            throw new IllegalArgumentException("removeArea out of possible move bounds [0, " + getArea() + "]: " + removeArea + " at index " + configuration.getIndex());
 
         var inner = configuration.inner;
         var innerLength = inner.length();
@@ -135,7 +143,7 @@ public abstract class NormalMove extends Move {
                // + "\n       " + configuration.previous.getStart() + configuration.previous.getEnd() + configuration.next.getStart() + configuration.next.getEnd()
                // + "\n       " + configuration.previous.length() + " " + configuration.next.length()
                 + "\n       " + contraction
-                + "\n       index: " + configuration.index
+                + "\n       index: " + configuration.getIndex()
                 + "\n       " + configuration.wasInvalidated()
                 + "\n       " + configuration.inner;
 
@@ -282,34 +290,98 @@ public abstract class NormalMove extends Move {
 
     /**
      * Find all blocking vectors for this contraction.
-     * <br> Complexity O(n)
+     * <br> Complexity O(k) for k edges near the contraction area
      */
-    protected List<LineSegment> calculateBlockingVectors(Polygon polygon, LineSegment outer) {
+    protected List<Integer> calculateBlockingVectors(EdgeIndex edgeIndex, LineSegment outer) {
         if (outer == null)
             return new ArrayList<>();
 
         var boundary = getBoundary();
         var contractionArea = getContractionArea(outer);
 
-        var edges = new ArrayList<LineSegment>();
-        polygon.edges().forEach(edge -> {
+        var blocking = new ArrayList<Integer>();
+        edgeIndex.query(contractionArea).forEach(edge -> {
             if (isBlocking(contractionArea, boundary, edge))
-                edges.add(edge);
+                blocking.add(edge);
         });
 
-        return edges;
+        return blocking;
     }
     //endregion initialization calculations
 
-    public boolean isBlocking(Polygon contractionArea, List<Vector> boundary, LineSegment edge) {
-        if (undirectedEquals(edge, configuration.previous) || undirectedEquals(edge, configuration.inner) || undirectedEquals(edge, configuration.next))
+    /**
+     * Returns the bounding box of the area swept by the full contraction, or null if there is no contraction.
+     * <br> Complexity O(1)
+     */
+    public Rectangle getContractionBounds() {
+        if (contraction == null)
+            return null;
+
+        var bounds = new Rectangle();
+        includeContractionBounds(bounds);
+        return bounds;
+    }
+
+    /**
+     * Extends the given bounding box by the area swept by the full contraction, if there is one.
+     * <br> Complexity O(1), without allocating
+     */
+    public void includeContractionBounds(Rectangle bounds) {
+        if (contraction == null)
+            return;
+
+        var inner = configuration.inner;
+        bounds.include(inner.getStart().getX(), inner.getStart().getY());
+        bounds.include(inner.getEnd().getX(), inner.getEnd().getY());
+        bounds.include(contraction.getStart().getX(), contraction.getStart().getY());
+        bounds.include(contraction.getEnd().getX(), contraction.getEnd().getY());
+    }
+
+    /**
+     * Returns whether any of the given edges comes near the area swept by the full contraction, based on bounding
+     * boxes. Every partial contraction lies within this area as well. Edges that were removed since are skipped.
+     * <br> Complexity O(k) for k edges
+     */
+    public boolean isNearContraction(List<Integer> changed) {
+        for (int i = 0; i < changed.size(); i++) {
+            if (isNearContraction(changed.get(i)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the edge with the given handle comes near the area swept by the full contraction, based on
+     * bounding boxes. Edges that are not near can not block this move, nor any partial contraction of it.
+     * <br> Complexity O(1), without allocating
+     */
+    public boolean isNearContraction(int edge) {
+        if (contraction == null || !edges.contains(edge))
             return false;
 
-        var intersection = contractionArea.intersect(edge);
+        var inner = configuration.inner;
+        var minX = Math.min(Math.min(inner.getStart().getX(), inner.getEnd().getX()), Math.min(contraction.getStart().getX(), contraction.getEnd().getX()));
+        var maxX = Math.max(Math.max(inner.getStart().getX(), inner.getEnd().getX()), Math.max(contraction.getStart().getX(), contraction.getEnd().getX()));
+        var minY = Math.min(Math.min(inner.getStart().getY(), inner.getEnd().getY()), Math.min(contraction.getStart().getY(), contraction.getEnd().getY()));
+        var maxY = Math.max(Math.max(inner.getStart().getY(), inner.getEnd().getY()), Math.max(contraction.getStart().getY(), contraction.getEnd().getY()));
+        return Util.overlapsBoundingBox(edges.edge(edge), minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Returns whether the edge with the given handle blocks the given contraction area. The edges of the configuration
+     * itself never block, and neither do edges that have been removed.
+     */
+    public boolean isBlocking(Polygon contractionArea, List<Vector> boundary, int edge) {
+        if (edge == configuration.previousEdge || edge == configuration.handle || edge == configuration.nextEdge)
+            return false;
+        if (!edges.contains(edge))
+            return false;
+
+        var intersection = contractionArea.intersect(edges.edge(edge));
 
         for (var geo : intersection) {
             if (geo instanceof Vector) {
-                if (boundary.stream().noneMatch(bound -> bound.isApproximately((Vector) geo)))
+                if (!isApproximatelyAny((Vector) geo, boundary))
                     return true;
             } else if (geo instanceof LineSegment) {
                 return true;
@@ -318,22 +390,41 @@ public abstract class NormalMove extends Move {
         return false;
     }
 
-    public void updateBlockingVectors(List<LineSegment> removed, List<LineSegment> changed) {
+    private static boolean isApproximatelyAny(Vector point, List<Vector> vectors) {
+        for (int i = 0; i < vectors.size(); i++) {
+            if (vectors.get(i).isApproximately(point))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the blocking edges after the given edges changed. Removed edges no longer block and blocking edges that
+     * moved are checked again against their current position.
+     * <br> Complexity O(k + m) for k blocking edges and m changed edges
+     */
+    public void updateBlockingVectors(List<Integer> changed) {
         if (!this.hasContraction()) return;
+        // Without blocking edges only a changed edge near the contraction can make a difference
+        if (blockingEdges.isEmpty() && !isNearContraction(changed)) return;
 
         var boundary = getBoundary();
         var contractionArea = getContractionArea(contraction);
 
-        blockingEdges = blockingEdges.stream().filter(edge -> {
-            if (removed.stream().anyMatch(removedEdge -> undirectedEquals(removedEdge, edge)))
-                return false;
-
-            return isBlocking(contractionArea, boundary, edge);
-        }).collect(Collectors.toList());
+        // Filter in place, the list is owned by this move
+        var kept = 0;
+        for (int i = 0; i < blockingEdges.size(); i++) {
+            var edge = blockingEdges.get(i);
+            if (isBlocking(contractionArea, boundary, edge))
+                blockingEdges.set(kept++, edge);
+        }
+        blockingEdges.subList(kept, blockingEdges.size()).clear();
 
-        changed.forEach(changedEdge -> {
-            if (isBlocking(contractionArea, boundary, changedEdge))
+        for (int i = 0; i < changed.size(); i++) {
+            var changedEdge = changed.get(i);
+            if (isNearContraction(changedEdge.intValue()) && !blockingEdges.contains(changedEdge)
+                    && isBlocking(contractionArea, boundary, changedEdge))
                 blockingEdges.add(changedEdge);
-        });
+        }
     }
 }
@@ -1,21 +1,18 @@
 package thesis.simplification.moves.moving;
 
 import thesis.simplification.Configuration;
+import thesis.simplification.EdgeIndex;
 import thesis.simplification.Simplification;
 import thesis.simplification.SimplificationData;
 import thesis.simplification.deciders.Decision;
 import thesis.simplification.moves.Move;
 import thesis.simplification.moves.MoveType;
 import nl.tue.geometrycore.geometry.Vector;
-import nl.tue.geometrycore.geometry.linear.LineSegment;
-import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
 import nl.tue.geometrycore.util.DoubleUtil;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static thesis.Util.undirectedEquals;
 
 public class PairNormalMove extends Move {
 
@@ -27,7 +24,7 @@ public class PairNormalMove extends Move {
     protected boolean isValid;
     protected double area;
 
-    protected List<LineSegment> blockingEdges;
+    protected List<Integer> blockingEdges;
 
     public PairNormalMove(SimplificationData data, Configuration configuration, boolean invalid) {
         super(configuration);
@@ -50,11 +47,12 @@ public class PairNormalMove extends Move {
         this.pairedMove = pairedMove;
 
         this.isValid = calculateValidity();
+        this.blockingEdges = Collections.emptyList();
         if (isValid)
             calculateArea();
         // calculateArea can invalidate
         if (isValid && area > 0)
-            this.blockingEdges = calculateBlockingVectors(data.polygon);
+            this.blockingEdges = calculateBlockingVectors(data.edgeIndex);
     }
 
 
@@ -88,14 +86,16 @@ public class PairNormalMove extends Move {
         var decision = new Decision(configuration, move, area, true);
         Simplification.applyMove(data, decision);
 
-        var newPairedConfiguration = data.configurations.get(pairedConfiguration.index);
+        // The first move can remove the paired vertex, clean up around the vertex that took its place instead
+        var pairedHandle = data.ring.successor(pairedConfiguration.handle);
+        var newPairedConfiguration = data.configurations.getAt(pairedHandle);
         var pairedDecision = new Decision(newPairedConfiguration, pairedMove, area, true);
         Simplification.applyMove(data, pairedDecision);
     }
 
     private boolean calculateValidity() {
         // The two configurations should share an edge
-        var sharedEdge = undirectedEquals(configuration.next, pairedConfiguration.previous);
+        var sharedEdge = configuration.nextEdge == pairedConfiguration.previousEdge;
 
         // The shared edge cannot be completely convex or reflex
         var validReflexivity = (configuration.isEndReflex() && pairedConfiguration.isStartConvex())
@@ -164,16 +164,49 @@ public class PairNormalMove extends Move {
 
     /**
      * Find all blocking vectors for this contraction.
-     * <br> Complexity O(n)
+     * <br> Complexity O(k) for k edges near the contraction areas
      */
-    protected List<LineSegment> calculateBlockingVectors(Polygon polygon) {
-        var edges = move.calculateBlockingVectors(polygon, move.getForArea(area));
-        edges.addAll(pairedMove.calculateBlockingVectors(polygon, pairedMove.getForArea(area)));
+    protected List<Integer> calculateBlockingVectors(EdgeIndex edgeIndex) {
+        var edges = move.calculateBlockingVectors(edgeIndex, move.getForArea(area));
+        edges.addAll(pairedMove.calculateBlockingVectors(edgeIndex, pairedMove.getForArea(area)));
         return edges;
     }
 
-    public void updateBlockingVectors(List<LineSegment> removed, List<LineSegment> changed) {
+    /**
+     * Returns the bounding box of the areas swept by both full contractions, or null if this pair is invalid.
+     * Both partial contractions of this pair lie within it.
+     * <br> Complexity O(1)
+     */
+    public Rectangle getContractionBounds() {
+        if (!this.isValid)
+            return null;
+
+        var bounds = new Rectangle();
+        includeContractionBounds(bounds);
+        return bounds;
+    }
+
+    /**
+     * Extends the given bounding box by the areas swept by both full contractions, if this pair is valid.
+     * <br> Complexity O(1), without allocating
+     */
+    public void includeContractionBounds(Rectangle bounds) {
+        if (!this.isValid)
+            return;
+
+        move.includeContractionBounds(bounds);
+        pairedMove.includeContractionBounds(bounds);
+    }
+
+    /**
+     * Updates the blocking edges of both moves after the given edges changed.
+     * <br> Complexity O(k + m) for k blocking edges and m changed edges
+     */
+    public void updateBlockingVectors(List<Integer> changed) {
         if (!this.isValid) return;
+        // Both partial contractions lie within the full contractions, which are cheap to check against
+        if (blockingEdges.isEmpty() && !move.isNearContraction(changed) && !pairedMove.isNearContraction(changed))
+            return;
 
         var outer = move.getForArea(area);
         var contractionArea = move.getContractionArea(outer);
@@ -183,24 +216,28 @@ public class PairNormalMove extends Move {
         var pairedContractionArea = pairedMove.getContractionArea(pairedOuter);
         var pairedBoundary = pairedMove.getBoundary();
 
-        blockingEdges = blockingEdges.stream().filter(edge -> {
-            if (removed.stream().anyMatch(removedEdge -> undirectedEquals(removedEdge, edge)))
-                return false;
-
-            if (move.isBlocking(contractionArea, boundary, edge))
-                return true;
-            if (pairedMove.isBlocking(pairedContractionArea, pairedBoundary, edge))
-                return true;
+        // Filter in place, a valid pair owns its list
+        var kept = 0;
+        for (int i = 0; i < blockingEdges.size(); i++) {
+            var edge = blockingEdges.get(i);
+            if (move.isBlocking(contractionArea, boundary, edge)
+                    || pairedMove.isBlocking(pairedContractionArea, pairedBoundary, edge))
+                blockingEdges.set(kept++, edge);
+        }
+        blockingEdges.subList(kept, blockingEdges.size()).clear();
 
-            return false;
-        }).collect(Collectors.toList());
+        for (int i = 0; i < changed.size(); i++) {
+            var changedEdge = changed.get(i);
+            if (blockingEdges.contains(changedEdge))
+                continue;
 
-        changed.forEach(changedEdge -> {
-            if (move.isBlocking(contractionArea, boundary, changedEdge))
+            if (move.isNearContraction(changedEdge.intValue())
+                    && move.isBlocking(contractionArea, boundary, changedEdge))
                 blockingEdges.add(changedEdge);
-            else if (pairedMove.isBlocking(pairedContractionArea, pairedBoundary, changedEdge))
+            else if (pairedMove.isNearContraction(changedEdge.intValue())
+                    && pairedMove.isBlocking(pairedContractionArea, pairedBoundary, changedEdge))
                 blockingEdges.add(changedEdge);
-        });
+        }
     }
     //endregion Blocking Vectors
 
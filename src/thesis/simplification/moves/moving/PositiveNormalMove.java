@@ -1,15 +1,15 @@
 package thesis.simplification.moves.moving;
 
 import thesis.simplification.Configuration;
+import thesis.simplification.EdgeIndex;
 import thesis.simplification.moves.MoveType;
 import nl.tue.geometrycore.geometry.Vector;
-import nl.tue.geometrycore.geometry.linear.Polygon;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
 
 public class PositiveNormalMove extends NormalMove {
 
-    public PositiveNormalMove(Configuration configuration, Polygon polygon) {
-        super(configuration, polygon);
+    public PositiveNormalMove(Configuration configuration, EdgeIndex edges) {
+        super(configuration, edges);
     }
 
     @Override
@@ -10,6 +10,11 @@ public class CompensatingRotationMove extends RotationMove {
 
     public CompensatingRotationMove(SimplificationData data, Configuration configuration, OrientationSet orientations) {
         super(data, configuration, orientations);
+
+        // The rotation point can end up at an end of the inner edge, all area is then on one side and nothing is
+        // compensated. A subdivision has to keep the area of every face, a single polygon keeps such rotations.
+        if (data.subdivision != null && rotation != null && Math.abs(getCompensationArea()) > area / 2)
+            rotation = null;
     }
 
     @Override
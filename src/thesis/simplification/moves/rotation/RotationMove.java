@@ -1,6 +1,7 @@
 package thesis.simplification.moves.rotation;
 
 import thesis.OrientationSet;
+import thesis.Util;
 import thesis.simplification.Configuration;
 import thesis.simplification.SimplificationData;
 import thesis.simplification.moves.Move;
@@ -8,7 +9,6 @@ import thesis.simplification.moves.MoveType;
 import nl.tue.geometrycore.geometry.Vector;
 import nl.tue.geometrycore.geometry.linear.Line;
 import nl.tue.geometrycore.geometry.linear.LineSegment;
-import nl.tue.geometrycore.geometry.linear.Polygon;
 import nl.tue.geometrycore.util.DoubleUtil;
 
 public abstract class RotationMove extends Move {
@@ -27,7 +27,7 @@ public abstract class RotationMove extends Move {
         this.data = data;
         this.orientations = orientations;
 
-        if (this.configuration.isInnerReflex() || this.configuration.isInnerConvex()) {
+        if (this.configuration.isInnerReflex() || this.configuration.isInnerConvex() || this.configuration.isFixed()) {
             return;
         }
 
@@ -57,16 +57,13 @@ public abstract class RotationMove extends Move {
     }
 
     private boolean isLimited() {
-        return configuration.index % (data.rotationDistance + 1) > 0;
+        return data.rotationDistance > 0 && configuration.getIndex() % (data.rotationDistance + 1) > 0;
     }
 
     @Override
     public double getCompensationArea() {
-        var prevTriangle = new Polygon(rotationPoint, configuration.previous.getEnd(), rotation.getStart());
-        var nextTriangle = new Polygon(rotationPoint, configuration.next.getStart(), rotation.getEnd());
-
-        var prevArea = prevTriangle.areaUnsigned();
-        var nextArea = nextTriangle.areaUnsigned();
+        var prevArea = Util.triangleArea(rotationPoint, configuration.previous.getEnd(), rotation.getStart());
+        var nextArea = Util.triangleArea(rotationPoint, configuration.next.getStart(), rotation.getEnd());
 
         var prevPoint = new LineSegment(rotation.getStart(), rotationPoint).getPointAlongPerimeter(0.5);
         var nextPoint = new LineSegment(rotationPoint, rotation.getEnd()).getPointAlongPerimeter(0.5);
@@ -107,13 +104,13 @@ public abstract class RotationMove extends Move {
         LineSegment largestRotation = null;
         Vector largestRotationPoint = null;
 
+        var innerDirection = configuration.inner.getDirection();
+        innerDirection.normalize();
+
         for (OrientationSet.Orientation orientation : orientations) {
             direction = orientation.getDirection();
-
-            var innerDirection = configuration.inner.getDirection();
-            innerDirection.normalize();
             direction.normalize();
-            if (innerDirection.isApproximately(direction) || innerDirection.isApproximately(Vector.multiply(-1, direction)))
+            if (innerDirection.isApproximately(direction) || isOpposite(innerDirection, direction))
                 continue;
 
             var rotationPoint = getRotationPoint(orientation);
@@ -160,9 +157,14 @@ public abstract class RotationMove extends Move {
     protected abstract Vector getRotationPoint(OrientationSet.Orientation orientation);
 
     private double calculateArea(LineSegment rotation, Vector rotationPoint) {
-        var prevTriangle = new Polygon(rotationPoint, configuration.previous.getEnd(), rotation.getStart());
-        var nextTriangle = new Polygon(rotationPoint, configuration.next.getStart(), rotation.getEnd());
-        return prevTriangle.areaUnsigned() + nextTriangle.areaUnsigned();
+        return Util.triangleArea(rotationPoint, configuration.previous.getEnd(), rotation.getStart())
+                + Util.triangleArea(rotationPoint, configuration.next.getStart(), rotation.getEnd());
+    }
+
+    // Same as comparing with the negated direction through Vector.isApproximately, without allocating it
+    private static boolean isOpposite(Vector a, Vector b) {
+        return DoubleUtil.close(a.getX(), -1 * b.getX(), DoubleUtil.EPS)
+                && DoubleUtil.close(a.getY(), -1 * b.getY(), DoubleUtil.EPS);
     }
 
 }
@@ -36,8 +36,8 @@ public class DrawPanel extends GeometryPanel {
         if (data.schematization != null && data.schematization.vertexCount() > 0)
             draw(data.schematization);
 
-        if (data.simplificationData.polygon != null && data.original != null && (data.simplificationData.polygon.vertexCount() < data.original.vertexCount() || Simplification.totalMovesMade > 0))
-            draw(data.simplificationData.polygon);
+        if (data.simplificationData.getPolygon() != null && data.original != null && (data.simplificationData.vertexCount() < data.original.vertexCount() || data.simplificationData.statistics.totalMovesMade > 0))
+            draw(data.simplificationData.getPolygon());
 
         if (data.copyMode)
             return;
@@ -77,7 +77,7 @@ public class DrawPanel extends GeometryPanel {
     @Override
     public Rectangle getBoundingRectangle() {
         //return Rectangle.byBoundingBox(data.geometries);
-        return Rectangle.byBoundingBox(Arrays.asList(data.original, data.simplificationData.polygon, data.schematization));
+        return Rectangle.byBoundingBox(Arrays.asList(data.original, data.simplificationData.getPolygon(), data.schematization));
     }
 
     @Override
@@ -4,6 +4,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ProgressDialog {
 
@@ -11,8 +13,9 @@ public class ProgressDialog {
     private JProgressBar progressBar;
     private JLabel label;
 
-    private int maxProgress = 500;
-    private int progress = 0;
+    private volatile int maxProgress = 500;
+    private final AtomicInteger progress = new AtomicInteger();
+    private final AtomicBoolean updateQueued = new AtomicBoolean();
     public boolean canceled;
 
     public ProgressDialog(JFrame frame) {
@@ -42,8 +45,10 @@ public class ProgressDialog {
     }
 
     public void show() {
-        progressBar.setMaximum(maxProgress);
-        progressBar.setValue(0);
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setMaximum(maxProgress);
+            progressBar.setValue(0);
+        });
         Thread dialogThread = new Thread(() -> {
             dialog.setVisible(true);
         });
@@ -54,23 +59,41 @@ public class ProgressDialog {
         dialog.setVisible(false);
     }
 
+    /**
+     * Shows the current progress. Progress is increased from the simplification threads, but Swing components may
+     * only be changed on the event dispatch thread, so the update is queued there. Only one update is queued at a
+     * time, as it shows the progress of when it runs.
+     */
     public void update() {
+        if (updateQueued.compareAndSet(false, true))
+            SwingUtilities.invokeLater(this::refresh);
+    }
+
+    private void refresh() {
+        updateQueued.set(false);
+        var progress = this.progress.get();
+        var maxProgress = this.maxProgress;
+        progressBar.setMaximum(maxProgress);
         progressBar.setValue(progress);
         label.setText("Progress: " + progress + "/" + maxProgress);
         progressBar.repaint();
     }
 
     public void setProgress(int progress) {
-        this.progress = progress;
+        this.progress.set(progress);
         update();
     }
 
+    /**
+     * Increases the progress, can be called from multiple threads at once.
+     */
     public void increaseProgress(int increase) {
-        setProgress(progress + increase);
+        progress.addAndGet(increase);
+        update();
     }
 
     public void setMaxProgress(int maxProgress) {
         this.maxProgress = maxProgress;
-        progressBar.setMaximum(maxProgress);
+        update();
     }
 }
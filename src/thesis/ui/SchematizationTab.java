@@ -63,6 +63,8 @@ public class SchematizationTab {
         tab.addButton("Run Algorithm [r]", (e -> data.runSchematizationAlgorithm()));
         tab.addButton("Finish Algorithm [f]", (e -> data.finishSchematizationAlgorithm()));
         tab.addButton("Use As Input", (e -> data.setAsInputSimplificationAlgorithm()));
+
+        tab.addCheckbox("Run Threaded", data.schematizationThreaded, (e, b) -> data.schematizationThreaded = b);
     }
 
     private void addDebugDrawOptionsSection() {
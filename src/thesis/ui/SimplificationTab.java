@@ -94,7 +94,7 @@ public class SimplificationTab {
         }));
 
         tab.addButton("Calculate Symmetric Difference", (e -> {
-            Simplification.calculateSymmetricDifference(data, data.simplificationData.polygon);
+            Simplification.calculateSymmetricDifference(data, data.simplificationData.getPolygon());
             data.draw.repaint();
             this.repaint();
         }));
@@ -141,7 +141,6 @@ public class SimplificationTab {
         var label = tab.addLabel("Minimal staircase size: " + data.simplificationData.minStaircaseSize );
         tab.addIntegerSlider(data.simplificationData.minStaircaseSize, 1, 50, (changeEvent, integer) -> {
             data.simplificationData.minStaircaseSize = integer;
-            data.simplificationData.recalculateStaircases();
             label.setText("Minimal staircase size: " + data.simplificationData.minStaircaseSize );
             data.draw.repaint();
         });
@@ -153,6 +152,12 @@ public class SimplificationTab {
             data.draw.repaint();
         });
 
+        var label3 = tab.addLabel("Moves per cycle: " + data.simplificationData.batchSize);
+        tab.addIntegerSlider(data.simplificationData.batchSize, 1, 100, (changeEvent, integer) -> {
+            data.simplificationData.batchSize = integer;
+            label3.setText("Moves per cycle: " + data.simplificationData.batchSize);
+        });
+
     }
 
 
@@ -263,7 +268,7 @@ public class SimplificationTab {
     }
 
     public void repaint() {
-        var polygon = data.simplificationData.polygon;
+        var polygon = data.simplificationData.getPolygon();
 
         vertexCountLabel.setNewValue(polygon != null ? polygon.vertexCount() : 0);
         edgeCountLabel.setNewValue(polygon != null ? polygon.edgeCount() : 0);
@@ -273,16 +278,18 @@ public class SimplificationTab {
     }
 
     public void repaintAlgorithmInformation() {
-        totalRemovedVertexCountLabel.setNewValue(Simplification.totalVerticesRemoved);
-        lastCycleRemovedVertexCountLabel.setNewValue(Simplification.lastCycleVerticesRemoved);
+        var statistics = data.simplificationData.statistics;
+
+        totalRemovedVertexCountLabel.setNewValue(statistics.totalVerticesRemoved);
+        lastCycleRemovedVertexCountLabel.setNewValue(statistics.lastCycleVerticesRemoved);
 
-        totalEffectedAreaLabel.setNewValue(Simplification.totalAreaEffected);
-        lastCycleEffectedAreaLabel.setNewValue(Simplification.lastCycleAreaEffected);
+        totalEffectedAreaLabel.setNewValue(statistics.totalAreaEffected);
+        lastCycleEffectedAreaLabel.setNewValue(statistics.lastCycleAreaEffected);
 
-        totalMovesMadeLabel.setNewValue(Simplification.totalMovesMade);
-        lastCycleMovesMadeLabel.setNewValue(Simplification.lastCycleMovesMade);
+        totalMovesMadeLabel.setNewValue(statistics.totalMovesMade);
+        lastCycleMovesMadeLabel.setNewValue(statistics.lastCycleMovesMade);
 
-        totalTimeTakenLabel.setNewValue(Simplification.totalTimeTaken);
-        lastCycleTimeTakenLabel.setNewValue(Simplification.lastCycleTimeTaken);
+        totalTimeTakenLabel.setNewValue(statistics.totalTimeTaken);
+        lastCycleTimeTakenLabel.setNewValue(statistics.lastCycleTimeTaken);
     }
 }
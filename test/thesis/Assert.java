@@ -0,0 +1,55 @@
+package thesis;
+
+import java.util.Objects;
+
+/**
+ * Assertions for tests, failing with an {@link AssertionError} describing the difference.
+ */
+public class Assert {
+
+    /**
+     * Code that is expected to throw, which may throw checked exceptions as well.
+     */
+    public interface Executable {
+        void execute() throws Throwable;
+    }
+
+    public static void fail(String message) {
+        throw new AssertionError(message);
+    }
+
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition)
+            fail(message);
+    }
+
+    public static void assertFalse(boolean condition, String message) {
+        assertTrue(!condition, message);
+    }
+
+    public static void assertEquals(Object expected, Object actual) {
+        if (!Objects.equals(expected, actual))
+            fail("Expected " + expected + " but was " + actual);
+    }
+
+    public static void assertEquals(long expected, long actual) {
+        if (expected != actual)
+            fail("Expected " + expected + " but was " + actual);
+    }
+
+    public static void assertEquals(double expected, double actual, double tolerance) {
+        if (!(Math.abs(expected - actual) <= tolerance))
+            fail("Expected " + expected + " but was " + actual + " (tolerance " + tolerance + ")");
+    }
+
+    public static void assertThrows(Class<? extends Throwable> type, Executable executable) {
+        try {
+            executable.execute();
+        } catch (Throwable throwable) {
+            if (type.isInstance(throwable))
+                return;
+            fail("Expected " + type.getSimpleName() + " but " + throwable + " was thrown");
+        }
+        fail("Expected " + type.getSimpleName() + " but nothing was thrown");
+    }
+}
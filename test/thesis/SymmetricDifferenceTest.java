@@ -0,0 +1,83 @@
+package thesis;
+
+import thesis.generation.PolygonGenerator;
+import thesis.simplification.SimplificationData;
+import thesis.simplification.SimplificationSession;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import static thesis.Assert.*;
+
+public class SymmetricDifferenceTest {
+
+    private static Polygon generate(String shape, long seed) {
+        var generator = new PolygonGenerator(seed);
+        generator.slopeVariation = 10;
+        generator.stepSizeVariation = 200;
+        var polygon = generator.generate(shape, 2000);
+        Checks.runAll(polygon);
+        return polygon;
+    }
+
+    private static Polygon simplify(Polygon polygon) {
+        var orientations = new OrientationSet();
+        for (var degree : new double[]{0, 45, 90, 135}) {
+            orientations.addOrientationDegrees(degree);
+        }
+        var data = new SimplificationData(new Polygon(), orientations);
+        data.deciderType = "2. Smallest Edge-Move";
+        data.runThreaded = false;
+        var session = new SimplificationSession(data);
+        session.init(polygon, null);
+        session.runUntilLeft(polygon.vertexCount() / 2);
+        return data.getPolygon();
+    }
+
+    private static void assertTiledMatches(Polygon polygon, Polygon original) {
+        var exact = SymmetricDifference.calculate(polygon, original);
+        var tolerance = 1e-6 * Math.max(1, exact.innerArea + exact.outerArea);
+        for (int dimension = 1; dimension <= 7; dimension++) {
+            for (var threaded : new boolean[]{false, true}) {
+                var tiled = SymmetricDifference.calculateTiled(polygon, original, dimension, dimension, threaded);
+                assertEquals(exact.innerArea, tiled.innerArea, tolerance);
+                assertEquals(exact.outerArea, tiled.outerArea, tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void tiledMatchesUntiledForEveryShape() {
+        for (var shape : PolygonGenerator.shapes) {
+            var original = generate(shape, 1);
+            assertTiledMatches(simplify(original), original);
+        }
+    }
+
+    @Test
+    public void tiledMatchesUntiledWhenVerticesNearlyTouchTileBorders() {
+        // Simplifying these leaves vertices within a rounding error of a tile border, where clipping makes the rings
+        // cross themselves. Overlaying those swapped the differences of a tile of the first and failed for the others
+        var shapes = new String[]{"chain", "chain", "orthogonal"};
+        var seeds = new long[]{3, 7, 8};
+        for (int i = 0; i < shapes.length; i++) {
+            var original = generate(shapes[i], seeds[i]);
+            assertTiledMatches(simplify(original), original);
+        }
+    }
+
+    @Test
+    public void tilesSplitTheDifferences() {
+        var original = generate("chain", 2);
+        var moved = original.clone();
+        for (var vertex : moved.vertices()) {
+            vertex.translate(0.37, 0.21);
+        }
+
+        var exact = SymmetricDifference.calculate(moved, original);
+        var tiled = SymmetricDifference.calculateTiled(moved, original, 4, 5, false);
+        assertEquals(4, tiled.rows);
+        assertEquals(5, tiled.columns);
+        assertEquals(20, tiled.tileInnerAreas.length);
+        assertEquals(exact.innerArea, tiled.innerArea, 1e-6 * exact.innerArea);
+        assertEquals(exact.outerArea, tiled.outerArea, 1e-6 * exact.outerArea);
+    }
+}
@@ -0,0 +1,80 @@
+package thesis;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the {@link Test} methods of the test classes, every method on a new instance of its class, and exits with a
+ * non-zero status when any of them failed. Runs the given classes, or all test classes when none are given.
+ * <br> Should be run with assertions enabled (-ea), as the tests also rely on the assertions of the simplification.
+ */
+public class TestRunner {
+
+    private static final String[] testClasses = {
+            "thesis.SymmetricDifferenceTest",
+            "thesis.generation.PolygonGeneratorTest",
+            "thesis.simplification.DifferenceLedgerTest",
+            "thesis.simplification.EdgeIndexTest",
+            "thesis.simplification.EdgeRingTest",
+            "thesis.simplification.SimplificationCheckpointTest",
+            "thesis.simplification.SimplificationHistoryTest",
+            "thesis.simplification.SubdivisionTest",
+            "thesis.simplification.moves.MoveQueueTest",
+    };
+
+    public static void main(String[] args) throws ClassNotFoundException {
+        var names = args.length > 0 ? args : testClasses;
+
+        var out = System.out;
+        var failures = new ArrayList<String>();
+        var count = 0;
+        for (var name : names) {
+            var type = Class.forName(name);
+            for (var method : testMethods(type)) {
+                count++;
+                // The simplification prints progress, which would hide the results
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                Throwable failure = null;
+                try {
+                    method.invoke(type.getConstructor().newInstance());
+                } catch (InvocationTargetException e) {
+                    failure = e.getCause();
+                } catch (ReflectiveOperationException e) {
+                    failure = e;
+                } finally {
+                    System.setOut(out);
+                }
+
+                var test = type.getSimpleName() + "." + method.getName();
+                if (failure == null) {
+                    out.println("PASS " + test);
+                } else {
+                    out.println("FAIL " + test + ": " + failure);
+                    failure.printStackTrace(out);
+                    failures.add(test);
+                }
+            }
+        }
+
+        out.println(count - failures.size() + " of " + count + " tests passed");
+        if (!failures.isEmpty())
+            System.exit(1);
+    }
+
+    private static List<Method> testMethods(Class<?> type) {
+        var methods = new ArrayList<Method>();
+        for (var method : type.getMethods()) {
+            if (method.isAnnotationPresent(Test.class) && !Modifier.isStatic(method.getModifiers())
+                    && method.getParameterCount() == 0)
+                methods.add(method);
+        }
+        // Reflection gives no particular order, so sort by name to keep runs reproducible
+        methods.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return methods;
+    }
+}
@@ -0,0 +1,47 @@
+package thesis.generation;
+
+import thesis.Test;
+import thesis.Util;
+
+import static thesis.Assert.*;
+
+public class PolygonGeneratorTest {
+
+    private static PolygonGenerator generator(long seed, double slopeVariation, double jitter) {
+        var generator = new PolygonGenerator(seed);
+        generator.slopeVariation = slopeVariation;
+        generator.stepSizeVariation = 200;
+        generator.jitter = jitter;
+        return generator;
+    }
+
+    @Test
+    public void polygonsAreClockwiseAndSimple() {
+        for (var shape : PolygonGenerator.shapes) {
+            for (long seed = 1; seed <= 3; seed++) {
+                for (var slopeVariation : new double[]{0, 10}) {
+                    var polygon = generator(seed, slopeVariation, 0.5).generate(shape, 1000);
+                    var name = shape + " " + seed + " " + slopeVariation;
+
+                    // Clockwise polygons have a positive signed area, as Checks.correctOrder expects
+                    assertTrue(polygon.areaSigned() > 0, name + " is counter-clockwise");
+                    assertTrue(Util.polygonToGeometry(polygon).isValid(), name + " is not simple");
+                    assertTrue(Math.abs(polygon.vertexCount() - 1000) <= 10,
+                            name + " has " + polygon.vertexCount() + " vertices");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSamePolygon() {
+        for (var shape : PolygonGenerator.shapes) {
+            var polygon = generator(7, 10, 0.5).generate(shape, 500);
+            var again = generator(7, 10, 0.5).generate(shape, 500);
+            assertEquals(polygon.vertexCount(), again.vertexCount());
+            for (int i = 0; i < polygon.vertexCount(); i++) {
+                assertTrue(polygon.vertex(i).isEqual(again.vertex(i)), shape + " differs at vertex " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package thesis.simplification;
+
+import thesis.Checks;
+import thesis.DataGeneration;
+import thesis.OrientationSet;
+import thesis.SymmetricDifference;
+import thesis.Test;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.util.Random;
+
+import static thesis.Assert.*;
+
+public class DifferenceLedgerTest {
+
+    private static OrientationSet orientations(double... degrees) {
+        var orientations = new OrientationSet();
+        for (var degree : degrees) {
+            orientations.addOrientationDegrees(degree);
+        }
+        return orientations;
+    }
+
+    // Regular staircase at 45 degrees, or one at 30 degrees with varying slopes and step sizes
+    private static Polygon staircase(long seed, boolean jittered) {
+        var random = new Random(seed);
+        var polygon = jittered
+                ? DataGeneration.staircase(random, 30, 100, 10, 200, orientations(0, 90))
+                : DataGeneration.staircase(random, 45, 100, 0, 100, orientations(0, 90));
+        Checks.runAll(polygon);
+        return polygon;
+    }
+
+    // Simplifies the polygon to half its vertices and compares the ledger with overlaying the polygons
+    private static void assertMatchesOverlay(String decider, long seed, boolean jittered) {
+        var original = staircase(seed, jittered);
+        var data = new SimplificationData(new Polygon(), orientations(0, 45, 90, 135));
+        data.deciderType = decider;
+        data.runThreaded = false;
+        var session = new SimplificationSession(data);
+        session.init(original, null);
+        session.runUntilLeft(original.vertexCount() / 2);
+        assertTrue(data.vertexCount() < original.vertexCount(), decider + " removed no vertices");
+
+        var exact = SymmetricDifference.calculate(data.getPolygon(), original);
+        var tolerance = 1e-6 * Math.max(1, exact.innerArea + exact.outerArea);
+        assertEquals(exact.innerArea, data.differences.getInnerDifference(), tolerance);
+        assertEquals(exact.outerArea, data.differences.getOuterDifference(), tolerance);
+        assertEquals(exact.innerArea + exact.outerArea, data.differences.getSymmetricDifference(), tolerance);
+    }
+
+    @Test
+    public void smallestEdgeMoveMatchesOverlay() {
+        // Single moves do not compensate each other, so the inner and outer difference differ
+        assertMatchesOverlay("2. Smallest Edge-Move", 1, false);
+        assertMatchesOverlay("2. Smallest Edge-Move", 1, true);
+    }
+
+    @Test
+    public void onlyPositiveMatchesOverlay() {
+        assertMatchesOverlay("0. Only Positive", 2, true);
+    }
+
+    @Test
+    public void onlyNegativeMatchesOverlay() {
+        assertMatchesOverlay("1. Only Negative", 3, true);
+    }
+
+    @Test
+    public void minimalMatchesOverlay() {
+        assertMatchesOverlay("8. Minimal", 4, true);
+    }
+}
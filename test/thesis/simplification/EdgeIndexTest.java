@@ -0,0 +1,128 @@
+package thesis.simplification;
+
+import thesis.Test;
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import nl.tue.geometrycore.geometry.linear.Rectangle;
+import nl.tue.geometrycore.util.DoubleUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static thesis.Assert.*;
+
+public class EdgeIndexTest {
+
+    // Star shaped polygon with edges of very different lengths, so edges cover one or many cells
+    private static Polygon star(double x, double y, int count, long seed) {
+        var random = new Random(seed);
+        var vertices = new ArrayList<Vector>();
+        for (int i = 0; i < count; i++) {
+            var angle = -2 * Math.PI * i / count;
+            var radius = 20 + random.nextDouble() * 80;
+            vertices.add(new Vector(x + radius * Math.cos(angle), y + radius * Math.sin(angle)));
+        }
+        return new Polygon(vertices);
+    }
+
+    private static Polygon box(double left, double bottom, double right, double top) {
+        return new Polygon(Arrays.asList(new Vector(left, bottom), new Vector(left, top),
+                new Vector(right, top), new Vector(right, bottom)));
+    }
+
+    // Edges whose bounding box overlaps the bounding box of the area, found by checking every edge
+    private static TreeSet<Integer> scan(EdgeRing ring, Polygon area) {
+        var box = Rectangle.byBoundingBox(area);
+        var result = new TreeSet<Integer>();
+        for (int i = 0, handle = ring.first(); i < ring.size(); i++, handle = ring.following(handle)) {
+            if (!ring.hasEdge(handle))
+                continue;
+            var edge = Rectangle.byBoundingBox(ring.edge(handle));
+            if (edge.getRight() >= box.getLeft() - DoubleUtil.EPS && edge.getLeft() <= box.getRight() + DoubleUtil.EPS
+                    && edge.getTop() >= box.getBottom() - DoubleUtil.EPS && edge.getBottom() <= box.getTop() + DoubleUtil.EPS)
+                result.add(handle);
+        }
+        return result;
+    }
+
+    private static void assertSameAsScan(EdgeRing ring, EdgeIndex index, long seed) {
+        var box = ring.boundingBox();
+        var random = new Random(seed);
+        for (int i = 0; i < 200; i++) {
+            var x = box.getLeft() - 20 + random.nextDouble() * (box.width() + 40);
+            var y = box.getBottom() - 20 + random.nextDouble() * (box.height() + 40);
+            var size = random.nextDouble() * 30;
+            var area = box(x, y, x + size, y + size);
+
+            var found = index.query(area);
+            var unique = new TreeSet<>(found);
+            assertEquals(unique.size(), found.size());
+            assertEquals(scan(ring, area), unique);
+        }
+    }
+
+    @Test
+    public void queryFindsSameEdgesAsScan() {
+        var ring = new EdgeRing(star(0, 0, 500, 1));
+        var index = new EdgeIndex(ring);
+
+        assertEquals(ring.size(), index.size());
+        assertSameAsScan(ring, index, 2);
+    }
+
+    @Test
+    public void queryFindsEdgesOfEveryRing() {
+        // The second ring lies far outside the first, so the grid has to cover the bounding box of both
+        var ring = new EdgeRing(List.of(star(0, 0, 200, 3), star(1000, 600, 200, 4)));
+        var index = new EdgeIndex(ring);
+
+        assertEquals(400, index.size());
+        assertSameAsScan(ring, index, 5);
+
+        var found = index.query(box(900, 500, 1100, 700));
+        assertEquals(200, found.size());
+        for (var handle : found) {
+            assertEquals(1, ring.ringOf(handle));
+        }
+    }
+
+    @Test
+    public void queryFollowsMovedAndRemovedEdges() {
+        var ring = new EdgeRing(star(0, 0, 300, 6));
+        var index = new EdgeIndex(ring);
+        var random = new Random(7);
+
+        for (int i = 0; i < 100; i++) {
+            var handle = ring.handleAt(random.nextInt(ring.size()));
+            if (i % 2 == 0) {
+                // Move the vertex, changing the edges before and after it
+                ring.vertex(handle).translate(random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5);
+                index.update(ring.previous(handle));
+                index.update(handle);
+            } else {
+                var previous = ring.previous(handle);
+                index.remove(handle);
+                ring.remove(handle);
+                index.update(previous);
+            }
+        }
+
+        assertEquals(ring.size(), index.size());
+        assertSameAsScan(ring, index, 8);
+    }
+
+    @Test
+    public void openChainsHaveNoClosingEdge() {
+        var ring = new EdgeRing(List.of(box(0, 0, 10, 10), box(20, 0, 30, 10)));
+        ring.open(1);
+        var index = new EdgeIndex(ring);
+
+        assertEquals(7, index.size());
+        var last = ring.previous(ring.ringFirst(1));
+        assertFalse(index.query(box(25, 0, 25, 0)).contains(last), "Closing edge of an open chain was indexed");
+        assertSameAsScan(ring, index, 9);
+    }
+}
@@ -0,0 +1,140 @@
+package thesis.simplification;
+
+import thesis.Test;
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static thesis.Assert.*;
+
+public class EdgeRingTest {
+
+    private static List<Polygon> rings(int... sizes) {
+        var rings = new ArrayList<Polygon>();
+        for (int ring = 0; ring < sizes.length; ring++) {
+            var vertices = new ArrayList<Vector>();
+            for (int i = 0; i < sizes[ring]; i++) {
+                vertices.add(new Vector(ring * 100 + i, i % 2));
+            }
+            rings.add(new Polygon(vertices));
+        }
+        return rings;
+    }
+
+    // Remaining handles of every ring, which in this order are the handles at index 0, 1, ...
+    private static List<List<Integer>> handles(int... sizes) {
+        var handles = new ArrayList<List<Integer>>();
+        var handle = 0;
+        for (var size : sizes) {
+            var ring = new ArrayList<Integer>();
+            for (int i = 0; i < size; i++) {
+                ring.add(handle++);
+            }
+            handles.add(ring);
+        }
+        return handles;
+    }
+
+    private static void assertMatches(EdgeRing ring, List<List<Integer>> handles) {
+        var all = new ArrayList<Integer>();
+        handles.forEach(all::addAll);
+        assertEquals(all.size(), ring.size());
+
+        for (int index = 0; index < all.size(); index++) {
+            var handle = all.get(index);
+            assertEquals(handle, (Integer) ring.handleAt(index));
+            assertEquals(index, ring.indexOf(handle));
+        }
+        for (int handle = 0; handle < ring.capacity(); handle++) {
+            if (!all.contains(handle))
+                assertEquals(-1, ring.indexOf(handle));
+        }
+
+        // Walking from the first vertex visits the handles in index order, across the rings
+        assertEquals(all.isEmpty() ? -1 : all.get(0), ring.first());
+        for (int index = 0, handle = ring.first(); index < all.size(); index++, handle = ring.following(handle)) {
+            assertEquals(all.get(index), (Integer) handle);
+        }
+
+        for (int r = 0; r < handles.size(); r++) {
+            var remaining = handles.get(r);
+            assertEquals(remaining.size(), ring.ringSize(r));
+            assertEquals(remaining.isEmpty() ? -1 : remaining.get(0), ring.ringFirst(r));
+            for (int i = 0; i < remaining.size(); i++) {
+                var handle = remaining.get(i);
+                assertEquals(r, ring.ringOf(handle));
+                assertEquals(remaining.get((i + 1) % remaining.size()), (Integer) ring.next(handle));
+            }
+        }
+    }
+
+    @Test
+    public void handlesAndIndicesMatchBeforeRemovals() {
+        var ring = new EdgeRing(rings(5, 3, 7));
+
+        assertEquals(3, ring.ringCount());
+        assertMatches(ring, handles(5, 3, 7));
+        assertThrows(IndexOutOfBoundsException.class, () -> ring.handleAt(15));
+        assertThrows(IndexOutOfBoundsException.class, () -> ring.handleAt(-1));
+    }
+
+    @Test
+    public void handlesAndIndicesMatchAfterRemovalsAcrossRings() {
+        var sizes = new int[]{40, 7, 25, 1, 60, 13};
+        var random = new Random(1);
+        var ring = new EdgeRing(rings(sizes));
+        var handles = handles(sizes);
+
+        while (ring.size() > 0) {
+            var index = random.nextInt(ring.size());
+            var handle = ring.handleAt(index);
+            ring.remove(handle);
+            for (var remaining : handles) {
+                remaining.remove((Integer) handle);
+            }
+
+            assertMatches(ring, handles);
+            assertThrows(IndexOutOfBoundsException.class, () -> ring.handleAt(ring.size()));
+        }
+        assertEquals(-1, ring.first());
+    }
+
+    @Test
+    public void emptiedRingsAreSkipped() {
+        var ring = new EdgeRing(rings(3, 2, 4));
+        var handles = handles(3, 2, 4);
+
+        // Empty the first ring and the middle ring, the first vertex moves to the last ring
+        for (var handle : List.of(3, 0, 4, 1, 2)) {
+            ring.remove(handle);
+            for (var remaining : handles) {
+                remaining.remove(handle);
+            }
+        }
+
+        assertMatches(ring, handles);
+        assertEquals(5, ring.first());
+        assertEquals(5, ring.handleAt(0));
+        assertEquals(0, ring.indexOf(5));
+        assertEquals(-1, ring.ringFirst(0));
+        assertEquals(-1, ring.ringFirst(1));
+    }
+
+    @Test
+    public void successorSkipsRemovedVertices() {
+        var ring = new EdgeRing(rings(6, 6));
+
+        ring.remove(2);
+        ring.remove(3);
+        ring.remove(11);
+
+        assertEquals(1, ring.successor(1));
+        assertEquals(4, ring.successor(2));
+        assertEquals(4, ring.successor(3));
+        // The last vertex of a ring is followed by the first vertex of the same ring
+        assertEquals(6, ring.successor(11));
+    }
+}
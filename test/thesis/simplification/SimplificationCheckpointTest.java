@@ -0,0 +1,177 @@
+package thesis.simplification;
+
+import thesis.Checks;
+import thesis.DataGeneration;
+import thesis.OrientationSet;
+import thesis.SymmetricDifference;
+import thesis.Test;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import static thesis.Assert.*;
+
+public class SimplificationCheckpointTest {
+
+    private static OrientationSet orientations(double... degrees) {
+        var orientations = new OrientationSet();
+        for (var degree : degrees) {
+            orientations.addOrientationDegrees(degree);
+        }
+        return orientations;
+    }
+
+    private static Polygon staircase(long seed) {
+        var polygon = DataGeneration.staircase(new Random(seed), 45, 100, 0, 100, orientations(0, 90));
+        Checks.runAll(polygon);
+        return polygon;
+    }
+
+    private static SimplificationSession session() {
+        var data = new SimplificationData(new Polygon(), orientations(0, 45, 90, 135));
+        data.runThreaded = false;
+        return new SimplificationSession(data);
+    }
+
+    private static File temporaryFile() throws IOException {
+        var file = File.createTempFile("checkpoint", SimplificationCheckpoint.extension);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static double[] coordinates(Polygon polygon) {
+        var coordinates = new double[polygon.vertexCount() * 2];
+        for (int i = 0; i < polygon.vertexCount(); i++) {
+            coordinates[i * 2] = polygon.vertex(i).getX();
+            coordinates[i * 2 + 1] = polygon.vertex(i).getY();
+        }
+        return coordinates;
+    }
+
+    @Test
+    public void writeAndReadKeepEveryField() throws IOException {
+        var checkpoint = new SimplificationCheckpoint();
+        checkpoint.deciderType = "8. Minimal";
+        checkpoint.orientations = new double[]{0, Math.PI / 4, Math.PI / 2};
+        checkpoint.batchSize = 16;
+        checkpoint.rotationDistance = 3;
+        checkpoint.minStaircaseSize = 5;
+        checkpoint.calculateStartRotationMoves = true;
+        checkpoint.calculateEndRotationMoves = false;
+        checkpoint.calculateMiddleRotationMoves = true;
+        checkpoint.compensateSingleMoves = true;
+        checkpoint.totalIterations = 42;
+        checkpoint.totalVerticesRemoved = 84;
+        checkpoint.totalAreaEffected = 1234.5;
+        checkpoint.totalMovesMade = 50;
+        checkpoint.totalTimeTaken = 9876543210L;
+        checkpoint.netDifference = -12.5;
+        checkpoint.symmetricDifference = 40.25;
+        checkpoint.differenceTriangles = new double[]{1, 0, 0, 1, 0, 0, 1, -1, 2, 2, 2, 3, 3, 2};
+        // An outer ring, an emptied hole and a hole
+        checkpoint.ringSizes = new int[]{4, 0, 3};
+        checkpoint.coordinates = new double[]{0, 0, 0, 10, 10, 10, 10, 0, 2, 2, 3, 2, 2.5, 3.5};
+
+        var file = temporaryFile();
+        checkpoint.write(file);
+        var read = SimplificationCheckpoint.read(file);
+
+        assertEquals(checkpoint.deciderType, read.deciderType);
+        assertTrue(Arrays.equals(checkpoint.orientations, read.orientations), "Orientations differ");
+        assertEquals(checkpoint.batchSize, read.batchSize);
+        assertEquals(checkpoint.rotationDistance, read.rotationDistance);
+        assertEquals(checkpoint.minStaircaseSize, read.minStaircaseSize);
+        assertEquals(checkpoint.calculateStartRotationMoves, read.calculateStartRotationMoves);
+        assertEquals(checkpoint.calculateEndRotationMoves, read.calculateEndRotationMoves);
+        assertEquals(checkpoint.calculateMiddleRotationMoves, read.calculateMiddleRotationMoves);
+        assertEquals(checkpoint.compensateSingleMoves, read.compensateSingleMoves);
+        assertEquals(checkpoint.totalIterations, read.totalIterations);
+        assertEquals(checkpoint.totalVerticesRemoved, read.totalVerticesRemoved);
+        assertEquals(checkpoint.totalAreaEffected, read.totalAreaEffected, 0);
+        assertEquals(checkpoint.totalMovesMade, read.totalMovesMade);
+        assertEquals(checkpoint.totalTimeTaken, read.totalTimeTaken);
+        assertEquals(checkpoint.netDifference, read.netDifference, 0);
+        assertEquals(checkpoint.symmetricDifference, read.symmetricDifference, 0);
+        assertTrue(Arrays.equals(checkpoint.differenceTriangles, read.differenceTriangles), "Triangles differ");
+        assertTrue(Arrays.equals(checkpoint.ringSizes, read.ringSizes), "Ring sizes differ");
+        assertTrue(Arrays.equals(checkpoint.coordinates, read.coordinates), "Coordinates differ");
+        assertEquals(7, read.vertexCount());
+    }
+
+    @Test
+    public void restoreContinuesWithTheSameMoves() throws IOException {
+        var polygon = staircase(1);
+        var session = session();
+        session.init(polygon, null);
+        assertTrue(session.runUntilLeft(polygon.vertexCount() * 3 / 4), "Simplification stopped early");
+
+        var checkpoint = SimplificationCheckpoint.capture(session.data);
+        var file = temporaryFile();
+        checkpoint.write(file);
+
+        var restored = session();
+        restored.restore(SimplificationCheckpoint.read(file), null);
+        assertTrue(Arrays.equals(coordinates(session.data.getPolygon()), coordinates(restored.data.getPolygon())),
+                "Restored polygon differs");
+        assertEquals(session.getStatistics().totalIterations, restored.getStatistics().totalIterations);
+        assertEquals(session.getStatistics().totalMovesMade, restored.getStatistics().totalMovesMade);
+        assertEquals(session.getStatistics().totalAreaEffected, restored.getStatistics().totalAreaEffected, 0);
+        assertSameDifferences(session.data.differences, restored.data.differences);
+
+        assertTrue(session.runUntilLeft(polygon.vertexCount() / 2), "Simplification stopped early");
+        assertTrue(restored.runUntilLeft(polygon.vertexCount() / 2), "Restored simplification stopped early");
+        assertTrue(Arrays.equals(coordinates(session.data.getPolygon()), coordinates(restored.data.getPolygon())),
+                "Polygons differ after continuing from the checkpoint");
+        assertEquals(session.getStatistics().totalIterations, restored.getStatistics().totalIterations);
+
+        // The restored ledger still measures against the polygon the simplification started with
+        assertSameDifferences(session.data.differences, restored.data.differences);
+        var exact = SymmetricDifference.calculate(restored.data.getPolygon(), polygon);
+        var tolerance = 1e-6 * Math.max(1, exact.innerArea + exact.outerArea);
+        assertEquals(exact.innerArea, restored.data.differences.getInnerDifference(), tolerance);
+        assertEquals(exact.outerArea, restored.data.differences.getOuterDifference(), tolerance);
+    }
+
+    // Restoring stores the triangles of the ledger in another grid, which only changes the order of the sums
+    private static void assertSameDifferences(DifferenceLedger expected, DifferenceLedger actual) {
+        var tolerance = 1e-9 * Math.max(1, expected.getSymmetricDifference());
+        assertEquals(expected.getInnerDifference(), actual.getInnerDifference(), tolerance);
+        assertEquals(expected.getOuterDifference(), actual.getOuterDifference(), tolerance);
+    }
+
+    @Test
+    public void readRejectsOtherFiles() throws IOException {
+        var other = temporaryFile();
+        try (var output = new DataOutputStream(new FileOutputStream(other))) {
+            output.writeInt(0x12345678);
+            output.writeInt(SimplificationCheckpoint.version);
+        }
+        assertThrows(IOException.class, () -> SimplificationCheckpoint.read(other));
+
+        var future = temporaryFile();
+        try (var output = new DataOutputStream(new FileOutputStream(future))) {
+            output.writeInt(SimplificationCheckpoint.magic);
+            output.writeInt(SimplificationCheckpoint.version + 1);
+        }
+        assertThrows(IOException.class, () -> SimplificationCheckpoint.read(future));
+    }
+
+    @Test
+    public void readRejectsTruncatedFiles() throws IOException {
+        var session = session();
+        session.init(staircase(2), null);
+        var file = temporaryFile();
+        SimplificationCheckpoint.capture(session.data).write(file);
+
+        try (var truncate = new RandomAccessFile(file, "rw")) {
+            truncate.setLength(truncate.length() - 4);
+        }
+        assertThrows(IOException.class, () -> SimplificationCheckpoint.read(file));
+    }
+}
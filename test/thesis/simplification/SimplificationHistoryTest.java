@@ -0,0 +1,127 @@
+package thesis.simplification;
+
+import thesis.Checks;
+import thesis.DataGeneration;
+import thesis.OrientationSet;
+import thesis.Test;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static thesis.Assert.*;
+
+public class SimplificationHistoryTest {
+
+    private static OrientationSet orientations(double... degrees) {
+        var orientations = new OrientationSet();
+        for (var degree : degrees) {
+            orientations.addOrientationDegrees(degree);
+        }
+        return orientations;
+    }
+
+    private static Polygon staircase(long seed) {
+        var polygon = DataGeneration.staircase(new Random(seed), 45, 100, 0, 100, orientations(0, 90));
+        Checks.runAll(polygon);
+        return polygon;
+    }
+
+    private static SimplificationSession session() {
+        var data = new SimplificationData(new Polygon(), orientations(0, 45, 90, 135));
+        data.runThreaded = false;
+        return new SimplificationSession(data);
+    }
+
+    private static File temporaryFile() throws IOException {
+        var file = File.createTempFile("history", SimplificationHistory.extension);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static double[] coordinates(Polygon polygon) {
+        var coordinates = new double[polygon.vertexCount() * 2];
+        for (int i = 0; i < polygon.vertexCount(); i++) {
+            coordinates[i * 2] = polygon.vertex(i).getX();
+            coordinates[i * 2 + 1] = polygon.vertex(i).getY();
+        }
+        return coordinates;
+    }
+
+    // Simplifies the polygon to a quarter of its vertices while recording, keeping the polygon after every step
+    private static SimplificationHistory record(Polygon polygon, ArrayList<double[]> polygons) {
+        var session = session();
+        session.init(polygon, null);
+        var history = SimplificationHistory.start(session.data);
+
+        polygons.add(coordinates(session.data.getPolygon()));
+        while (session.data.vertexCount() > polygon.vertexCount() / 4 && session.iteration()) {
+            // Iterations without changes are not recorded as a step
+            if (history.getSteps() == polygons.size())
+                polygons.add(coordinates(session.data.getPolygon()));
+        }
+        return history;
+    }
+
+    @Test
+    public void writeAndReadReplayTheSamePolygons() throws IOException {
+        var polygons = new ArrayList<double[]>();
+        var history = record(staircase(1), polygons);
+        assertEquals(polygons.size() - 1, history.getSteps());
+        assertTrue(history.getSteps() > 1, "Simplification recorded no steps");
+
+        var file = temporaryFile();
+        history.write(file);
+        var read = SimplificationHistory.read(file);
+
+        assertEquals(history.getSteps(), read.getSteps());
+        for (int step = 0; step <= read.getSteps(); step++) {
+            assertEquals(history.getVertexCount(step), read.getVertexCount(step));
+            assertTrue(Arrays.equals(polygons.get(step), coordinates(read.getPolygon(step))),
+                    "Polygon of step " + step + " differs after reading");
+        }
+
+        var vertices = read.getVertexCount(read.getSteps() / 2);
+        assertEquals(history.findStep(vertices), read.findStep(vertices));
+        assertTrue(Arrays.equals(coordinates(history.getPolygonWithAtMost(vertices)), coordinates(read.getPolygonWithAtMost(vertices))),
+                "Polygon with at most " + vertices + " vertices differs after reading");
+    }
+
+    @Test
+    public void readRejectsOtherFiles() throws IOException {
+        var other = temporaryFile();
+        try (var output = new DataOutputStream(new FileOutputStream(other))) {
+            output.writeInt(0x12345678);
+            output.writeInt(SimplificationHistory.version);
+        }
+        assertThrows(IOException.class, () -> SimplificationHistory.read(other));
+
+        // Earlier versions are not read either
+        for (var version : new int[]{SimplificationHistory.version - 1, SimplificationHistory.version + 1}) {
+            var file = temporaryFile();
+            try (var output = new DataOutputStream(new FileOutputStream(file))) {
+                output.writeInt(SimplificationHistory.magic);
+                output.writeInt(version);
+            }
+            assertThrows(IOException.class, () -> SimplificationHistory.read(file));
+        }
+    }
+
+    @Test
+    public void readRejectsTruncatedFiles() throws IOException {
+        var history = record(staircase(2), new ArrayList<>());
+        var file = temporaryFile();
+        history.write(file);
+
+        try (var truncate = new RandomAccessFile(file, "rw")) {
+            truncate.setLength(truncate.length() - 4);
+        }
+        assertThrows(IOException.class, () -> SimplificationHistory.read(file));
+    }
+}
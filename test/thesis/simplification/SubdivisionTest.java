@@ -0,0 +1,169 @@
+package thesis.simplification;
+
+import thesis.OrientationSet;
+import thesis.Test;
+import thesis.Util;
+import nl.tue.geometrycore.geometry.Vector;
+import nl.tue.geometrycore.geometry.linear.Polygon;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static thesis.Assert.*;
+
+public class SubdivisionTest {
+
+    private static final String[] areaPreservingDeciders = {
+            "3. Minimal Pair",
+            "4. Minimal Complementary Pair",
+            "7. Only Compensating Rotation",
+            "8. Minimal",
+    };
+
+    /**
+     * Splits the rectangle [0, 200] x [0, 100] in two faces along a staircase from (50, 100) down to (150, 0), which
+     * is the boundary they share. The staircase starts and ends with a vertical step, so it meets the boundary of the
+     * rectangle at an angle.
+     */
+    private static List<List<Polygon>> staircaseFaces(long seed, int steps) {
+        var random = new Random(seed);
+        var stairs = new ArrayList<Vector>();
+        double x = 50, y = 100;
+        stairs.add(new Vector(x, y));
+        for (int i = 0; i < steps; i++) {
+            y = i == steps - 1 ? 0 : Math.max(1, y - 100.0 / steps * (0.5 + random.nextDouble()));
+            stairs.add(new Vector(x, y));
+            if (i == steps - 1)
+                break;
+            x = i == steps - 2 ? 150 : Math.min(149, x + 100.0 / steps * (0.5 + random.nextDouble()));
+            stairs.add(new Vector(x, y));
+        }
+
+        var left = new Polygon(new Vector(0, 0), new Vector(0, 100));
+        for (var vertex : stairs) {
+            left.addVertex(vertex.clone());
+        }
+        var right = new Polygon(new Vector(200, 100), new Vector(200, 0));
+        Collections.reverse(stairs);
+        for (var vertex : stairs) {
+            right.addVertex(vertex.clone());
+        }
+        return List.of(List.of(left), List.of(right));
+    }
+
+    private static Polygon rectangle(double left, double right) {
+        return new Polygon(new Vector(left, 0), new Vector(left, 100), new Vector(right, 100), new Vector(right, 0));
+    }
+
+    private static SimplificationSession session(String decider) {
+        var orientations = new OrientationSet();
+        for (var degree : new double[]{0, 45, 90, 135}) {
+            orientations.addOrientationDegrees(degree);
+        }
+        var data = new SimplificationData(new Polygon(), orientations);
+        data.deciderType = decider;
+        data.runThreaded = false;
+        return new SimplificationSession(data);
+    }
+
+    private static double[] areas(List<List<Polygon>> faces) {
+        var areas = new double[faces.size()];
+        for (int face = 0; face < faces.size(); face++) {
+            areas[face] = Util.ringsToGeometry(faces.get(face)).getArea();
+        }
+        return areas;
+    }
+
+    @Test
+    public void sharedBoundaryIsOneChain() {
+        var faces = staircaseFaces(1, 10);
+        var subdivision = Subdivision.create(faces);
+
+        // The shared staircase and the rest of the boundary of either face
+        assertEquals(2, subdivision.faceCount());
+        assertEquals(3, subdivision.chainCount());
+
+        var ring = new EdgeRing(subdivision.getChains());
+        subdivision.prepare(ring);
+        var before = areas(faces);
+        var rebuilt = areas(subdivision.getFaces(ring));
+        var faceAreas = subdivision.faceAreas(ring);
+        for (int face = 0; face < before.length; face++) {
+            assertEquals(before[face], rebuilt[face], 1e-9);
+            assertEquals(before[face], faceAreas[face], 1e-9);
+        }
+    }
+
+    @Test
+    public void chainsWithSameSidesHaveTheSameFaces() {
+        // Three strips, the middle strip touches the outside with a chain at the top and one at the bottom
+        var faces = List.of(List.of(rectangle(0, 10)), List.of(rectangle(10, 20)), List.of(rectangle(20, 30)));
+        var subdivision = Subdivision.create(faces);
+        var chains = subdivision.getChains();
+        assertEquals(6, chains.size());
+
+        var top = -1;
+        var bottom = -1;
+        for (int chain = 0; chain < chains.size(); chain++) {
+            var vertices = chains.get(chain).vertices();
+            var middle = vertices.stream().allMatch(vertex -> vertex.getX() >= 10 && vertex.getX() <= 20);
+            if (middle && vertices.stream().allMatch(vertex -> vertex.getY() == 100))
+                top = chain;
+            if (middle && vertices.stream().allMatch(vertex -> vertex.getY() == 0))
+                bottom = chain;
+
+            var group = subdivision.chainsWithSameSides(chain);
+            assertTrue(Arrays.binarySearch(group, chain) >= 0, "Chain " + chain + " is missing from its own group");
+        }
+
+        assertTrue(top >= 0 && bottom >= 0, "Top or bottom chain of the middle strip not found");
+        assertTrue(Arrays.equals(new int[]{Math.min(top, bottom), Math.max(top, bottom)},
+                subdivision.chainsWithSameSides(top)), "Top and bottom chain have different sides");
+        for (int chain = 0; chain < chains.size(); chain++) {
+            if (chain != top && chain != bottom)
+                assertEquals(1, subdivision.chainsWithSameSides(chain).length);
+        }
+    }
+
+    @Test
+    public void areaPreservingDecidersKeepTheAreaOfEveryFace() {
+        for (var decider : areaPreservingDeciders) {
+            var faces = staircaseFaces(5, 20);
+            var before = areas(faces);
+            for (var face : faces) {
+                assertTrue(Util.ringsToGeometry(face).isValid(), "Input face is invalid");
+            }
+
+            var session = session(decider);
+            session.init(Subdivision.create(faces), null);
+            var vertices = session.data.vertexCount();
+            while (session.iteration()) ;
+
+            var simplified = session.data.getFaces();
+            var after = areas(simplified);
+            for (int face = 0; face < before.length; face++) {
+                assertEquals(before[face], after[face], 1e-6 * before[face]);
+            }
+            // Rotations alone only turn edges, they remove no vertices
+            if (!decider.equals("7. Only Compensating Rotation"))
+                assertTrue(session.data.vertexCount() < vertices, decider + " removed no vertices");
+
+            // The faces still share their boundary: they do not overlap and leave no gap
+            var geometries = new ArrayList<Geometry>();
+            for (var face : simplified) {
+                var geometry = Util.ringsToGeometry(face);
+                assertTrue(geometry.isValid(), decider + " made a face invalid");
+                geometries.add(geometry);
+            }
+            var union = UnaryUnionOp.union(geometries);
+            assertEquals(before[0] + before[1], union.getArea(), 1e-6 * union.getArea());
+            assertEquals(1, union.getNumGeometries());
+            assertEquals(0, ((org.locationtech.jts.geom.Polygon) union).getNumInteriorRing());
+        }
+    }
+}
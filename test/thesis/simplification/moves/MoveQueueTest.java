@@ -0,0 +1,266 @@
+package thesis.simplification.moves;
+
+import thesis.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static thesis.Assert.*;
+
+public class MoveQueueTest {
+
+    // Move with an area and validity that can be changed, as the real moves change when the polygon changes
+    private static class FixedMove extends Move {
+        private double area;
+        private boolean valid = true;
+
+        private FixedMove(double area) {
+            super(null);
+            this.area = area;
+        }
+
+        @Override
+        public MoveType getType() {
+            return MoveType.NONE;
+        }
+
+        @Override
+        public boolean isValid() {
+            return valid;
+        }
+
+        @Override
+        public double getAffectedArea() {
+            return area;
+        }
+
+        @Override
+        public void applyForArea(double area) {
+        }
+
+        @Override
+        public void apply() {
+        }
+
+        @Override
+        public double getCompensationArea() {
+            return 0;
+        }
+    }
+
+    private static List<FixedMove> moves(double... areas) {
+        var moves = new ArrayList<FixedMove>();
+        for (var area : areas) {
+            moves.add(new FixedMove(area));
+        }
+        return moves;
+    }
+
+    // Handle of the smallest valid move in a scan over the moves, the first one on ties
+    private static int scan(List<FixedMove> moves, boolean[] queued) {
+        var smallest = -1;
+        for (int handle = 0; handle < moves.size(); handle++) {
+            var move = moves.get(handle);
+            if (move == null || !queued[handle] || !move.isValid() || !(move.area < Double.MAX_VALUE))
+                continue;
+            if (smallest < 0 || move.area < moves.get(smallest).area)
+                smallest = handle;
+        }
+        return smallest;
+    }
+
+    private static List<Integer> drain(MoveQueue<FixedMove> queue) {
+        var handles = new ArrayList<Integer>();
+        while (!queue.isEmpty()) {
+            var move = queue.peek();
+            var handle = 0;
+            while (queue.get(handle) != move) {
+                handle++;
+            }
+            handles.add(handle);
+            queue.remove(handle);
+        }
+        return handles;
+    }
+
+    @Test
+    public void peekGivesMovesInAreaOrder() {
+        var queue = new MoveQueue<>(moves(5, 3, 8, 1, 9, 2, 7));
+
+        assertEquals(7, queue.size());
+        assertEquals(Arrays.asList(3, 5, 1, 0, 6, 2, 4), drain(queue));
+        assertEquals(null, queue.peek());
+    }
+
+    @Test
+    public void tiesGoToTheSmallestHandle() {
+        var queue = new MoveQueue<>(moves(4, 2, 4, 2, 2, 1, 4));
+
+        assertEquals(Arrays.asList(5, 1, 3, 4, 0, 2, 6), drain(queue));
+    }
+
+    @Test
+    public void invalidAndUnboundedMovesAreSkipped() {
+        var moves = moves(3, Double.NaN, 1, Double.MAX_VALUE, 2, Double.POSITIVE_INFINITY);
+        moves.get(2).valid = false;
+        var queue = new MoveQueue<>(moves);
+
+        assertEquals(2, queue.size());
+        assertEquals(Arrays.asList(4, 0), drain(queue));
+    }
+
+    @Test
+    public void updateReordersChangedMoves() {
+        var moves = moves(1, 2, 3, 4);
+        var queue = new MoveQueue<>(moves);
+
+        moves.get(0).area = 10;
+        queue.update(0);
+        assertEquals(moves.get(1), queue.peek());
+
+        moves.get(3).area = 0.5;
+        queue.update(3);
+        assertEquals(moves.get(3), queue.peek());
+
+        moves.get(3).valid = false;
+        queue.update(3);
+        assertFalse(queue.contains(3), "Invalid move stayed in the queue");
+        assertEquals(moves.get(1), queue.peek());
+
+        moves.get(3).valid = true;
+        queue.update(3);
+        assertEquals(Arrays.asList(3, 1, 2, 0), drain(queue));
+    }
+
+    @Test
+    public void suspendKeepsMoveUntilUpdate() {
+        var moves = moves(1, 2, 3);
+        var queue = new MoveQueue<>(moves);
+
+        queue.suspend(0);
+        assertFalse(queue.contains(0), "Suspended move stayed in the queue");
+        assertEquals(moves.get(0), queue.get(0));
+        assertEquals(moves.get(1), queue.peek());
+
+        queue.update(0);
+        assertEquals(moves.get(0), queue.peek());
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void peekMatchesScanAfterRandomChanges() {
+        var random = new Random(1);
+        var count = 200;
+        var moves = new ArrayList<FixedMove>();
+        for (int i = 0; i < count; i++) {
+            // Few distinct areas, so many moves tie
+            moves.add(new FixedMove(random.nextInt(20)));
+        }
+        var queue = new MoveQueue<>(moves);
+        var queued = new boolean[count];
+        Arrays.fill(queued, true);
+
+        for (int i = 0; i < 5000; i++) {
+            var handle = random.nextInt(count);
+            switch (random.nextInt(4)) {
+                case 0:
+                    moves.get(handle).area = random.nextInt(20);
+                    queue.update(handle);
+                    queued[handle] = true;
+                    break;
+                case 1:
+                    moves.get(handle).valid = !moves.get(handle).valid;
+                    queue.update(handle);
+                    queued[handle] = true;
+                    break;
+                case 2:
+                    queue.suspend(handle);
+                    queued[handle] = false;
+                    break;
+                default:
+                    var move = new FixedMove(random.nextInt(20));
+                    moves.set(handle, move);
+                    queue.set(handle, move);
+                    queued[handle] = true;
+                    break;
+            }
+
+            var expected = scan(moves, queued);
+            assertEquals(expected < 0 ? null : moves.get(expected), queue.peek());
+        }
+    }
+
+    @Test
+    public void fromGivesMovesOfAtLeastAnAreaInOrder() {
+        var moves = moves(5, 3, 8, 3, Double.NaN, 2, 7);
+        moves.get(2).valid = false;
+        var queue = new MoveQueue<>(moves, true);
+
+        var from = new ArrayList<FixedMove>();
+        queue.from(3).forEach(from::add);
+        assertEquals(List.of(moves.get(1), moves.get(3), moves.get(0), moves.get(6)), from);
+
+        // Suspended moves are still there, removed ones are not
+        queue.suspend(1);
+        queue.remove(3);
+        from.clear();
+        queue.from(2.5).forEach(from::add);
+        assertEquals(List.of(moves.get(1), moves.get(0), moves.get(6)), from);
+        assertFalse(queue.from(7.5).iterator().hasNext(), "Moves above the largest area were given");
+    }
+
+    @Test
+    public void fromMatchesScanAfterRandomChanges() {
+        var random = new Random(2);
+        var count = 200;
+        var moves = new ArrayList<FixedMove>();
+        for (int i = 0; i < count; i++) {
+            moves.add(new FixedMove(random.nextInt(20)));
+        }
+        var queue = new MoveQueue<>(moves, true);
+
+        for (int i = 0; i < 2000; i++) {
+            var handle = random.nextInt(count);
+            switch (random.nextInt(5)) {
+                case 0:
+                    if (moves.get(handle) != null) {
+                        moves.get(handle).area = random.nextInt(20);
+                        queue.update(handle);
+                    }
+                    break;
+                case 1:
+                    if (moves.get(handle) != null) {
+                        moves.get(handle).valid = !moves.get(handle).valid;
+                        queue.update(handle);
+                    }
+                    break;
+                case 2:
+                    queue.suspend(handle);
+                    break;
+                case 3:
+                    queue.remove(handle);
+                    moves.set(handle, null);
+                    break;
+                default:
+                    var move = new FixedMove(random.nextInt(20));
+                    moves.set(handle, move);
+                    queue.set(handle, move);
+                    break;
+            }
+
+            // Every valid move of at least the area, whether suspended or not, by area and then handle
+            var area = random.nextInt(22) - 0.5 * random.nextInt(2);
+            var expected = new ArrayList<FixedMove>();
+            for (var move : moves) {
+                if (move != null && move.isValid() && move.area >= area)
+                    expected.add(move);
+            }
+            expected.sort((a, b) -> Double.compare(a.area, b.area));
+            var from = new ArrayList<FixedMove>();
+            queue.from(area).forEach(from::add);
+            assertEquals(expected, from);
+        }
+    }
+}